@@ -0,0 +1,34 @@
+package com.zerotrust.backend.dto;
+
+import com.zerotrust.backend.enums.NetworkType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One access_events row as exported for offline analysis
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccessEventExportRow {
+
+    private UUID id;
+    private UUID userId;
+    private UUID deviceId;
+    private Instant timestamp;
+    private String ipAddress;
+    private NetworkType networkType;
+    private String country;
+    private String city;
+    private int hourOfDay;
+    private boolean weekend;
+    private String resource;
+    private String sessionId;
+    private String userAgent;
+    private boolean success;
+    private Double eventRiskScore;
+}
@@ -0,0 +1,66 @@
+package com.zerotrust.backend.dto;
+
+import com.zerotrust.backend.enums.NetworkType;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One access event as emitted by a gateway.
+ * Hour of day and weekend flag are derived from the timestamp (UTC).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccessEventPayload {
+
+    @NotBlank
+    @Email
+    private String userEmail;
+
+    // Optional; must belong to the user when present
+    private UUID deviceId;
+
+    @NotNull
+    @PastOrPresent
+    private Instant timestamp;
+
+    @Size(max = 64)
+    private String ipAddress;
+
+    @NotNull
+    private NetworkType networkType;
+
+    @Size(max = 255)
+    private String country;
+
+    @Size(max = 255)
+    private String city;
+
+    @Size(max = 255)
+    private String resource;
+
+    @Size(max = 255)
+    private String sessionId;
+
+    @Size(max = 255)
+    private String userAgent;
+
+    private boolean success;
+
+    @Min(0)
+    @Max(100)
+    private Double eventRiskScore;
+}
@@ -0,0 +1,27 @@
+package com.zerotrust.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Per-user aggregate of device posture, as returned by the set-based
+ * GROUP BY query.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceAggregate {
+
+    private UUID userId;
+    private long deviceCount;
+    private double deviceRiskSum;
+    private long unpatchedDevices;
+    private long antivirusDisabledDevices;
+
+    public static DeviceAggregate empty(UUID userId) {
+        return new DeviceAggregate(userId, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.zerotrust.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Per-user aggregate of access events, as returned by the set-based
+ * GROUP BY query. Holds exactly the counts and sums that
+ * FeatureExtractionService needs to build the behavioral and
+ * contextual features.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventAggregate {
+
+    private UUID userId;
+    private long totalEvents;
+    private long failedEvents;
+    private long nightEvents;
+    private long eventsLast24h;
+    // Sum of the per-event network risk scores (integer weights, so exact)
+    private long networkRiskSum;
+    private long distinctCountries;
+    // Events with no country count as one extra distinct location
+    private long nullCountryEvents;
+
+    public static EventAggregate empty(UUID userId) {
+        return new EventAggregate(userId, 0, 0, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,15 @@
+package com.zerotrust.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestBatchRequest {
+
+    private List<AccessEventPayload> events;
+}
@@ -0,0 +1,31 @@
+package com.zerotrust.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestBatchResponse {
+
+    private int received;
+    private int accepted;
+    private int rejected;
+    // Rejected events by position in the request
+    private List<EventError> errors;
+    private long durationMs;
+    private double eventsPerSecond;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class EventError {
+        private int index;
+        private String message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.zerotrust.backend.dto;
+
+import com.zerotrust.backend.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Most recent trust score of one user
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LatestScore {
+
+    private UUID userId;
+    private double score;
+    private RiskLevel level;
+    private Instant calculatedAt;
+}
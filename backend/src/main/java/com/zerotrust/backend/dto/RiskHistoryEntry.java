@@ -0,0 +1,23 @@
+package com.zerotrust.backend.dto;
+
+import com.zerotrust.backend.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of one risk_score_history row
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiskHistoryEntry {
+
+    private UUID id;
+    private Double score;
+    private RiskLevel level;
+    private Instant calculatedAt;
+}
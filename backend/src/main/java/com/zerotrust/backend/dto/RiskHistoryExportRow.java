@@ -0,0 +1,26 @@
+package com.zerotrust.backend.dto;
+
+import com.zerotrust.backend.enums.RiskLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One risk_score_history row as exported for offline analysis
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiskHistoryExportRow {
+
+    private UUID id;
+    private UUID userId;
+    private Double score;
+    private RiskLevel level;
+    private Instant calculatedAt;
+    private String modelName;
+    private String modelVersion;
+}
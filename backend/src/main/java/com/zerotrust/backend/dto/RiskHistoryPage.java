@@ -0,0 +1,20 @@
+package com.zerotrust.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiskHistoryPage {
+
+    private List<RiskHistoryEntry> items;
+    // Opaque cursor for the next (older) page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -3,6 +3,7 @@ package com.zerotrust.backend.entities;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.services.features.AccessEventListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -22,6 +23,7 @@ import java.util.UUID;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Table(name = "access_events")
+@EntityListeners(AccessEventListener.class)
 public class AccessEvent {
 
     @Id
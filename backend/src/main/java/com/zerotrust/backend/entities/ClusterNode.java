@@ -0,0 +1,28 @@
+package com.zerotrust.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Backend replica taking part in the partitioned trust recompute, kept alive by heartbeats
+ */
+@Builder
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "recompute_nodes")
+public class ClusterNode {
+
+    @Id
+    String nodeId;
+
+    Instant startedAt;
+
+    Instant heartbeatAt;
+}
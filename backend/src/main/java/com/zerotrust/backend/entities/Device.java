@@ -3,6 +3,7 @@ package com.zerotrust.backend.entities;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.zerotrust.backend.enums.DeviceTrustLevel;
+import com.zerotrust.backend.services.rescore.DeviceChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -21,6 +22,7 @@ import java.util.UUID;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Table(name = "devices")
+@EntityListeners(DeviceChangeListener.class)
 public class Device {
 
     @Id
@@ -0,0 +1,31 @@
+package com.zerotrust.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Lease on one slot (user id range) of the periodic trust recompute.
+ * A slot belongs to {@code owner} until {@code expiresAt}; after that any node may claim it.
+ */
+@Builder
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "recompute_leases")
+public class RecomputeLease {
+
+    @Id
+    Integer slot;
+
+    String owner;
+
+    Instant acquiredAt;
+
+    Instant expiresAt;
+}
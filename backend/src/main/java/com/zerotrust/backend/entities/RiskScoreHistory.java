@@ -19,7 +19,12 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@Table(name = "risk_score_history")
+@Table(name = "risk_score_history", indexes = {
+        // Serves keyset pagination of a user's history on (calculatedAt, id)
+        @Index(name = "idx_risk_history_user_calculated_id", columnList = "user_id, calculated_at, id"),
+        // Serves time-window reads: exports and the dashboard reseed
+        @Index(name = "idx_risk_history_calculated", columnList = "calculated_at")
+})
 public class RiskScoreHistory {
 
     @Id
@@ -68,6 +68,16 @@ public class User implements UserDetails {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "UTC")
     Instant lastLoginAt;
 
+    // Last change to events or devices feeding the trust score.
+    // Only written by UserRepository.markInputsChanged so whole-row saves cannot roll it back.
+    @Column(insertable = false, updatable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "UTC")
+    Instant inputsChangedAt;
+
+    // When trustScore was last computed
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "UTC")
+    Instant scoredAt;
+
     @CreationTimestamp
     @Column(updatable = false)
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "UTC")
@@ -0,0 +1,282 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.cache.BoundedCache;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic datasets cached on disk by (generator version, seed, size, profile mix).
+ * A missing dataset is generated straight into a memory-mapped file, which is then
+ * renamed into place, so a file under its final name is always complete. Later requests
+ * map the file read-only and skip generation; the data stays in the page cache rather
+ * than the Java heap. Recently used mappings are kept open.
+ * <p>
+ * File layout, little-endian: magic "ZTDS" | version u16 | column count u16 | seed i64 |
+ * mix low, medium, high i32 | rows i32 | generator version i32 | reserved i32 |
+ * one f64 column per attribute (features, then label).
+ */
+@Component
+@Slf4j
+public class DatasetCache {
+
+    private static final byte[] MAGIC = {'Z', 'T', 'D', 'S'};
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 40;
+    private static final String EXTENSION = ".ztds";
+
+    @Value("${trust.datasets.cache-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${trust.datasets.dir:datasets}")
+    private String directory = "datasets";
+
+    // Dataset files kept on disk; the least recently modified are deleted first
+    @Value("${trust.datasets.max-files:20}")
+    private int maxFiles = 20;
+
+    private final BoundedCache<DatasetKey, SyntheticDataset> mapped = new BoundedCache<>(8, 0);
+    private final Map<DatasetKey, Object> locks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+
+    /**
+     * Cache key; the file name is derived from it. Files written by another generator
+     * version have other names and are never read, only evicted.
+     */
+    public record DatasetKey(int generatorVersion, long seed, int size, SyntheticDataGenerator.ProfileMix mix) {
+
+        DatasetKey(long seed, int size, SyntheticDataGenerator.ProfileMix mix) {
+            this(SyntheticDataGenerator.VERSION, seed, size, mix);
+        }
+
+        String fileName() {
+            return "synthetic-g" + generatorVersion + "-s" + seed + "-n" + size
+                    + "-m" + mix.low() + "_" + mix.medium() + "_" + mix.high() + EXTENSION;
+        }
+    }
+
+    /**
+     * The dataset for the key, mapped from disk when cached and generated (on up to
+     * {@code threads} cores) otherwise. With the cache disabled it is generated on the heap.
+     */
+    public SyntheticDataset dataset(long seed, int size, SyntheticDataGenerator.ProfileMix mix, int threads) {
+        if (size < 1) {
+            throw new IllegalArgumentException("samples must be positive");
+        }
+        DatasetKey key = new DatasetKey(seed, size, mix);
+        if (!enabled) {
+            generated.increment();
+            return new SyntheticDataGenerator(seed, mix).generateDataset(size, threads);
+        }
+        SyntheticDataset dataset = mapped.get(key);
+        if (dataset != null) {
+            hits.increment();
+            return dataset;
+        }
+        // One generation per key; other keys proceed in parallel
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            dataset = mapped.get(key);
+            if (dataset == null) {
+                dataset = load(key, threads);
+                mapped.put(key, dataset);
+            } else {
+                hits.increment();
+            }
+            return dataset;
+        }
+    }
+
+    /**
+     * Delete all cached dataset files; open mappings stay valid until released
+     */
+    public int clear() throws IOException {
+        mapped.clear();
+        int deleted = 0;
+        for (Path file : files()) {
+            if (Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    public DatasetCacheStats stats() throws IOException {
+        List<String> names = new ArrayList<>();
+        long bytes = 0;
+        for (Path file : files()) {
+            names.add(file.getFileName().toString());
+            bytes += Files.size(file);
+        }
+        return DatasetCacheStats.builder()
+                .enabled(enabled)
+                .directory(Paths.get(directory).toAbsolutePath().toString())
+                .files(names)
+                .totalBytes(bytes)
+                .hits(hits.sum())
+                .generated(generated.sum())
+                .build();
+    }
+
+    private SyntheticDataset load(DatasetKey key, int threads) {
+        Path path = Paths.get(directory, key.fileName());
+        try {
+            if (Files.exists(path)) {
+                try {
+                    SyntheticDataset dataset = map(path, key);
+                    hits.increment();
+                    return dataset;
+                } catch (IOException e) {
+                    log.warn("Discarding unreadable dataset file {}: {}", path, e.getMessage());
+                    Files.deleteIfExists(path);
+                }
+            }
+            long start = System.nanoTime();
+            write(path, key, threads);
+            generated.increment();
+            log.info("Generated dataset {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+            evictOldFiles();
+            return map(path, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Dataset cache failed for " + path, e);
+        }
+    }
+
+    // Generate directly into the mapped temp file, then rename it into place
+    private void write(Path path, DatasetKey key, int threads) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), key.fileName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC);
+                header.putShort((short) FORMAT_VERSION);
+                header.putShort((short) SyntheticDataGenerator.NUM_COLUMNS);
+                header.putLong(key.seed());
+                header.putInt(key.mix().low());
+                header.putInt(key.mix().medium());
+                header.putInt(key.mix().high());
+                header.putInt(key.size());
+                header.putInt(key.generatorVersion());
+                header.putInt(0);
+                channel.write(header.flip(), 0);
+
+                long columnBytes = (long) key.size() * Double.BYTES;
+                MappedByteBuffer[] regions = new MappedByteBuffer[SyntheticDataGenerator.NUM_COLUMNS];
+                DoubleBuffer[] columns = new DoubleBuffer[regions.length];
+                for (int c = 0; c < regions.length; c++) {
+                    regions[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + c * columnBytes, columnBytes);
+                    columns[c] = regions[c].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                }
+                new SyntheticDataGenerator(key.seed(), key.mix()).fillColumns(key.size(), threads, columns);
+                for (MappedByteBuffer region : regions) {
+                    region.force();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static SyntheticDataset map(Path path, DatasetKey key) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long columnBytes = (long) key.size() * Double.BYTES;
+            if (channel.size() != HEADER_BYTES + columnBytes * SyntheticDataGenerator.NUM_COLUMNS) {
+                throw new IOException("Unexpected dataset file size " + channel.size());
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(MAGIC, magic)
+                    || header.getShort() != FORMAT_VERSION
+                    || header.getShort() != SyntheticDataGenerator.NUM_COLUMNS
+                    || header.getLong() != key.seed()
+                    || header.getInt() != key.mix().low()
+                    || header.getInt() != key.mix().medium()
+                    || header.getInt() != key.mix().high()
+                    || header.getInt() != key.size()
+                    || header.getInt() != key.generatorVersion()) {
+                throw new IOException("Dataset file header does not match " + key);
+            }
+            DoubleBuffer[] columns = new DoubleBuffer[SyntheticDataGenerator.NUM_COLUMNS];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + c * columnBytes, columnBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer();
+            }
+            return new SyntheticDataset(key.size(), columns);
+        }
+    }
+
+    private void evictOldFiles() throws IOException {
+        List<Path> files = files();
+        if (files.size() <= maxFiles) {
+            return;
+        }
+        files.sort(Comparator.comparingLong(DatasetCache::lastModified));
+        for (Path file : files.subList(0, files.size() - maxFiles)) {
+            Files.deleteIfExists(file);
+            log.info("Evicted dataset file {}", file);
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.list(dir)) {
+            return new ArrayList<>(stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).toList());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Dataset cache statistics DTO
+     */
+    @Builder
+    @Data
+    public static class DatasetCacheStats {
+        private boolean enabled;
+        private String directory;
+        private List<String> files;
+        private long totalBytes;
+        // Requests served without generating (open mapping or file on disk)
+        private long hits;
+        private long generated;
+    }
+}
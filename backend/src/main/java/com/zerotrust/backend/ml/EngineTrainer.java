@@ -0,0 +1,103 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.trust.TrustModel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Trains the in-house engines that are kept next to the forest in each model version.
+ * They see exactly the forest's training data, and whichever one trust.model.engine
+ * names serves live scoring. An engine that cannot be trained on the data is left
+ * out of the version rather than failing the forest's training.
+ */
+@Component
+@Slf4j
+public class EngineTrainer {
+
+    public static final String GBDT = "gbdt";
+    public static final String LINEAR = "linear";
+
+    // Engines trained with every forest; empty to train the forest only
+    @Value("${trust.model.extra-engines:gbdt,linear}")
+    private String[] extraEngines = {GBDT, LINEAR};
+
+    @Value("${trust.gbdt.rounds:100}")
+    private int gbdtRounds = 100;
+
+    @Value("${trust.gbdt.max-depth:3}")
+    private int gbdtMaxDepth = 3;
+
+    @Value("${trust.gbdt.learning-rate:0.1}")
+    private double gbdtLearningRate = 0.1;
+
+    @Value("${trust.gbdt.bins:64}")
+    private int gbdtBins = 64;
+
+    @Value("${trust.gbdt.min-leaf-size:20}")
+    private int gbdtMinLeafSize = 20;
+
+    @Value("${trust.linear.ridge:1.0}")
+    private double ridge = 1.0;
+
+    /**
+     * Trained engines by name, with training time per engine
+     */
+    public record TrainedEngines(Map<String, TrustModel> models, Map<String, Long> trainingMs) {
+    }
+
+    // Fail at startup on a misspelt engine or bad settings, not after the forest has been built
+    @PostConstruct
+    void validate() {
+        for (String engine : extraEngines) {
+            String name = engine.trim();
+            switch (name) {
+                case "" -> {
+                }
+                case GBDT -> gbdtConfig().validate();
+                case LINEAR -> {
+                    if (ridge < 0) {
+                        throw new IllegalStateException("trust.linear.ridge must not be negative");
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown engine in trust.model.extra-engines: " + name);
+            }
+        }
+    }
+
+    private GradientBoostingTrainer.Config gbdtConfig() {
+        return new GradientBoostingTrainer.Config(gbdtRounds, gbdtMaxDepth, gbdtLearningRate, gbdtBins, gbdtMinLeafSize);
+    }
+
+    public TrainedEngines train(SyntheticDataset data) {
+        Map<String, TrustModel> models = new LinkedHashMap<>();
+        Map<String, Long> trainingMs = new LinkedHashMap<>();
+        for (String engine : extraEngines) {
+            String name = engine.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            TrustModel model;
+            try {
+                model = switch (name) {
+                    case GBDT -> GradientBoostingTrainer.train(data, gbdtConfig());
+                    case LINEAR -> RidgeRegressionTrainer.train(data, ridge);
+                    default -> throw new IllegalArgumentException("Unknown model engine: " + name);
+                };
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                log.warn("Skipping {} engine for this version: {}", name, e.getMessage());
+                continue;
+            }
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            models.put(name, model);
+            trainingMs.put(name, ms);
+            log.info("Trained {} engine on {} samples in {} ms", name, data.size(), ms);
+        }
+        return new TrainedEngines(models, trainingMs);
+    }
+}
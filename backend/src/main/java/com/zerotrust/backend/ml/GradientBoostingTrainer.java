@@ -0,0 +1,250 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.GradientBoostedModel;
+
+import java.util.Arrays;
+
+/**
+ * Least-squares gradient boosting of shallow regression trees.
+ * Each feature is cut into at most {@code bins} quantile bins once; every round fits a tree
+ * of depth {@code maxDepth} to the current residuals by scanning per-bin residual sums, so
+ * a split search is linear in the rows of the node. Split thresholds are bin cut points and
+ * use the same {@code value < threshold} rule as the forest. Training is deterministic.
+ */
+public final class GradientBoostingTrainer {
+
+    /**
+     * Boosting parameters
+     *
+     * @param rounds       number of trees
+     * @param maxDepth     depth of each tree (1 = stumps)
+     * @param learningRate shrinkage applied to every leaf
+     * @param bins         maximum number of value bins per feature
+     * @param minLeafSize  fewest rows a leaf may hold
+     */
+    public record Config(int rounds, int maxDepth, double learningRate, int bins, int minLeafSize) {
+
+        public static final Config DEFAULT = new Config(100, 3, 0.1, 64, 20);
+
+        public void validate() {
+            if (rounds < 1 || maxDepth < 1 || bins < 2 || minLeafSize < 1) {
+                throw new IllegalArgumentException("Boosting needs rounds, maxDepth and minLeafSize >= 1 and bins >= 2");
+            }
+            if (!(learningRate > 0) || learningRate > 1) {
+                throw new IllegalArgumentException("Boosting learning rate must be in (0, 1]");
+            }
+        }
+    }
+
+    private final Config config;
+    private final int size;
+    private final double[] labels;
+    // Per feature: ascending cut points and each row's bin (number of cut points at or below its value)
+    private final double[][] cuts;
+    private final int[][] binOf;
+
+    private final double[] residuals;
+    private final int[] rows;
+    private NodeTable nodes;
+
+    private GradientBoostingTrainer(SyntheticDataset data, Config config) {
+        this.config = config;
+        this.size = data.size();
+        this.labels = new double[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = data.label(i);
+        }
+        this.cuts = new double[FeatureRows.NUM_FEATURES][];
+        this.binOf = new int[FeatureRows.NUM_FEATURES][];
+        for (int f = 0; f < FeatureRows.NUM_FEATURES; f++) {
+            double[] column = new double[size];
+            for (int i = 0; i < size; i++) {
+                column[i] = data.value(i, f);
+            }
+            cuts[f] = cutPoints(column, config.bins());
+            binOf[f] = new int[size];
+            for (int i = 0; i < size; i++) {
+                binOf[f][i] = countAtOrBelow(cuts[f], column[i]);
+            }
+        }
+        this.residuals = new double[size];
+        this.rows = new int[size];
+    }
+
+    public static GradientBoostedModel train(SyntheticDataset data, Config config) {
+        config.validate();
+        if (data.size() < 2 * config.minLeafSize()) {
+            throw new IllegalArgumentException("Boosting needs at least " + 2 * config.minLeafSize() + " samples");
+        }
+        return new GradientBoostingTrainer(data, config).boost();
+    }
+
+    private GradientBoostedModel boost() {
+        double base = 0;
+        for (double label : labels) {
+            base += label;
+        }
+        base /= size;
+
+        double[] predictions = new double[size];
+        Arrays.fill(predictions, base);
+        int maxNodesPerTree = (1 << (config.maxDepth() + 1)) - 1;
+        nodes = new NodeTable(config.rounds() * maxNodesPerTree);
+        int[] roots = new int[config.rounds()];
+
+        for (int round = 0; round < config.rounds(); round++) {
+            for (int i = 0; i < size; i++) {
+                residuals[i] = labels[i] - predictions[i];
+                rows[i] = i;
+            }
+            roots[round] = grow(0, size, 0, predictions);
+        }
+        return nodes.build(base, roots);
+    }
+
+    // Fit the node holding rows[from, to) and return its index; leaves add their value to the predictions
+    private int grow(int from, int to, int depth, double[] predictions) {
+        int count = to - from;
+        double sum = 0;
+        for (int r = from; r < to; r++) {
+            sum += residuals[rows[r]];
+        }
+
+        int bestFeature = -1;
+        int bestCut = -1;
+        double bestGain = 1e-9;
+        if (depth < config.maxDepth() && count >= 2 * config.minLeafSize()) {
+            double parentScore = sum * sum / count;
+            for (int f = 0; f < FeatureRows.NUM_FEATURES; f++) {
+                int bins = cuts[f].length + 1;
+                if (bins < 2) {
+                    continue;
+                }
+                double[] binSums = new double[bins];
+                int[] binCounts = new int[bins];
+                int[] featureBins = binOf[f];
+                for (int r = from; r < to; r++) {
+                    int row = rows[r];
+                    binSums[featureBins[row]] += residuals[row];
+                    binCounts[featureBins[row]]++;
+                }
+                // Left holds bins 0..c, i.e. values below cut point c
+                double leftSum = 0;
+                int leftCount = 0;
+                for (int c = 0; c < bins - 1; c++) {
+                    leftSum += binSums[c];
+                    leftCount += binCounts[c];
+                    int rightCount = count - leftCount;
+                    if (leftCount < config.minLeafSize()) {
+                        continue;
+                    }
+                    if (rightCount < config.minLeafSize()) {
+                        break;
+                    }
+                    double rightSum = sum - leftSum;
+                    double gain = leftSum * leftSum / leftCount + rightSum * rightSum / rightCount - parentScore;
+                    if (gain > bestGain) {
+                        bestGain = gain;
+                        bestFeature = f;
+                        bestCut = c;
+                    }
+                }
+            }
+        }
+
+        if (bestFeature < 0) {
+            double leaf = config.learningRate() * sum / count;
+            for (int r = from; r < to; r++) {
+                predictions[rows[r]] += leaf;
+            }
+            return nodes.leaf(leaf);
+        }
+
+        // Partition in place: rows in bins 0..bestCut first
+        int[] featureBins = binOf[bestFeature];
+        int split = from;
+        for (int r = from; r < to; r++) {
+            if (featureBins[rows[r]] <= bestCut) {
+                int swap = rows[split];
+                rows[split++] = rows[r];
+                rows[r] = swap;
+            }
+        }
+        int node = nodes.split(bestFeature, cuts[bestFeature][bestCut]);
+        nodes.left[node] = grow(from, split, depth + 1, predictions);
+        nodes.right[node] = grow(split, to, depth + 1, predictions);
+        return node;
+    }
+
+    // Quantile cut points between distinct values, strictly ascending
+    private static double[] cutPoints(double[] column, int bins) {
+        double[] sorted = column.clone();
+        Arrays.sort(sorted);
+        double[] points = new double[bins - 1];
+        int count = 0;
+        for (int q = 1; q < bins; q++) {
+            int index = (int) ((long) q * sorted.length / bins);
+            if (index <= 0 || index >= sorted.length || !(sorted[index - 1] < sorted[index])) {
+                continue;
+            }
+            double cut = sorted[index - 1] + (sorted[index] - sorted[index - 1]) / 2;
+            if (!(cut > sorted[index - 1])) {
+                cut = sorted[index];
+            }
+            if (count == 0 || cut > points[count - 1]) {
+                points[count++] = cut;
+            }
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    private static int countAtOrBelow(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class NodeTable {
+
+        final int[] feature;
+        final double[] threshold;
+        final int[] left;
+        final int[] right;
+        final double[] value;
+        int size;
+
+        NodeTable(int capacity) {
+            feature = new int[capacity];
+            threshold = new double[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            value = new double[capacity];
+        }
+
+        int leaf(double leafValue) {
+            feature[size] = -1;
+            value[size] = leafValue;
+            return size++;
+        }
+
+        int split(int splitFeature, double splitThreshold) {
+            feature[size] = splitFeature;
+            threshold[size] = splitThreshold;
+            return size++;
+        }
+
+        GradientBoostedModel build(double base, int[] roots) {
+            return new GradientBoostedModel(base, roots, Arrays.copyOf(feature, size), Arrays.copyOf(threshold, size),
+                    Arrays.copyOf(left, size), Arrays.copyOf(right, size), Arrays.copyOf(value, size));
+        }
+    }
+}
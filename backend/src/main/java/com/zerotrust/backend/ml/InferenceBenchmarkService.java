@@ -0,0 +1,377 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.dto.FeatureVector;
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.CompiledForestModel;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.ForestCompiler;
+import com.zerotrust.backend.services.trust.GradientBoostedModel;
+import com.zerotrust.backend.services.trust.LinearTrustModel;
+import com.zerotrust.backend.services.trust.ModelFileFormat;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import com.zerotrust.backend.services.trust.TrustModel;
+import com.zerotrust.backend.services.trust.WekaForestModel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Micro-benchmarks of the model engines: Weka against the compiled forest, saved model formats,
+ * and a latency, footprint and accuracy report over every engine of the active version
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InferenceBenchmarkService {
+
+    private final ModelRegistry modelRegistry;
+    private final TrustScoringService scoringService;
+    private final DatasetCache datasetCache;
+
+    // Same held-out test set as the evaluation endpoints
+    @Value("${trust.evaluation.seed:1337}")
+    private long evaluationSeed = 1337L;
+
+    /**
+     * Score the same synthetic rows through both engines and report latency
+     * per score and the largest output difference
+     */
+    public InferenceBenchmark benchmarkInference(int samples, int rounds) throws Exception {
+        // Both engines benchmark the same version even if a new one is swapped in meanwhile
+        ModelVersion version = modelRegistry.active();
+        if (version == null || version.compiled() == null) {
+            throw new IllegalStateException("Model not trained. Please train the model first.");
+        }
+        WekaForestModel trustModel = version.weka();
+        if (trustModel == null) {
+            throw new IllegalStateException("Active model version " + version.id()
+                    + " was loaded from the compact model file and has no Weka forest to compare against");
+        }
+        CompiledForestModel compiled = version.compiled();
+
+        Instances data = new SyntheticDataGenerator(7L).generateTrainingData(samples);
+        double[][] rows = new double[data.numInstances()][];
+        FeatureVector[] vectors = new FeatureVector[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOf(data.instance(i).toDoubleArray(), FeatureRows.NUM_FEATURES);
+            vectors[i] = FeatureRows.toFeatureVector(rows[i]);
+        }
+
+        double maxDifference = 0;
+        for (int i = 0; i < rows.length; i++) {
+            maxDifference = Math.max(maxDifference, Math.abs(trustModel.score(vectors[i]) - compiled.score(rows[i])));
+        }
+
+        // First round of each engine is warm-up
+        double sink = 0;
+        long wekaNanos = 0;
+        long compiledNanos = 0;
+        for (int round = 0; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (FeatureVector vector : vectors) {
+                sink += trustModel.score(vector);
+            }
+            long wekaRound = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (double[] row : rows) {
+                sink += compiled.score(row);
+            }
+            long compiledRound = System.nanoTime() - start;
+
+            if (round > 0) {
+                wekaNanos += wekaRound;
+                compiledNanos += compiledRound;
+            }
+        }
+
+        long scores = (long) rows.length * rounds;
+        double wekaNsPerScore = (double) wekaNanos / scores;
+        double compiledNsPerScore = (double) compiledNanos / scores;
+        log.info("Inference benchmark: weka {} ns/score, compiled {} ns/score (checksum {})",
+                Math.round(wekaNsPerScore), Math.round(compiledNsPerScore), sink);
+
+        return InferenceBenchmark.builder()
+                .samples(rows.length)
+                .rounds(rounds)
+                .modelVersion(version.id())
+                .trees(compiled.numTrees())
+                .nodes(compiled.numNodes())
+                .wekaNanosPerScore(wekaNsPerScore)
+                .compiledNanosPerScore(compiledNsPerScore)
+                .speedup(wekaNsPerScore / compiledNsPerScore)
+                .maxAbsoluteDifference(maxDifference)
+                .build();
+    }
+
+    /**
+     * Write the active version in both saved formats and compare file size and load time:
+     * Java serialization of the Weka forest (plus compiling it) against mapping the compact model file
+     */
+    public ModelFormatBenchmark benchmarkModelFormat(int rounds) throws Exception {
+        ModelVersion version = modelRegistry.active();
+        if (version == null || version.weka() == null || version.compiled() == null) {
+            throw new IllegalStateException("Model not trained. Please train the model first.");
+        }
+
+        Path dir = Files.createTempDirectory("model-format");
+        Path serializedPath = dir.resolve("trust_model.model");
+        Path compactPath = dir.resolve("trust_model" + ModelFileFormat.EXTENSION);
+        try {
+            SerializationHelper.write(serializedPath.toString(), version.weka().getForest());
+            ModelFileFormat.write(version, compactPath);
+
+            // First round of each format is warm-up
+            long deserializeNanos = 0;
+            long compileNanos = 0;
+            long compactNanos = 0;
+            int sink = 0;
+            for (int round = 0; round <= rounds; round++) {
+                long start = System.nanoTime();
+                RandomForest forest = (RandomForest) SerializationHelper.read(serializedPath.toString());
+                long deserialized = System.nanoTime();
+                sink += ForestCompiler.compile(forest).numNodes();
+                long compiled = System.nanoTime();
+                sink += ModelFileFormat.read(compactPath).forest().numNodes();
+                long mapped = System.nanoTime();
+
+                if (round > 0) {
+                    deserializeNanos += deserialized - start;
+                    compileNanos += compiled - deserialized;
+                    compactNanos += mapped - compiled;
+                }
+            }
+
+            double deserializeMs = deserializeNanos / 1e6 / rounds;
+            double compileMs = compileNanos / 1e6 / rounds;
+            double compactMs = compactNanos / 1e6 / rounds;
+            log.info("Model format benchmark: serialized {} bytes in {} ms (+{} ms compile), compact {} bytes in {} ms (checksum {})",
+                    Files.size(serializedPath), deserializeMs, compileMs, Files.size(compactPath), compactMs, sink);
+
+            return ModelFormatBenchmark.builder()
+                    .rounds(rounds)
+                    .modelVersion(version.id())
+                    .trees(version.numTrees())
+                    .serializedBytes(Files.size(serializedPath))
+                    .compactBytes(Files.size(compactPath))
+                    .serializedLoadMs(deserializeMs)
+                    .compileMs(compileMs)
+                    .compactLoadMs(compactMs)
+                    .sizeRatio((double) Files.size(serializedPath) / Files.size(compactPath))
+                    .loadSpeedup((deserializeMs + compileMs) / compactMs)
+                    .build();
+        } finally {
+            Files.deleteIfExists(serializedPath);
+            Files.deleteIfExists(compactPath);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Compare every engine of the active version on the held-out test set: single-row latency
+     * percentiles through TrustModel.score (as on the login path), batch cost per row (as in the
+     * recompute pass), model footprint, and MAE/RMSE against the labels
+     */
+    public EngineComparison compareEngines(int samples) throws Exception {
+        return compareEngines(samples, JobProgress.NONE);
+    }
+
+    /**
+     * Engine comparison reporting progress (and stopping on cancellation) once per engine
+     */
+    public EngineComparison compareEngines(int samples, JobProgress progress) throws Exception {
+        if (samples < 1) {
+            throw new IllegalArgumentException("samples must be positive");
+        }
+        ModelVersion version = modelRegistry.active();
+        if (version == null) {
+            throw new IllegalStateException("Model not trained. Please train the model first.");
+        }
+
+        progress.update("generating", 0.0);
+        SyntheticDataset data = datasetCache.dataset(evaluationSeed, samples, SyntheticDataGenerator.ProfileMix.BALANCED,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        double[][] rows = data.featureRows(0, data.size());
+        FeatureVector[] vectors = new FeatureVector[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            vectors[i] = FeatureRows.toFeatureVector(rows[i]);
+        }
+
+        Map<String, TrustModel> engines = new LinkedHashMap<>();
+        if (version.weka() != null) {
+            engines.put("weka", version.weka());
+        }
+        if (version.compiled() != null) {
+            engines.put("compiled", version.compiled());
+        }
+        engines.putAll(new TreeMap<>(version.engines()));
+
+        TrustModel serving = scoringService.scorer(version);
+        String servingEngine = null;
+        List<EngineReport> reports = new ArrayList<>();
+        for (Map.Entry<String, TrustModel> engine : engines.entrySet()) {
+            progress.update(engine.getKey(), 0.1 + 0.9 * reports.size() / engines.size());
+            reports.add(report(engine.getKey(), engine.getValue(), data, rows, vectors));
+            if (engine.getValue() == serving) {
+                servingEngine = engine.getKey();
+            }
+        }
+        return EngineComparison.builder()
+                .samples(rows.length)
+                .modelVersion(version.id())
+                .servingEngine(servingEngine)
+                .engines(reports)
+                .build();
+    }
+
+    private static EngineReport report(String name, TrustModel model, SyntheticDataset data, double[][] rows,
+                                       FeatureVector[] vectors) throws Exception {
+        // Warm-up pass, then one timed call per row
+        double sink = 0;
+        for (FeatureVector vector : vectors) {
+            sink += model.score(vector);
+        }
+        long[] latencies = new long[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            long start = System.nanoTime();
+            sink += model.score(vectors[i]);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        long start = System.nanoTime();
+        double[] predictions = model.scoreBatch(rows);
+        long batchNanos = System.nanoTime() - start;
+
+        double absoluteErrors = 0;
+        double squaredErrors = 0;
+        for (int i = 0; i < predictions.length; i++) {
+            double error = predictions[i] - data.label(i);
+            absoluteErrors += Math.abs(error);
+            squaredErrors += error * error;
+        }
+        log.info("Engine {}: p50 {} ns, p99 {} ns, MAE {} (checksum {})",
+                name, percentile(latencies, 0.5), percentile(latencies, 0.99), absoluteErrors / predictions.length, sink);
+
+        return EngineReport.builder()
+                .engine(name)
+                .p50Nanos(percentile(latencies, 0.5))
+                .p99Nanos(percentile(latencies, 0.99))
+                .maxNanos(latencies[latencies.length - 1])
+                .batchNanosPerRow((double) batchNanos / rows.length)
+                .modelBytes(footprint(model))
+                .mae(absoluteErrors / predictions.length)
+                .rmse(Math.sqrt(squaredErrors / predictions.length))
+                .build();
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    // Size of the model tables; the Weka forest has none, so its Java-serialized size stands in
+    private static long footprint(TrustModel model) throws IOException {
+        return switch (model) {
+            case CompiledForestModel compiled -> compiled.sizeInBytes();
+            case GradientBoostedModel boosted -> boosted.sizeInBytes();
+            case LinearTrustModel linear -> linear.sizeInBytes();
+            case WekaForestModel weka -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(weka.getForest());
+                }
+                yield bytes.size();
+            }
+            default -> -1;
+        };
+    }
+
+    /**
+     * Inference benchmark DTO
+     */
+    @Builder
+    @Data
+    public static class InferenceBenchmark {
+        private int samples;
+        private int rounds;
+        private String modelVersion;
+        private int trees;
+        private int nodes;
+        private double wekaNanosPerScore;
+        private double compiledNanosPerScore;
+        private double speedup;
+        private double maxAbsoluteDifference;
+    }
+
+    /**
+     * Model file format benchmark DTO
+     */
+    @Builder
+    @Data
+    public static class ModelFormatBenchmark {
+        private int rounds;
+        private String modelVersion;
+        private int trees;
+        private long serializedBytes;
+        private long compactBytes;
+        // Mean per load; the serialized forest must also be compiled before it can serve
+        private double serializedLoadMs;
+        private double compileMs;
+        private double compactLoadMs;
+        private double sizeRatio;
+        private double loadSpeedup;
+    }
+
+    /**
+     * Engine comparison DTO
+     */
+    @Builder
+    @Data
+    public static class EngineComparison {
+        private int samples;
+        private String modelVersion;
+        // Engine live scoring uses (trust.model.engine, or the forest when the version lacks it)
+        private String servingEngine;
+        private List<EngineReport> engines;
+    }
+
+    /**
+     * Per-engine latency, footprint and accuracy
+     */
+    @Builder
+    @Data
+    public static class EngineReport {
+        private String engine;
+        // One TrustModel.score call per row
+        private long p50Nanos;
+        private long p99Nanos;
+        private long maxNanos;
+        // One scoreBatch call over all rows
+        private double batchNanosPerRow;
+        // Model tables in bytes; Java-serialized size for weka
+        private long modelBytes;
+        private double mae;
+        private double rmse;
+    }
+}
@@ -0,0 +1,25 @@
+package com.zerotrust.backend.ml;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress sink for long-running ML work.
+ * Each call is also a cancellation point: it throws CancellationException once the job
+ * was cancelled, so work stops at the next phase or chunk boundary.
+ */
+@FunctionalInterface
+public interface JobProgress {
+
+    /**
+     * Progress sink for synchronous calls; never cancels
+     */
+    JobProgress NONE = (phase, fraction) -> {
+    };
+
+    /**
+     * @param phase    short name of the current step
+     * @param fraction overall completion, 0 to 1
+     * @throws CancellationException if the job was cancelled
+     */
+    void update(String phase, double fraction);
+}
@@ -0,0 +1,382 @@
+package com.zerotrust.backend.ml;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background executor for training and evaluation jobs.
+ * Jobs run on a small pool of platform threads with a bounded queue, apart from the request
+ * threads, so heavy ML work never holds a servlet thread and a burst of submissions is rejected
+ * instead of piling up. Thread priority is not relied on (HotSpot ignores it on Linux, and
+ * Weka's execution-slot threads would not inherit it): what leaves cores for logins and scoring
+ * is the cap on concurrent jobs and on the execution slots a training job may use. The
+ * synchronous admin endpoints share the concurrency cap (a run is rejected while it is
+ * reached) and the training slot cap.
+ * Finished jobs are kept for polling until more than the retained number have accumulated.
+ */
+@Service
+@Slf4j
+public class MlJobService {
+
+    // Jobs and synchronous runs at the same time; queued jobs wait, synchronous runs are rejected
+    @Value("${trust.jobs.max-concurrent:1}")
+    private int maxConcurrent;
+
+    @Value("${trust.jobs.queue-capacity:8}")
+    private int queueCapacity;
+
+    // Finished jobs kept for polling
+    @Value("${trust.jobs.retained:50}")
+    private int retainedJobs;
+
+    // Cores a training job may use; 0 = half of the available cores
+    @Value("${trust.jobs.max-training-slots:0}")
+    private int maxTrainingSlots;
+
+    // Largest sample count the synchronous endpoints accept; larger runs must be submitted as jobs
+    @Value("${trust.jobs.sync-max-samples:20000}")
+    private int syncMaxSamples;
+
+    private ThreadPoolExecutor executor;
+    // One permit per heavy run in progress, background or synchronous
+    private Semaphore runPermits;
+
+    // Insertion (submission) order; guarded by itself
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    /**
+     * Work done by a job; the returned object is the job result
+     */
+    @FunctionalInterface
+    public interface JobTask {
+        Object run(JobProgress progress) throws Exception;
+    }
+
+    /**
+     * Work done on the request thread by a synchronous endpoint
+     */
+    @FunctionalInterface
+    public interface SynchronousTask<T> {
+        T run() throws Exception;
+    }
+
+    @PostConstruct
+    void start() {
+        int threads = Math.max(1, maxConcurrent);
+        runPermits = new Semaphore(threads);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("ml-job-", 0).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a job and return immediately
+     *
+     * @param type       job kind shown to clients, e.g. "train"
+     * @param parameters request parameters, echoed in the job status
+     * @throws SaturatedException if the queue is full
+     */
+    public JobView submit(String type, Map<String, Object> parameters, JobTask task) {
+        Job job = new Job(UUID.randomUUID().toString(), type, parameters, Instant.now());
+        job.runnable = () -> run(job, task);
+        synchronized (jobs) {
+            evictFinished();
+            jobs.put(job.id, job);
+        }
+        // Viewed before it is handed over, as a free worker may start it at once
+        JobView queued = job.view();
+        try {
+            executor.execute(job.runnable);
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+            throw new SaturatedException();
+        }
+        log.info("Queued {} job {} {}", type, job.id, parameters);
+        return queued;
+    }
+
+    public Optional<JobView> get(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(Job::view);
+        }
+    }
+
+    /**
+     * Cancel a job. A queued job is dropped at once; a running job stops at its next
+     * progress update, before any model it built is activated. Finished jobs are left as they are.
+     */
+    public Optional<JobView> cancel(String id) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.status.isFinished()) {
+            job.cancelRequested = true;
+            if (executor.remove(job.runnable)) {
+                job.finish(Status.CANCELLED, null, null);
+            }
+            log.info("Cancel requested for {} job {}", job.type, id);
+        }
+        return Optional.of(job.view());
+    }
+
+    /**
+     * Executor state and all retained jobs, newest first
+     */
+    public JobStats stats() {
+        List<JobView> views = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> views.add(job.view()));
+        }
+        return JobStats.builder()
+                .maxConcurrent(executor.getMaximumPoolSize())
+                .queueCapacity(executor.getQueue().size() + executor.getQueue().remainingCapacity())
+                .running(executor.getActiveCount())
+                .queued(executor.getQueue().size())
+                .maxTrainingSlots(resolvedMaxTrainingSlots())
+                .jobs(views.reversed())
+                .build();
+    }
+
+    /**
+     * Execution slots for a training job: the requested count (0 = as many as allowed),
+     * capped so training leaves cores for request handling
+     */
+    public int trainingSlots(int requested) {
+        int cap = resolvedMaxTrainingSlots();
+        return requested <= 0 ? cap : Math.min(requested, cap);
+    }
+
+    /**
+     * Reject sample counts too large to run on a request thread
+     */
+    public void checkSynchronous(int samples, String jobPath) {
+        if (samples > syncMaxSamples) {
+            throw new IllegalArgumentException("More than " + syncMaxSamples
+                    + " samples must run as a background job: POST /api/admin/jobs/" + jobPath);
+        }
+    }
+
+    /**
+     * Run a synchronous endpoint's work on the calling thread, within the same concurrency
+     * limit as the jobs
+     *
+     * @throws IllegalArgumentException if the sample count is too large (see checkSynchronous)
+     * @throws SaturatedException       if max-concurrent runs are already in progress
+     */
+    public <T> T runSynchronously(int samples, String jobPath, SynchronousTask<T> task) throws Exception {
+        checkSynchronous(samples, jobPath);
+        if (!runPermits.tryAcquire()) {
+            throw new SaturatedException("Too many ML runs in progress, retry later or submit a job: POST /api/admin/jobs/"
+                    + jobPath);
+        }
+        try {
+            return task.run();
+        } finally {
+            runPermits.release();
+        }
+    }
+
+    private int resolvedMaxTrainingSlots() {
+        return maxTrainingSlots > 0 ? maxTrainingSlots : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    private void run(Job job, JobTask task) {
+        try {
+            // Waits while synchronous runs hold the permits
+            runPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(Status.CANCELLED, null, null);
+            return;
+        }
+        if (job.cancelRequested) {
+            runPermits.release();
+            job.finish(Status.CANCELLED, null, null);
+            return;
+        }
+        job.startedAt = Instant.now();
+        job.status = Status.RUNNING;
+        try {
+            Object result;
+            try {
+                result = task.run((phase, fraction) -> {
+                    if (job.cancelRequested) {
+                        throw new CancellationException("Job cancelled");
+                    }
+                    job.phase = phase;
+                    job.progress = fraction;
+                });
+            } finally {
+                // Released before the job is seen as finished
+                runPermits.release();
+            }
+            job.progress = 1.0;
+            job.finish(Status.SUCCEEDED, result, null);
+            log.info("{} job {} finished in {} ms", job.type, job.id,
+                    Duration.between(job.startedAt, job.finishedAt).toMillis());
+        } catch (CancellationException e) {
+            job.finish(Status.CANCELLED, null, null);
+            log.info("{} job {} cancelled during {}", job.type, job.id, job.phase);
+        } catch (Throwable e) {
+            job.finish(Status.FAILED, null, e.getMessage() != null ? e.getMessage() : e.toString());
+            log.error("{} job {} failed: {}", job.type, job.id, e.getMessage(), e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    // Caller holds the jobs lock
+    private void evictFinished() {
+        int excess = jobs.size() - Math.max(0, retainedJobs) + 1;
+        Iterator<Job> oldestFirst = jobs.values().iterator();
+        while (excess > 0 && oldestFirst.hasNext()) {
+            if (oldestFirst.next().status.isFinished()) {
+                oldestFirst.remove();
+                excess--;
+            }
+        }
+    }
+
+    private static class Job {
+        final String id;
+        final String type;
+        final Map<String, Object> parameters;
+        final Instant submittedAt;
+        Runnable runnable;
+
+        volatile Status status = Status.QUEUED;
+        volatile boolean cancelRequested;
+        volatile String phase = "queued";
+        volatile double progress;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile Object result;
+        volatile String error;
+
+        Job(String id, String type, Map<String, Object> parameters, Instant submittedAt) {
+            this.id = id;
+            this.type = type;
+            this.parameters = parameters;
+            this.submittedAt = submittedAt;
+        }
+
+        void finish(Status finalStatus, Object finalResult, String finalError) {
+            result = finalResult;
+            error = finalError;
+            finishedAt = Instant.now();
+            status = finalStatus;
+        }
+
+        // Status is read first: finish() publishes it last, so a finished view is complete
+        JobView view() {
+            Status current = status;
+            Instant start = startedAt;
+            Instant end = finishedAt;
+            return JobView.builder()
+                    .id(id)
+                    .type(type)
+                    .status(current)
+                    .phase(phase)
+                    .progress(progress)
+                    .cancelRequested(cancelRequested)
+                    .parameters(parameters)
+                    .submittedAt(submittedAt)
+                    .startedAt(start)
+                    .finishedAt(end)
+                    .durationMs(start == null ? null : Duration.between(start, end != null ? end : Instant.now()).toMillis())
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    /**
+     * The job queue is full, or no synchronous run can start; the caller should retry later
+     */
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            this("ML job queue is full, retry later");
+        }
+
+        public SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Job status DTO
+     */
+    @Builder
+    @Data
+    public static class JobView {
+        private String id;
+        private String type;
+        private Status status;
+        private String phase;
+        // Completion, 0 to 1
+        private double progress;
+        private boolean cancelRequested;
+        private Map<String, Object> parameters;
+        private Instant submittedAt;
+        private Instant startedAt;
+        private Instant finishedAt;
+        private Long durationMs;
+        private Object result;
+        private String error;
+    }
+
+    /**
+     * Job executor statistics DTO
+     */
+    @Builder
+    @Data
+    public static class JobStats {
+        private int maxConcurrent;
+        private int queueCapacity;
+        private int running;
+        private int queued;
+        private int maxTrainingSlots;
+        private List<JobView> jobs;
+    }
+}
@@ -1,17 +1,36 @@
 package com.zerotrust.backend.ml;
 
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
 import com.zerotrust.backend.services.trust.WekaTrustModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.AggregateableEvaluation;
+import weka.classifiers.Classifier;
 import weka.classifiers.Evaluation;
+import weka.classifiers.trees.RandomForest;
 import weka.core.Instances;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for evaluating ML model performance
@@ -22,21 +41,68 @@ import java.util.Map;
 public class ModelEvaluationService {
 
     private final WekaTrustModel trustModel;
+    private final ModelRegistry modelRegistry;
+    private final TrustScoringService scoringService;
+    private final DatasetCache datasetCache;
+
+    // Seed of the held-out test set used by evaluate and confusion-metrics (training defaults to 42)
+    @Value("${trust.evaluation.seed:1337}")
+    private long evaluationSeed;
+
+    // Rows scored per model call when evaluating
+    private static final int SCORING_BATCH = 4096;
+
+    // Cores cross-validation may take away from live scoring; 0 = half of the available cores
+    @Value("${trust.evaluation.max-threads:0}")
+    private int maxThreads;
+
+    // Shared by all requests, so concurrent evaluations together stay within maxThreads
+    private ExecutorService foldPool;
+    private int foldThreads;
+
+    @PostConstruct
+    void start() {
+        foldThreads = maxThreads > 0 ? maxThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        foldPool = Executors.newFixedThreadPool(foldThreads,
+                Thread.ofPlatform().name("model-eval-", 0).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        foldPool.shutdownNow();
+    }
 
     /**
      * Evaluate model with test data
      */
     public EvaluationMetrics evaluateModel(int testSamples) throws Exception {
+        return evaluateModel(testSamples, JobProgress.NONE);
+    }
+
+    /**
+     * Evaluate model with test data, reporting progress to a background job
+     */
+    public EvaluationMetrics evaluateModel(int testSamples, JobProgress progress) throws Exception {
         log.info("Starting model evaluation with {} test samples", testSamples);
         long startTime = System.currentTimeMillis();
 
-        // Generate test data
-        SyntheticDataGenerator generator = new SyntheticDataGenerator(System.currentTimeMillis());
-        Instances testData = generator.generateTrainingData(testSamples);
+        // Cached test set: generated once, then mapped from disk on repeat calls
+        progress.update("generating", 0.0);
+        SyntheticDataset testData = testDataset(testSamples);
 
-        // Perform evaluation
-        Evaluation eval = new Evaluation(testData);
-        eval.evaluateModel(trustModel.getClassifier(), testData);
+        // Perform evaluation with the engine and version that serve live scoring
+        progress.update("scoring", 0.3);
+        double[] predictions = livePredictions(scoringService.activeVersion(), testData);
+        progress.update("metrics", 0.8);
+        // Instances are created one row at a time; the test set is never copied onto the heap
+        Instances header = WekaDatasetBuilder.buildDataset(true);
+        Evaluation eval = new Evaluation(header);
+        for (int i = 0; i < testData.size(); i++) {
+            eval.updatePriors(testData.instance(i, header));
+        }
+        for (int i = 0; i < predictions.length; i++) {
+            eval.evaluateModelOnce(predictions[i], testData.instance(i, header));
+        }
 
         long duration = System.currentTimeMillis() - startTime;
 
@@ -48,74 +114,257 @@ public class ModelEvaluationService {
      * Perform cross-validation
      */
     public EvaluationMetrics crossValidate(int numSamples, int folds) throws Exception {
-        log.info("Starting {}-fold cross-validation with {} samples", folds, numSamples);
+        return crossValidate(numSamples, folds, false);
+    }
+
+    /**
+     * k-fold cross-validation with the folds trained and evaluated concurrently on the
+     * bounded evaluation pool. Per-fold error statistics are merged from their sums, so
+     * MAE, RMSE and correlation are those of the pooled predictions, not fold averages.
+     *
+     * @param compareSequential also run the same folds one after another and report the speedup
+     */
+    public EvaluationMetrics crossValidate(int numSamples, int folds, boolean compareSequential) throws Exception {
+        return crossValidate(numSamples, folds, compareSequential, JobProgress.NONE);
+    }
+
+    /**
+     * Cross-validation as a background job; progress advances as folds complete
+     */
+    public EvaluationMetrics crossValidate(int numSamples, int folds, boolean compareSequential,
+                                           JobProgress progress) throws Exception {
+        if (folds < 2 || folds > numSamples) {
+            throw new IllegalArgumentException("folds must be between 2 and the number of samples");
+        }
+        log.info("Starting {}-fold cross-validation with {} samples on {} threads", folds, numSamples, foldThreads);
         long startTime = System.currentTimeMillis();
 
-        // Generate data
-        SyntheticDataGenerator generator = new SyntheticDataGenerator();
-        Instances data = generator.generateTrainingData(numSamples);
+        progress.update("generating", 0.0);
+        Instances data = cvDataset(numSamples);
+        Classifier template = foldTemplate();
+        // Sequential comparison runs the folds a second time
+        double foldShare = compareSequential ? 0.5 : 1.0;
 
-        // Cross-validation
-        Evaluation eval = new Evaluation(data);
-        eval.crossValidateModel(trustModel.getClassifier(), data, folds, new java.util.Random(42));
+        long parallelStart = System.nanoTime();
+        List<Future<Evaluation>> futures = new ArrayList<>(folds);
+        for (int fold = 0; fold < folds; fold++) {
+            int f = fold;
+            futures.add(foldPool.submit(() -> evaluateFold(template, data, folds, f)));
+        }
+        List<Evaluation> foldEvaluations = new ArrayList<>(folds);
+        try {
+            for (Future<Evaluation> future : futures) {
+                progress.update("folds", foldShare * foldEvaluations.size() / folds);
+                foldEvaluations.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (CancellationException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        Evaluation eval = merge(data, foldEvaluations);
+        long parallelMs = (System.nanoTime() - parallelStart) / 1_000_000;
+
+        Map<String, Object> cvMetrics = new HashMap<>();
+        cvMetrics.put("folds", folds);
+        cvMetrics.put("threads", Math.min(folds, foldThreads));
+        cvMetrics.put("parallelTimeMs", parallelMs);
+
+        if (compareSequential) {
+            long sequentialStart = System.nanoTime();
+            List<Evaluation> sequential = new ArrayList<>(folds);
+            for (int fold = 0; fold < folds; fold++) {
+                progress.update("sequential folds", 0.5 + 0.5 * fold / folds);
+                sequential.add(evaluateFold(template, data, folds, fold));
+            }
+            merge(data, sequential);
+            long sequentialMs = (System.nanoTime() - sequentialStart) / 1_000_000;
+            cvMetrics.put("sequentialTimeMs", sequentialMs);
+            cvMetrics.put("speedup", parallelMs == 0 ? 1.0 : (double) sequentialMs / parallelMs);
+        }
 
         long duration = System.currentTimeMillis() - startTime;
 
-        return buildMetrics(eval, numSamples, duration);
+        EvaluationMetrics metrics = buildMetrics(eval, numSamples, duration);
+        metrics.getAdditionalMetrics().putAll(cvMetrics);
+        return metrics;
+    }
+
+    // Built per run and released with it: only the mapped dataset stays cached, on disk
+    private Instances cvDataset(int numSamples) {
+        // Same seeds as the former Weka crossValidateModel call; folds need Weka Instances on the heap
+        Instances data = datasetCache.dataset(42L, numSamples, SyntheticDataGenerator.ProfileMix.BALANCED, foldThreads)
+                .toInstances();
+        data.randomize(new Random(42));
+        return data;
+    }
+
+    // Untrained copy of the live forest's configuration, building one tree at a time
+    private Classifier foldTemplate() throws Exception {
+        // Copied property by property: setOptions resolves class names through Weka's class
+        // discovery, which does not work on the Java 9+ class loader
+        RandomForest live = trustModel.getClassifier();
+        ModelVersion active = modelRegistry.active();
+        RandomForest template = new RandomForest();
+        if (live == null) {
+            // Nothing trained yet, or only the compact form was loaded: default configuration
+            template.setNumIterations(active != null ? active.numTrees() : 100);
+        } else {
+            template.setNumIterations(live.getNumIterations());
+            template.setMaxDepth(live.getMaxDepth());
+            template.setNumFeatures(live.getNumFeatures());
+            template.setBagSizePercent(live.getBagSizePercent());
+            template.setSeed(live.getSeed());
+        }
+        template.setNumExecutionSlots(1);
+        return template;
+    }
+
+    // Reads the shared dataset only; every fold works on its own copies
+    private static Evaluation evaluateFold(Classifier template, Instances data, int folds, int fold) throws Exception {
+        Instances train = data.trainCV(folds, fold);
+        Instances test = data.testCV(folds, fold);
+        Classifier classifier = AbstractClassifier.makeCopy(template);
+        classifier.buildClassifier(train);
+
+        Evaluation eval = new Evaluation(train);
+        eval.evaluateModel(classifier, test);
+        return eval;
+    }
+
+    // Merged in fold order, so the result does not depend on which fold finished first
+    private static Evaluation merge(Instances data, List<Evaluation> foldEvaluations) throws Exception {
+        AggregateableEvaluation merged = new AggregateableEvaluation(data);
+        for (Evaluation foldEvaluation : foldEvaluations) {
+            merged.aggregate(foldEvaluation);
+        }
+        return merged;
     }
 
     /**
      * Calculate false positive and false negative rates
      */
     public ConfusionMetrics calculateConfusionMetrics(int testSamples) throws Exception {
-        SyntheticDataGenerator generator = new SyntheticDataGenerator(System.currentTimeMillis());
-        Instances testData = generator.generateTrainingData(testSamples);
-
-        int truePositives = 0;  // High risk correctly identified
-        int trueNegatives = 0;  // Low risk correctly identified
-        int falsePositives = 0; // Low risk incorrectly marked as high
-        int falseNegatives = 0; // High risk incorrectly marked as low
-
-        double threshold = 40.0; // Risk threshold
-
-        for (int i = 0; i < testData.numInstances(); i++) {
-            double actualScore = testData.instance(i).classValue();
-
-            // Predict
-            testData.instance(i).setMissing(testData.classIndex());
-            double predictedScore = trustModel.getClassifier().classifyInstance(testData.instance(i));
-
-            boolean actualHighRisk = actualScore < threshold;
-            boolean predictedHighRisk = predictedScore < threshold;
-
-            if (actualHighRisk && predictedHighRisk) {
-                truePositives++;
-            } else if (!actualHighRisk && !predictedHighRisk) {
-                trueNegatives++;
-            } else if (!actualHighRisk && predictedHighRisk) {
-                falsePositives++;
-            } else if (actualHighRisk && !predictedHighRisk) {
-                falseNegatives++;
-            }
-        }
+        return calculateConfusionMetrics(testSamples, JobProgress.NONE);
+    }
+
+    /**
+     * Calculate false positive and false negative rates, reporting progress to a background job
+     */
+    public ConfusionMetrics calculateConfusionMetrics(int testSamples, JobProgress progress) throws Exception {
+        progress.update("generating", 0.0);
+        SyntheticDataset testData = testDataset(testSamples);
+
+        progress.update("scoring", 0.3);
+        double[] predictions = livePredictions(scoringService.activeVersion(), testData);
+        progress.update("metrics", 0.9);
 
-        double falsePositiveRate = (double) falsePositives / (falsePositives + trueNegatives);
-        double falseNegativeRate = (double) falseNegatives / (falseNegatives + truePositives);
-        double accuracy = (double) (truePositives + trueNegatives) / testSamples;
+        // HIGH risk (score < 40) is the positive class, both for the labels and the predictions
+        double threshold = 40.0;
+        ThresholdSweep.Confusion confusion = new ThresholdSweep(predictions, labels(testData), threshold).at(threshold);
 
         return ConfusionMetrics.builder()
-                .truePositives(truePositives)
-                .trueNegatives(trueNegatives)
-                .falsePositives(falsePositives)
-                .falseNegatives(falseNegatives)
-                .falsePositiveRate(falsePositiveRate)
-                .falseNegativeRate(falseNegativeRate)
-                .accuracy(accuracy)
+                .truePositives(confusion.truePositives())
+                .trueNegatives(confusion.trueNegatives())
+                .falsePositives(confusion.falsePositives())
+                .falseNegatives(confusion.falseNegatives())
+                .falsePositiveRate(confusion.falsePositiveRate())
+                .falseNegativeRate(confusion.falseNegativeRate())
+                .accuracy(confusion.accuracy())
                 .threshold(threshold)
                 .testSamples(testSamples)
                 .build();
     }
 
+    /**
+     * Confusion matrices for a sweep of risk thresholds plus ROC and precision-recall curves,
+     * all from one scoring run over the test set.
+     *
+     * @param positiveBelow labels below this value are the positive (risky) class, e.g. 40 for
+     *                      HIGH risk or 70 for HIGH or MEDIUM
+     * @param curvePoints   maximum points returned per curve (the areas use every point)
+     */
+    public ThresholdAnalysis analyzeThresholds(int testSamples, double positiveBelow, double from, double to,
+                                               double step, int curvePoints, JobProgress progress) throws Exception {
+        progress.update("generating", 0.0);
+        SyntheticDataset testData = testDataset(testSamples);
+
+        progress.update("scoring", 0.3);
+        long start = System.nanoTime();
+        ModelVersion version = scoringService.activeVersion();
+        double[] predictions = livePredictions(version, testData);
+        long scoringMs = (System.nanoTime() - start) / 1_000_000;
+
+        progress.update("sweeping", 0.9);
+        start = System.nanoTime();
+        ThresholdSweep sweep = new ThresholdSweep(predictions, labels(testData), positiveBelow);
+        List<ThresholdPoint> thresholds = sweep.sweep(from, to, step).stream()
+                .map(ModelEvaluationService::thresholdPoint)
+                .toList();
+        ThresholdSweep.Curves curves = sweep.curves(curvePoints);
+        long sweepMs = (System.nanoTime() - start) / 1_000_000;
+
+        return ThresholdAnalysis.builder()
+                .testSamples(testSamples)
+                .modelVersion(version.id())
+                .positiveBelow(positiveBelow)
+                .positives(sweep.positives())
+                .negatives(sweep.negatives())
+                .thresholds(thresholds)
+                .bestF1(thresholds.stream().max(Comparator.comparingDouble(ThresholdPoint::getF1)).orElse(null))
+                .bestYouden(thresholds.stream()
+                        .max(Comparator.comparingDouble(point -> point.getRecall() - point.getFalsePositiveRate()))
+                        .orElse(null))
+                .rocAuc(curves.rocAuc())
+                .averagePrecision(curves.averagePrecision())
+                .rocCurve(curves.roc())
+                .precisionRecallCurve(curves.precisionRecall())
+                .scoringTimeMs(scoringMs)
+                .sweepTimeMs(sweepMs)
+                .build();
+    }
+
+    private static ThresholdPoint thresholdPoint(ThresholdSweep.Confusion confusion) {
+        return ThresholdPoint.builder()
+                .threshold(confusion.threshold())
+                .truePositives(confusion.truePositives())
+                .trueNegatives(confusion.trueNegatives())
+                .falsePositives(confusion.falsePositives())
+                .falseNegatives(confusion.falseNegatives())
+                .falsePositiveRate(confusion.falsePositiveRate())
+                .falseNegativeRate(confusion.falseNegativeRate())
+                .precision(confusion.precision())
+                .recall(confusion.recall())
+                .accuracy(confusion.accuracy())
+                .f1(confusion.f1())
+                .build();
+    }
+
+    private static double[] labels(SyntheticDataset data) {
+        double[] labels = new double[data.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = data.label(i);
+        }
+        return labels;
+    }
+
+    private SyntheticDataset testDataset(int testSamples) {
+        return datasetCache.dataset(evaluationSeed, testSamples, SyntheticDataGenerator.ProfileMix.BALANCED, foldThreads);
+    }
+
+    // Scores from one pinned version, so one evaluation never spans two model versions
+    private double[] livePredictions(ModelVersion version, SyntheticDataset data) throws Exception {
+        double[] predictions = new double[data.size()];
+        for (int from = 0; from < data.size(); from += SCORING_BATCH) {
+            int to = Math.min(data.size(), from + SCORING_BATCH);
+            double[] batch = scoringService.computeBatch(version, data.featureRows(from, to));
+            System.arraycopy(batch, 0, predictions, from, batch.length);
+        }
+        return predictions;
+    }
+
     private EvaluationMetrics buildMetrics(Evaluation eval, int numSamples, long duration) throws Exception {
         // Calculate metrics
         double mae = eval.meanAbsoluteError();
@@ -169,6 +418,49 @@ public class ModelEvaluationService {
         private Map<String, Object> additionalMetrics;
     }
 
+    /**
+     * Threshold sweep and curves DTO
+     */
+    @Builder
+    @Data
+    public static class ThresholdAnalysis {
+        private int testSamples;
+        private String modelVersion;
+        private double positiveBelow;
+        private int positives;
+        private int negatives;
+        private List<ThresholdPoint> thresholds;
+        // Sweep thresholds with the highest F1 and the highest TPR - FPR (Youden's J)
+        private ThresholdPoint bestF1;
+        private ThresholdPoint bestYouden;
+        private Double rocAuc;
+        private Double averagePrecision;
+        // ROC: x = false positive rate, y = true positive rate; PR: x = recall, y = precision
+        private List<ThresholdSweep.CurvePoint> rocCurve;
+        private List<ThresholdSweep.CurvePoint> precisionRecallCurve;
+        private long scoringTimeMs;
+        private long sweepTimeMs;
+    }
+
+    /**
+     * Confusion matrix at one threshold DTO
+     */
+    @Builder
+    @Data
+    public static class ThresholdPoint {
+        private double threshold;
+        private int truePositives;
+        private int trueNegatives;
+        private int falsePositives;
+        private int falseNegatives;
+        private double falsePositiveRate;
+        private double falseNegativeRate;
+        private double precision;
+        private double recall;
+        private double accuracy;
+        private double f1;
+    }
+
     /**
      * Confusion metrics DTO
      */
@@ -1,9 +1,14 @@
 package com.zerotrust.backend.ml;
 
-import com.zerotrust.backend.services.trust.WekaTrustModel;
+import com.zerotrust.backend.services.trust.ModelFileFormat;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import weka.classifiers.trees.RandomForest;
 import weka.core.Instances;
 import weka.core.SerializationHelper;
 
@@ -11,8 +16,10 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Service for training and managing ML models
@@ -22,58 +29,196 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class ModelTrainingService {
 
-    private final WekaTrustModel trustModel;
+    private final ModelRegistry modelRegistry;
+    private final DatasetCache datasetCache;
+    private final EngineTrainer engineTrainer;
     private static final String MODEL_DIR = "models";
     private static final String MODEL_FILE = "trust_model.model";
+    private static final String COMPACT_MODEL_FILE = "trust_model" + ModelFileFormat.EXTENSION;
+
+    // Map the compact model file at boot (or load the Weka file if that is all there is, or if it
+    // is newer than the compact file) so the node becomes ready without retraining
+    @Value("${trust.model.load-on-startup:true}")
+    private boolean loadOnStartup;
+
+    @PostConstruct
+    void loadOnStartup() {
+        if (!loadOnStartup) {
+            return;
+        }
+        Path compactPath = Paths.get(getCompactModelPath());
+        if (!Files.exists(compactPath) || compactIsStale(compactPath)) {
+            if (new File(getModelPath()).exists()) {
+                loadWekaAndCompact(compactPath);
+            } else {
+                log.warn("No model at {} or {}; readiness stays DOWN until a model is trained or loaded",
+                        compactPath, getModelPath());
+            }
+            return;
+        }
+        try {
+            loadCompactModel();
+        } catch (Exception e) {
+            // A corrupt or incompatible file must not take the node down, only keep it out of rotation
+            log.error("Failed to load compact model from {}; readiness stays DOWN: {}", compactPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the Weka file was written after the compact one, e.g. replaced by hand or by a
+     * checkout. saveModel writes the compact file last, so a saved version is never stale.
+     */
+    private boolean compactIsStale(Path compactPath) {
+        File wekaFile = new File(getModelPath());
+        if (!wekaFile.exists()) {
+            return false;
+        }
+        try {
+            boolean stale = Files.getLastModifiedTime(compactPath).toMillis() < wekaFile.lastModified();
+            if (stale) {
+                log.info("Weka model {} is newer than compact model {}; regenerating the compact file",
+                        wekaFile, compactPath);
+            }
+            return stale;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // The Weka file is all there is (or the newer one): load it and write the compact form
+    private void loadWekaAndCompact(Path compactPath) {
+        ModelVersion version;
+        try {
+            version = loadModel();
+        } catch (Exception e) {
+            log.error("Failed to load model from {}; readiness stays DOWN: {}", getModelPath(), e.getMessage());
+            return;
+        }
+        try {
+            long compactBytes = ModelFileFormat.write(version, compactPath);
+            log.info("Wrote compact model {} ({} bytes) for the next start", compactPath, compactBytes);
+        } catch (Exception e) {
+            // The Weka model is active; the next start just takes the slow path again
+            log.warn("Failed to write compact model to {}: {}", compactPath, e.getMessage());
+        }
+    }
 
     /**
      * Train the model with synthetic data
      */
     public TrainingResult trainModel(int numSamples) throws Exception {
-        log.info("Starting model training with {} samples", numSamples);
+        return trainModel(numSamples, TrainingConfig.builder().build());
+    }
+
+    /**
+     * Train the model with synthetic data; data generation and tree building both use
+     * the configured number of execution slots
+     */
+    public TrainingResult trainModel(int numSamples, TrainingConfig config) throws Exception {
+        return trainModel(numSamples, config, JobProgress.NONE);
+    }
+
+    /**
+     * Train as a background job. Cancellation is honoured between phases and never after the
+     * new version has been activated.
+     */
+    public TrainingResult trainModel(int numSamples, TrainingConfig config, JobProgress progress) throws Exception {
+        config.validate();
+        int slots = config.resolvedExecutionSlots();
+        log.info("Starting model training with {} samples ({} trees, max depth {}, {} slots)",
+                numSamples, config.getNumTrees(), config.getMaxDepth(), slots);
         long startTime = System.currentTimeMillis();
 
-        // Generate synthetic data
-        SyntheticDataGenerator generator = new SyntheticDataGenerator();
-        Instances trainingData = generator.generateTrainingData(numSamples);
+        // Generate synthetic data, or map it from the dataset cache when this seed and size were used before
+        progress.update("generating", 0.0);
+        SyntheticDataset dataset = datasetCache
+                .dataset(config.getSeed(), numSamples, SyntheticDataGenerator.ProfileMix.BALANCED, slots);
+        Instances trainingData = dataset.toInstances();
+        long generationMs = System.currentTimeMillis() - startTime;
 
-        log.info("Generated {} training instances", trainingData.numInstances());
+        log.info("Generated {} training instances in {} ms", trainingData.numInstances(), generationMs);
 
-        // Train the model
-        trustModel.train(trainingData);
+        // Train a new forest, building trees in parallel; it replaces the live one only once complete
+        progress.update("building", 0.2);
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(config.getNumTrees());
+        forest.setMaxDepth(config.getMaxDepth());
+        forest.setNumExecutionSlots(slots);
+        forest.setSeed((int) config.getSeed());
+        forest.buildClassifier(trainingData);
 
-        long duration = System.currentTimeMillis() - startTime;
-        log.info("Model training completed in {} ms", duration);
+        // Other engines on the same data, kept in the same version
+        progress.update("engines", 0.7);
+        EngineTrainer.TrainedEngines engines = engineTrainer.train(dataset);
 
-        // Save the model
-        saveModel();
+        // Last cancellation point: past here the version is live and must also be saved
+        progress.update("activating", 0.9);
+        ModelVersion version;
+        long duration;
+        if (config.isCandidate()) {
+            // Scored in shadow only; the saved model stays the active one until promotion
+            version = modelRegistry.registerCandidate(forest, engines.models(), "trained", Instant.now());
+            duration = System.currentTimeMillis() - startTime;
+            log.info("Model training completed in {} ms, version {} is the candidate", duration, version.id());
+        } else {
+            version = modelRegistry.register(forest, engines.models(), "trained", Instant.now());
+            duration = System.currentTimeMillis() - startTime;
+            log.info("Model training completed in {} ms, version {} is active", duration, version.id());
+
+            // Save the model
+            saveModel(version);
+        }
 
         return TrainingResult.builder()
                 .success(true)
                 .numSamples(numSamples)
                 .trainingTimeMs(duration)
+                .generationTimeMs(generationMs)
+                .buildTimeMs(duration - generationMs)
+                .config(config)
+                .engineTrainingMs(engines.trainingMs())
+                .modelVersion(version.id())
                 .timestamp(LocalDateTime.now())
                 .modelPath(getModelPath())
                 .build();
     }
 
     /**
-     * Save trained model to disk
+     * Make the shadow candidate the active version and save it
+     *
+     * @throws IllegalStateException if no candidate is set
      */
-    public void saveModel() throws Exception {
+    public ModelVersion promoteCandidate() throws Exception {
+        ModelVersion version = modelRegistry.promoteCandidate();
+        saveModel(version);
+        return version;
+    }
+
+    /**
+     * Save a model version to disk: the Weka file when the version has a Weka forest (versions
+     * mapped from the compact file do not), then always the compact file. Writing the compact
+     * file last keeps it at least as new as the Weka file, which startup takes as the sign
+     * that both hold the same version.
+     */
+    public void saveModel(ModelVersion version) throws Exception {
         ensureModelDirectoryExists();
-        String modelPath = getModelPath();
 
-        log.info("Saving model to {}", modelPath);
-        // Save only the classifier, not the service bean
-        SerializationHelper.write(modelPath, trustModel.getClassifier());
-        log.info("Model saved successfully");
+        if (version.weka() != null) {
+            String modelPath = getModelPath();
+            // Save only the classifier, not the service bean
+            SerializationHelper.write(modelPath, version.weka().getForest());
+            log.info("Weka model of version {} saved to {}", version.id(), modelPath);
+        }
+
+        Path compactPath = Paths.get(getCompactModelPath());
+        long compactBytes = ModelFileFormat.write(version, compactPath);
+        log.info("Model version {} saved ({} bytes compact at {})", version.id(), compactBytes, compactPath);
     }
 
     /**
-     * Load model from disk
+     * Load model from disk and make it the active version
      */
-    public void loadModel() throws Exception {
+    public ModelVersion loadModel() throws Exception {
         String modelPath = getModelPath();
         File modelFile = new File(modelPath);
 
@@ -83,9 +228,34 @@ public class ModelTrainingService {
         }
 
         log.info("Loading model from {}", modelPath);
-        // Load the classifier from disk (note: this doesn't update the current trustModel instance)
         Object loadedClassifier = SerializationHelper.read(modelPath);
-        log.info("Model loaded successfully: {}", loadedClassifier.getClass().getSimpleName());
+        if (!(loadedClassifier instanceof RandomForest forest)) {
+            throw new IllegalStateException("Unexpected model type: " + loadedClassifier.getClass().getName());
+        }
+        ModelVersion version = modelRegistry.register(forest, "file:" + modelPath,
+                Instant.ofEpochMilli(modelFile.lastModified()));
+        log.info("Model loaded successfully as version {}", version.id());
+        return version;
+    }
+
+    /**
+     * Map the compact model file and make it the active version.
+     * The version keeps the id it was saved with, and the engines saved alongside its forest.
+     */
+    public ModelVersion loadCompactModel() throws Exception {
+        Path compactPath = Paths.get(getCompactModelPath());
+        if (!Files.exists(compactPath)) {
+            throw new IllegalStateException("Compact model file not found at " + compactPath);
+        }
+
+        long start = System.nanoTime();
+        ModelFileFormat.ModelFile file = ModelFileFormat.read(compactPath);
+        ModelVersion version = modelRegistry.register(file.forest(), file.engines(), file.modelName(),
+                "file:" + compactPath, file.createdAt(), file.versionId());
+        log.info("Compact model {} loaded from {} in {} ms ({} trees, engines {}, {} bytes)", version.id(),
+                compactPath, (System.nanoTime() - start) / 1_000_000, version.numTrees(),
+                file.engines().keySet(), Files.size(compactPath));
+        return version;
     }
 
     /**
@@ -146,6 +316,10 @@ public class ModelTrainingService {
         return MODEL_DIR + "/" + MODEL_FILE;
     }
 
+    private String getCompactModelPath() {
+        return MODEL_DIR + "/" + COMPACT_MODEL_FILE;
+    }
+
     /**
      * Training result DTO
      */
@@ -155,6 +329,12 @@ public class ModelTrainingService {
         private boolean success;
         private int numSamples;
         private long trainingTimeMs;
+        private long generationTimeMs;
+        private long buildTimeMs;
+        private TrainingConfig config;
+        // Engines trained next to the forest, with their training time
+        private Map<String, Long> engineTrainingMs;
+        private String modelVersion;
         private LocalDateTime timestamp;
         private String modelPath;
         private String message;
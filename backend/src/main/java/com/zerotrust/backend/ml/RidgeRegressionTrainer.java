@@ -0,0 +1,119 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.LinearTrustModel;
+
+/**
+ * Ridge regression over standardized features, solved in closed form.
+ * Features are centred and scaled to unit variance (constant features keep scale 1 and get
+ * a zero weight), then {@code (X'X + lambda I) w = X'(y - mean(y))} is solved by Cholesky
+ * decomposition; the intercept is the label mean. One pass over the data builds X'X.
+ */
+public final class RidgeRegressionTrainer {
+
+    private static final int F = FeatureRows.NUM_FEATURES;
+
+    private RidgeRegressionTrainer() {
+    }
+
+    /**
+     * @param lambda L2 penalty on the standardized weights; 0 is ordinary least squares
+     */
+    public static LinearTrustModel train(SyntheticDataset data, double lambda) {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("Ridge penalty must not be negative");
+        }
+        int n = data.size();
+        if (n < 2) {
+            throw new IllegalArgumentException("Ridge regression needs at least 2 samples");
+        }
+
+        double[] means = new double[F];
+        double labelMean = 0;
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < F; f++) {
+                means[f] += data.value(i, f);
+            }
+            labelMean += data.label(i);
+        }
+        for (int f = 0; f < F; f++) {
+            means[f] /= n;
+        }
+        labelMean /= n;
+
+        double[] scales = new double[F];
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < F; f++) {
+                double d = data.value(i, f) - means[f];
+                scales[f] += d * d;
+            }
+        }
+        for (int f = 0; f < F; f++) {
+            double std = Math.sqrt(scales[f] / n);
+            scales[f] = std > 0 ? std : 1;
+        }
+
+        double[][] gram = new double[F][F];
+        double[] moments = new double[F];
+        double[] x = new double[F];
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < F; f++) {
+                x[f] = (data.value(i, f) - means[f]) / scales[f];
+            }
+            double y = data.label(i) - labelMean;
+            for (int a = 0; a < F; a++) {
+                moments[a] += x[a] * y;
+                for (int b = 0; b <= a; b++) {
+                    gram[a][b] += x[a] * x[b];
+                }
+            }
+        }
+        for (int a = 0; a < F; a++) {
+            // Also keeps the system positive definite when a feature is constant
+            gram[a][a] += Math.max(lambda, 1e-9);
+            for (int b = 0; b < a; b++) {
+                gram[b][a] = gram[a][b];
+            }
+        }
+        return new LinearTrustModel(labelMean, means, scales, solve(gram, moments));
+    }
+
+    // Cholesky solve of a symmetric positive definite system
+    private static double[] solve(double[][] a, double[] b) {
+        int n = b.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    if (!(sum > 0)) {
+                        throw new IllegalStateException("Ridge system is not positive definite");
+                    }
+                    l[i][i] = Math.sqrt(sum);
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i][k] * y[k];
+            }
+            y[i] = sum / l[i][i];
+        }
+        double[] w = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k][i] * w[k];
+            }
+            w[i] = sum / l[i][i];
+        }
+        return w;
+    }
+}
@@ -1,20 +1,74 @@
 package com.zerotrust.backend.ml;
 
-import com.zerotrust.backend.dto.FeatureVector;
 import weka.core.Instances;
 
-import java.util.Random;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Generates synthetic training data for Zero-Trust ML model
  * Creates realistic feature vectors with labeled trust scores
+ *
+ * Rows are produced in fixed-size chunks, each drawing from its own SplittableRandom
+ * stream split off the seed in chunk order. A chunk's rows therefore only depend on
+ * the seed and the chunk index, so the dataset is identical for any number of threads.
+ *
+ * Values are written straight into one primitive column per attribute (features, then the label),
+ * which may be heap arrays or a memory-mapped file (see DatasetCache).
  */
 public class SyntheticDataGenerator {
 
-    private final Random random;
+    // Rows per random stream; part of the reproducibility contract, do not derive from thread count
+    static final int CHUNK_SIZE = 4096;
+
+    // Bump whenever a change alters the generated values: cached datasets are keyed by it
+    public static final int VERSION = 1;
+
+    static final int LABEL = 10;
+    static final int NUM_COLUMNS = LABEL + 1;
+
+    private final long seed;
+    private final ProfileMix mix;
+
+    /**
+     * Relative share of LOW, MEDIUM and HIGH risk rows; rows are laid out in that order
+     */
+    public record ProfileMix(int low, int medium, int high) {
+
+        public static final ProfileMix BALANCED = new ProfileMix(1, 1, 1);
+
+        public ProfileMix {
+            if (low < 0 || medium < 0 || high < 0 || low + medium + high == 0) {
+                throw new IllegalArgumentException("Profile mix needs non-negative weights with a positive sum");
+            }
+        }
+
+        // First row index of the MEDIUM and HIGH profiles
+        int mediumStart(int numSamples) {
+            return (int) ((long) numSamples * low / total());
+        }
+
+        int highStart(int numSamples) {
+            return mediumStart(numSamples) + (int) ((long) numSamples * medium / total());
+        }
+
+        private int total() {
+            return low + medium + high;
+        }
+    }
+
+    public SyntheticDataGenerator(long seed, ProfileMix mix) {
+        this.seed = seed;
+        this.mix = mix;
+    }
 
     public SyntheticDataGenerator(long seed) {
-        this.random = new Random(seed);
+        this(seed, ProfileMix.BALANCED);
     }
 
     public SyntheticDataGenerator() {
@@ -27,96 +81,150 @@ public class SyntheticDataGenerator {
      * @return Weka Instances with labeled data
      */
     public Instances generateTrainingData(int numSamples) {
-        Instances dataset = WekaDatasetBuilder.buildDataset(true);
+        return generateTrainingData(numSamples, 1);
+    }
 
-        // Ensure balanced distribution: 1/3 LOW, 1/3 MEDIUM, 1/3 HIGH risk
-        int samplesPerRisk = numSamples / 3;
-        
+    /**
+     * Same dataset as {@link #generateTrainingData(int)}, with chunks generated on up to {@code threads} cores
+     */
+    public Instances generateTrainingData(int numSamples, int threads) {
+        return generateDataset(numSamples, threads).toInstances();
+    }
+
+    /**
+     * Raw rows: the model features followed by the label
+     */
+    public double[][] generateRows(int numSamples, int threads) {
+        SyntheticDataset dataset = generateDataset(numSamples, threads);
+        double[][] rows = new double[numSamples][NUM_COLUMNS];
         for (int i = 0; i < numSamples; i++) {
-            // Force balanced distribution
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                rows[i][c] = dataset.value(i, c);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Columnar dataset on the heap
+     */
+    public SyntheticDataset generateDataset(int numSamples, int threads) {
+        DoubleBuffer[] columns = new DoubleBuffer[NUM_COLUMNS];
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            columns[c] = DoubleBuffer.wrap(new double[numSamples]);
+        }
+        fillColumns(numSamples, threads, columns);
+        return new SyntheticDataset(numSamples, columns);
+    }
+
+    /**
+     * Write {@code numSamples} rows into the given columns (absolute puts at index 0..numSamples-1)
+     */
+    public void fillColumns(int numSamples, int threads, DoubleBuffer[] columns) {
+        int chunks = (numSamples + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // Split sequentially so every chunk gets the same stream whatever the thread count
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            streams[c] = root.split();
+        }
+
+        int workers = Math.max(1, Math.min(threads, chunks));
+        if (workers == 1) {
+            for (int c = 0; c < chunks; c++) {
+                fillChunk(numSamples, columns, c, streams[c]);
+            }
+            return;
+        }
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().name("synthetic-data-", 0).daemon(true).factory())) {
+            List<Future<?>> futures = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                futures.add(pool.submit(() -> fillChunk(numSamples, columns, chunk, streams[chunk])));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Synthetic data generation failed", e);
+        }
+    }
+
+    // Chunks write disjoint index ranges with absolute puts, so they can share the column buffers
+    private void fillChunk(int numSamples, DoubleBuffer[] columns, int chunk, SplittableRandom random) {
+        int mediumStart = mix.mediumStart(numSamples);
+        int highStart = mix.highStart(numSamples);
+
+        double[] values = new double[NUM_COLUMNS];
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(numSamples, from + CHUNK_SIZE);
+        for (int i = from; i < to; i++) {
             int riskProfile;
-            if (i < samplesPerRisk) {
+            if (i < mediumStart) {
                 riskProfile = 0; // LOW
-            } else if (i < samplesPerRisk * 2) {
+            } else if (i < highStart) {
                 riskProfile = 1; // MEDIUM
             } else {
                 riskProfile = 2; // HIGH
             }
-            
-            FeatureVector features = generateRandomFeatures(riskProfile);
-            double trustScore = computeLabeledScore(features);
-
-            double[] values = new double[dataset.numAttributes()];
-            values[0] = features.getFailedLoginRate();
-            values[1] = features.getNightAccessRate();
-            values[2] = features.getLoginFrequency24h();
-            values[3] = features.getAvgDeviceRisk();
-            values[4] = features.getUnpatchedDeviceRatio();
-            values[5] = features.getAntivirusDisabledRatio();
-            values[6] = features.getNetworkRiskScore();
-            values[7] = features.getLocationChangeScore();
-            values[8] = features.getTimeAnomalyScore();
-            values[9] = features.getSecondsSinceLastLogin();
-            values[10] = trustScore; // label
-
-            dataset.add(new weka.core.DenseInstance(1.0, values));
-        }
 
-        return dataset;
+            generateRandomFeatures(riskProfile, random, values);
+            values[LABEL] = computeLabeledScore(values, random);
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                columns[c].put(i, values[c]);
+            }
+        }
     }
 
     /**
-     * Generate realistic feature vector with controlled randomness
+     * Generate realistic feature values with controlled randomness, in FeatureRows column order
      * @param riskProfile 0=LOW, 1=MEDIUM, 2=HIGH risk
      */
-    private FeatureVector generateRandomFeatures(int riskProfile) {
+    private static void generateRandomFeatures(int riskProfile, SplittableRandom random, double[] v) {
         if (riskProfile == 0) {
             // LOW RISK profile
-            return FeatureVector.builder()
-                    .totalEvents(random.nextInt(50) + 50) // 50-100
-                    .failedLoginRate(random.nextDouble() * 0.05) // 0-5%
-                    .nightAccessRate(random.nextDouble() * 0.1) // 0-10%
-                    .loginFrequency24h(random.nextInt(5) + 3) // 3-8
-                    .avgDeviceRisk(random.nextDouble() * 20 + 10) // 10-30
-                    .unpatchedDeviceRatio(random.nextDouble() * 0.1) // 0-10%
-                    .antivirusDisabledRatio(random.nextDouble() * 0.05) // 0-5%
-                    .networkRiskScore(random.nextDouble() * 15 + 10) // 10-25
-                    .locationChangeScore(random.nextDouble() * 10) // 0-10
-                    .timeAnomalyScore(random.nextDouble() * 15) // 0-15
-                    .secondsSinceLastLogin(random.nextInt(3600) + 3600) // 1-2 hours
-                    .build();
+            v[0] = random.nextDouble() * 0.05; // failedLoginRate 0-5%
+            v[1] = random.nextDouble() * 0.1; // nightAccessRate 0-10%
+            v[2] = random.nextInt(5) + 3; // loginFrequency24h 3-8
+            v[3] = random.nextDouble() * 20 + 10; // avgDeviceRisk 10-30
+            v[4] = random.nextDouble() * 0.1; // unpatchedDeviceRatio 0-10%
+            v[5] = random.nextDouble() * 0.05; // antivirusDisabledRatio 0-5%
+            v[6] = random.nextDouble() * 15 + 10; // networkRiskScore 10-25
+            v[7] = random.nextDouble() * 10; // locationChangeScore 0-10
+            v[8] = random.nextDouble() * 15; // timeAnomalyScore 0-15
+            v[9] = random.nextInt(3600) + 3600; // secondsSinceLastLogin 1-2 hours
 
         } else if (riskProfile == 1) {
             // MEDIUM RISK profile
-            return FeatureVector.builder()
-                    .totalEvents(random.nextInt(50) + 20) // 20-70
-                    .failedLoginRate(random.nextDouble() * 0.15 + 0.05) // 5-20%
-                    .nightAccessRate(random.nextDouble() * 0.25 + 0.1) // 10-35%
-                    .loginFrequency24h(random.nextInt(10) + 5) // 5-15
-                    .avgDeviceRisk(random.nextDouble() * 30 + 30) // 30-60
-                    .unpatchedDeviceRatio(random.nextDouble() * 0.3 + 0.1) // 10-40%
-                    .antivirusDisabledRatio(random.nextDouble() * 0.2 + 0.05) // 5-25%
-                    .networkRiskScore(random.nextDouble() * 25 + 25) // 25-50
-                    .locationChangeScore(random.nextDouble() * 30 + 10) // 10-40
-                    .timeAnomalyScore(random.nextDouble() * 30 + 15) // 15-45
-                    .secondsSinceLastLogin(random.nextInt(7200) + 7200) // 2-4 hours
-                    .build();
+            v[0] = random.nextDouble() * 0.15 + 0.05; // 5-20%
+            v[1] = random.nextDouble() * 0.25 + 0.1; // 10-35%
+            v[2] = random.nextInt(10) + 5; // 5-15
+            v[3] = random.nextDouble() * 30 + 30; // 30-60
+            v[4] = random.nextDouble() * 0.3 + 0.1; // 10-40%
+            v[5] = random.nextDouble() * 0.2 + 0.05; // 5-25%
+            v[6] = random.nextDouble() * 25 + 25; // 25-50
+            v[7] = random.nextDouble() * 30 + 10; // 10-40
+            v[8] = random.nextDouble() * 30 + 15; // 15-45
+            v[9] = random.nextInt(7200) + 7200; // 2-4 hours
 
         } else {
             // HIGH RISK profile
-            return FeatureVector.builder()
-                    .totalEvents(random.nextInt(30) + 10) // 10-40
-                    .failedLoginRate(random.nextDouble() * 0.4 + 0.2) // 20-60%
-                    .nightAccessRate(random.nextDouble() * 0.4 + 0.35) // 35-75%
-                    .loginFrequency24h(random.nextInt(20) + 15) // 15-35
-                    .avgDeviceRisk(random.nextDouble() * 30 + 60) // 60-90
-                    .unpatchedDeviceRatio(random.nextDouble() * 0.5 + 0.4) // 40-90%
-                    .antivirusDisabledRatio(random.nextDouble() * 0.6 + 0.25) // 25-85%
-                    .networkRiskScore(random.nextDouble() * 30 + 50) // 50-80
-                    .locationChangeScore(random.nextDouble() * 50 + 40) // 40-90
-                    .timeAnomalyScore(random.nextDouble() * 40 + 45) // 45-85
-                    .secondsSinceLastLogin(random.nextInt(86400) + 14400) // 4-28 hours
-                    .build();
+            v[0] = random.nextDouble() * 0.4 + 0.2; // 20-60%
+            v[1] = random.nextDouble() * 0.4 + 0.35; // 35-75%
+            v[2] = random.nextInt(20) + 15; // 15-35
+            v[3] = random.nextDouble() * 30 + 60; // 60-90
+            v[4] = random.nextDouble() * 0.5 + 0.4; // 40-90%
+            v[5] = random.nextDouble() * 0.6 + 0.25; // 25-85%
+            v[6] = random.nextDouble() * 30 + 50; // 50-80
+            v[7] = random.nextDouble() * 50 + 40; // 40-90
+            v[8] = random.nextDouble() * 40 + 45; // 45-85
+            v[9] = random.nextInt(86400) + 14400; // 4-28 hours
         }
     }
 
@@ -124,32 +232,32 @@ public class SyntheticDataGenerator {
      * Compute labeled trust score using rule-based logic
      * This creates ground truth for supervised learning
      */
-    private double computeLabeledScore(FeatureVector f) {
+    private static double computeLabeledScore(double[] v, SplittableRandom random) {
         double score = 100.0;
 
         // Penalize failed logins (high weight)
-        score -= f.getFailedLoginRate() * 80;
+        score -= v[0] * 80;
 
         // Penalize night access
-        score -= f.getNightAccessRate() * 30;
+        score -= v[1] * 30;
 
         // Penalize high login frequency (potential brute force)
-        if (f.getLoginFrequency24h() > 20) {
-            score -= (f.getLoginFrequency24h() - 20) * 2;
+        if (v[2] > 20) {
+            score -= (v[2] - 20) * 2;
         }
 
         // Device posture penalties
-        score -= (f.getAvgDeviceRisk() / 100.0) * 25;
-        score -= f.getUnpatchedDeviceRatio() * 30;
-        score -= f.getAntivirusDisabledRatio() * 35;
+        score -= (v[3] / 100.0) * 25;
+        score -= v[4] * 30;
+        score -= v[5] * 35;
 
         // Network and location penalties
-        score -= (f.getNetworkRiskScore() / 100.0) * 20;
-        score -= f.getLocationChangeScore() * 0.8;
-        score -= f.getTimeAnomalyScore() * 0.5;
+        score -= (v[6] / 100.0) * 20;
+        score -= v[7] * 0.8;
+        score -= v[8] * 0.5;
 
         // Stale login penalty
-        long hoursSinceLogin = (long)f.getSecondsSinceLastLogin() / 3600;
+        long hoursSinceLogin = (long) v[9] / 3600;
         if (hoursSinceLogin > 24) {
             score -= (hoursSinceLogin - 24) * 0.5;
         }
@@ -0,0 +1,82 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.trust.FeatureRows;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Labeled synthetic dataset stored column by column: the model features in FeatureRows order,
+ * then the label. Columns are either heap arrays or read-only views of a memory-mapped file,
+ * so a cached dataset is read in place without copying it onto the heap.
+ * Reads use absolute indexes only, so one dataset can be shared between threads.
+ */
+public final class SyntheticDataset {
+
+    private final int size;
+    private final DoubleBuffer[] columns;
+
+    SyntheticDataset(int size, DoubleBuffer[] columns) {
+        if (columns.length != SyntheticDataGenerator.NUM_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + SyntheticDataGenerator.NUM_COLUMNS + " columns");
+        }
+        this.size = size;
+        this.columns = columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double value(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    public double label(int row) {
+        return columns[SyntheticDataGenerator.LABEL].get(row);
+    }
+
+    /**
+     * Feature rows {@code from} (inclusive) to {@code to} (exclusive), ready for batch scoring
+     */
+    public double[][] featureRows(int from, int to) {
+        double[][] rows = new double[to - from][FeatureRows.NUM_FEATURES];
+        for (int c = 0; c < FeatureRows.NUM_FEATURES; c++) {
+            DoubleBuffer column = columns[c];
+            for (int i = from; i < to; i++) {
+                rows[i - from][c] = column.get(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * One labeled row as a Weka instance attached to {@code header}
+     */
+    public Instance instance(int row, Instances header) {
+        double[] values = new double[SyntheticDataGenerator.NUM_COLUMNS];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = columns[c].get(row);
+        }
+        DenseInstance instance = new DenseInstance(1.0, values);
+        instance.setDataset(header);
+        return instance;
+    }
+
+    /**
+     * Heap copy as Weka Instances, for training
+     */
+    public Instances toInstances() {
+        Instances dataset = new Instances(WekaDatasetBuilder.buildDataset(true), size);
+        for (int i = 0; i < size; i++) {
+            double[] values = new double[SyntheticDataGenerator.NUM_COLUMNS];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = columns[c].get(i);
+            }
+            dataset.add(new DenseInstance(1.0, values));
+        }
+        return dataset;
+    }
+}
@@ -0,0 +1,233 @@
+package com.zerotrust.backend.ml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Confusion matrices for any number of score thresholds from one set of predictions.
+ * A row is an actual positive (risky) when its label is below {@code positiveBelow} and is
+ * flagged at threshold t when its predicted score is below t, as in the risk cutoffs.
+ * Predictions of positives and negatives are sorted once; each threshold is then two binary
+ * searches, and the ROC and precision-recall curves come from one merged pass over both.
+ */
+public final class ThresholdSweep {
+
+    private final double positiveBelow;
+    private final double[] positives;
+    private final double[] negatives;
+
+    public ThresholdSweep(double[] predictions, double[] labels, double positiveBelow) {
+        if (predictions.length != labels.length) {
+            throw new IllegalArgumentException("predictions and labels differ in length");
+        }
+        this.positiveBelow = positiveBelow;
+        int positiveCount = 0;
+        for (double label : labels) {
+            if (label < positiveBelow) {
+                positiveCount++;
+            }
+        }
+        positives = new double[positiveCount];
+        negatives = new double[labels.length - positiveCount];
+        int p = 0;
+        int n = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] < positiveBelow) {
+                positives[p++] = predictions[i];
+            } else {
+                negatives[n++] = predictions[i];
+            }
+        }
+        Arrays.sort(positives);
+        Arrays.sort(negatives);
+    }
+
+    public double positiveBelow() {
+        return positiveBelow;
+    }
+
+    public int positives() {
+        return positives.length;
+    }
+
+    public int negatives() {
+        return negatives.length;
+    }
+
+    /**
+     * Confusion matrix when scores below {@code threshold} are flagged
+     */
+    public Confusion at(double threshold) {
+        int truePositives = countBelow(positives, threshold);
+        int falsePositives = countBelow(negatives, threshold);
+        return new Confusion(threshold, truePositives, negatives.length - falsePositives,
+                falsePositives, positives.length - truePositives);
+    }
+
+    /**
+     * Confusion matrices for thresholds {@code from}, {@code from + step}, ... up to {@code to}
+     */
+    public List<Confusion> sweep(double from, double to, double step) {
+        int count = thresholdCount(from, to, step);
+        List<Confusion> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(at(from + i * step));
+        }
+        return points;
+    }
+
+    /**
+     * Number of thresholds in a sweep
+     *
+     * @throws IllegalArgumentException for an empty, inverted or oversized sweep
+     */
+    public static int thresholdCount(double from, double to, double step) {
+        if (!(step > 0) || !(to >= from)) {
+            throw new IllegalArgumentException("Sweep needs step > 0 and to >= from");
+        }
+        long count = (long) Math.floor((to - from) / step + 1e-9) + 1;
+        if (count > 10_000) {
+            throw new IllegalArgumentException("Sweep is limited to 10000 thresholds");
+        }
+        return (int) count;
+    }
+
+    /**
+     * ROC and precision-recall curves over every distinct predicted score, with the exact
+     * ROC AUC and average precision; the returned curves keep at most {@code maxPoints} points
+     */
+    public Curves curves(int maxPoints) {
+        int distinct = countDistinct();
+        int stride = Math.max(1, (int) Math.ceil((double) distinct / Math.max(1, maxPoints)));
+        double p = Math.max(1, positives.length);
+        double n = Math.max(1, negatives.length);
+
+        List<CurvePoint> roc = new ArrayList<>();
+        List<CurvePoint> pr = new ArrayList<>();
+        if (distinct > 0) {
+            // Nothing is flagged below the lowest score
+            double lowest = Math.min(positives.length > 0 ? positives[0] : Double.POSITIVE_INFINITY,
+                    negatives.length > 0 ? negatives[0] : Double.POSITIVE_INFINITY);
+            roc.add(new CurvePoint(lowest, 0, 0));
+        }
+
+        double auc = 0;
+        double averagePrecision = 0;
+        double previousFpr = 0;
+        double previousTpr = 0;
+        int i = 0;
+        int j = 0;
+        int step = 0;
+        // Walk both sorted arrays in ascending score order; each distinct score raises the threshold past it
+        while (i < positives.length || j < negatives.length) {
+            double score = Math.min(i < positives.length ? positives[i] : Double.POSITIVE_INFINITY,
+                    j < negatives.length ? negatives[j] : Double.POSITIVE_INFINITY);
+            while (i < positives.length && positives[i] == score) {
+                i++;
+            }
+            while (j < negatives.length && negatives[j] == score) {
+                j++;
+            }
+            double tpr = i / p;
+            double fpr = j / n;
+            double precision = (double) i / (i + j);
+
+            auc += (fpr - previousFpr) * (tpr + previousTpr) / 2;
+            averagePrecision += (tpr - previousTpr) * precision;
+            previousFpr = fpr;
+            previousTpr = tpr;
+
+            // Flagging is strict (score < threshold), so this point's threshold is just above the score
+            double threshold = Math.nextUp(score);
+            step++;
+            if (step % stride == 0 || step == distinct) {
+                roc.add(new CurvePoint(threshold, fpr, tpr));
+                pr.add(new CurvePoint(threshold, tpr, precision));
+            }
+        }
+        return new Curves(roc, pr, positives.length == 0 || negatives.length == 0 ? null : auc,
+                positives.length == 0 ? null : averagePrecision);
+    }
+
+    private int countDistinct() {
+        int distinct = 0;
+        int i = 0;
+        int j = 0;
+        while (i < positives.length || j < negatives.length) {
+            double score = Math.min(i < positives.length ? positives[i] : Double.POSITIVE_INFINITY,
+                    j < negatives.length ? negatives[j] : Double.POSITIVE_INFINITY);
+            while (i < positives.length && positives[i] == score) {
+                i++;
+            }
+            while (j < negatives.length && negatives[j] == score) {
+                j++;
+            }
+            distinct++;
+        }
+        return distinct;
+    }
+
+    // Number of sorted values strictly below the threshold
+    private static int countBelow(double[] sorted, double threshold) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < threshold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Confusion matrix at one threshold
+     */
+    public record Confusion(double threshold, int truePositives, int trueNegatives,
+                            int falsePositives, int falseNegatives) {
+
+        public double falsePositiveRate() {
+            return ratio(falsePositives, falsePositives + trueNegatives);
+        }
+
+        public double falseNegativeRate() {
+            return ratio(falseNegatives, falseNegatives + truePositives);
+        }
+
+        public double precision() {
+            return ratio(truePositives, truePositives + falsePositives);
+        }
+
+        public double recall() {
+            return ratio(truePositives, truePositives + falseNegatives);
+        }
+
+        public double accuracy() {
+            return ratio(truePositives + trueNegatives, truePositives + trueNegatives + falsePositives + falseNegatives);
+        }
+
+        public double f1() {
+            return ratio(2.0 * truePositives, 2.0 * truePositives + falsePositives + falseNegatives);
+        }
+
+        private static double ratio(double numerator, double denominator) {
+            return denominator == 0 ? 0 : numerator / denominator;
+        }
+    }
+
+    /**
+     * One curve point: ROC uses (false positive rate, true positive rate),
+     * precision-recall uses (recall, precision)
+     */
+    public record CurvePoint(double threshold, double x, double y) {
+    }
+
+    /**
+     * ROC and precision-recall curves; the areas are null when one class is absent
+     */
+    public record Curves(List<CurvePoint> roc, List<CurvePoint> precisionRecall, Double rocAuc, Double averagePrecision) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.zerotrust.backend.ml;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Random forest training parameters; zero means "default" where noted
+ */
+@Builder
+@Data
+public class TrainingConfig {
+
+    @Builder.Default
+    private int numTrees = 100;
+
+    // 0 = unlimited depth
+    @Builder.Default
+    private int maxDepth = 0;
+
+    // Trees built concurrently; 0 = one per available core
+    @Builder.Default
+    private int executionSlots = 0;
+
+    // Seeds both the synthetic data and the forest
+    @Builder.Default
+    private long seed = 42L;
+
+    // Register the forest as the shadow candidate instead of activating it
+    @Builder.Default
+    private boolean candidate = false;
+
+    public void validate() {
+        if (numTrees < 1) {
+            throw new IllegalArgumentException("trees must be at least 1");
+        }
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative");
+        }
+        if (executionSlots < 0) {
+            throw new IllegalArgumentException("slots must not be negative");
+        }
+    }
+
+    public int resolvedExecutionSlots() {
+        return executionSlots == 0 ? Runtime.getRuntime().availableProcessors() : executionSlots;
+    }
+}
@@ -1,13 +1,59 @@
 package com.zerotrust.backend.repositories;
 
+import com.zerotrust.backend.dto.AccessEventExportRow;
+import com.zerotrust.backend.dto.EventAggregate;
 import com.zerotrust.backend.entities.AccessEvent;
 import com.zerotrust.backend.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AccessEventRepository extends JpaRepository<AccessEvent, UUID> {
     List<AccessEvent> findByUser(User user);
 
+    /**
+     * One GROUP BY pass over access_events for a page of users.
+     * Network weights must stay in sync with FeatureExtractionService.networkRiskScoreFor.
+     */
+    @Query("""
+            select new com.zerotrust.backend.dto.EventAggregate(
+                e.user.id,
+                count(e),
+                sum(case when e.success = false then 1 else 0 end),
+                sum(case when e.hourOfDay < 6 or e.hourOfDay > 22 then 1 else 0 end),
+                sum(case when e.timestamp > :since then 1 else 0 end),
+                sum(case e.networkType
+                        when com.zerotrust.backend.enums.NetworkType.INTERNAL then 10
+                        when com.zerotrust.backend.enums.NetworkType.VPN then 25
+                        when com.zerotrust.backend.enums.NetworkType.EXTERNAL then 45
+                        when com.zerotrust.backend.enums.NetworkType.TOR then 80
+                        else 30 end),
+                count(distinct e.country),
+                sum(case when e.country is null then 1 else 0 end))
+            from AccessEvent e
+            where e.user.id in :userIds
+            group by e.user.id
+            """)
+    List<EventAggregate> aggregateByUserIds(@Param("userIds") Collection<UUID> userIds,
+                                            @Param("since") Instant since);
+
+    // Forward-only cursor over [from, to) for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.zerotrust.backend.dto.AccessEventExportRow(
+                e.id, e.user.id, e.device.id, e.timestamp, e.ipAddress, e.networkType, e.country, e.city,
+                e.hourOfDay, e.weekend, e.resource, e.sessionId, e.userAgent, e.success, e.eventRiskScore)
+            from AccessEvent e
+            where e.timestamp >= :from and e.timestamp < :to
+            """)
+    Stream<AccessEventExportRow> streamForExport(@Param("from") Instant from, @Param("to") Instant to);
 }
@@ -0,0 +1,20 @@
+package com.zerotrust.backend.repositories;
+
+import com.zerotrust.backend.entities.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    long countByHeartbeatAtAfter(Instant since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ClusterNode n where n.heartbeatAt < :before")
+    int deleteStale(@Param("before") Instant before);
+}
@@ -1,13 +1,30 @@
 package com.zerotrust.backend.repositories;
 
+import com.zerotrust.backend.dto.DeviceAggregate;
 import com.zerotrust.backend.entities.Device;
 import com.zerotrust.backend.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface DeviceRepository extends JpaRepository<Device, UUID> {
     List<Device> findByUser(User user);
 
+    // One GROUP BY pass over devices for a page of users
+    @Query("""
+            select new com.zerotrust.backend.dto.DeviceAggregate(
+                d.user.id,
+                count(d),
+                coalesce(sum(d.deviceRiskScore), 0.0),
+                sum(case when d.patched = false then 1 else 0 end),
+                sum(case when d.antivirusEnabled = false then 1 else 0 end))
+            from Device d
+            where d.user.id in :userIds
+            group by d.user.id
+            """)
+    List<DeviceAggregate> aggregateByUserIds(@Param("userIds") Collection<UUID> userIds);
 }
@@ -0,0 +1,52 @@
+package com.zerotrust.backend.repositories;
+
+import com.zerotrust.backend.entities.RecomputeLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface RecomputeLeaseRepository extends JpaRepository<RecomputeLease, Integer> {
+
+    @Query("select l.slot from RecomputeLease l")
+    List<Integer> findAllSlots();
+
+    @Query("select l.slot from RecomputeLease l where l.owner = :node and l.slot < :slots order by l.slot")
+    List<Integer> findSlotsOwnedBy(@Param("node") String node, @Param("slots") int slots);
+
+    // Slots nobody holds a live lease on
+    @Query("""
+            select l.slot from RecomputeLease l
+            where l.slot < :slots and (l.owner is null or l.expiresAt < :now)
+            order by l.slot
+            """)
+    List<Integer> findClaimableSlots(@Param("slots") int slots, @Param("now") Instant now);
+
+    // Conditional claim: succeeds (returns 1) only if the slot is free, expired or already ours
+    @Modifying
+    @Transactional
+    @Query("""
+            update RecomputeLease l set l.owner = :node, l.acquiredAt = :now, l.expiresAt = :until
+            where l.slot = :slot and (l.owner is null or l.owner = :node or l.expiresAt < :now)
+            """)
+    int tryClaim(@Param("slot") int slot, @Param("node") String node,
+                 @Param("now") Instant now, @Param("until") Instant until);
+
+    @Modifying
+    @Transactional
+    @Query("update RecomputeLease l set l.expiresAt = :until where l.owner = :node")
+    int renew(@Param("node") String node, @Param("until") Instant until);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RecomputeLease l set l.owner = null, l.acquiredAt = null, l.expiresAt = null
+            where l.owner = :node and l.slot in :slots
+            """)
+    int release(@Param("node") String node, @Param("slots") Collection<Integer> slots);
+}
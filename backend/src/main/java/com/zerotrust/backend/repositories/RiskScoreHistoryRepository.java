@@ -1,14 +1,79 @@
 package com.zerotrust.backend.repositories;
 
+import com.zerotrust.backend.dto.LatestScore;
+import com.zerotrust.backend.dto.RiskHistoryEntry;
+import com.zerotrust.backend.dto.RiskHistoryExportRow;
 import com.zerotrust.backend.entities.RiskScoreHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface RiskScoreHistoryRepository extends JpaRepository<RiskScoreHistory, UUID> {
     RiskScoreHistory findTopByUserEmailOrderByCalculatedAtDesc(String email);
     List<RiskScoreHistory> findByUserIdOrderByCalculatedAtDesc(UUID userId);
     RiskScoreHistory findTopByUserIdOrderByCalculatedAtDesc(UUID userId);
+
+    // Latest score of every scored user (ties on calculatedAt may return several rows per user)
+    @Query("""
+            select new com.zerotrust.backend.dto.LatestScore(h.user.id, h.score, h.level, h.calculatedAt)
+            from RiskScoreHistory h
+            where h.calculatedAt = (select max(h2.calculatedAt) from RiskScoreHistory h2 where h2.user = h.user)
+            """)
+    List<LatestScore> findLatestPerUser();
+
+    long countByCalculatedAtBefore(Instant before);
+
+    // Every score calculated in [from, to), for merging other replicas' scores into the dashboard
+    @Query("""
+            select new com.zerotrust.backend.dto.LatestScore(h.user.id, h.score, h.level, h.calculatedAt)
+            from RiskScoreHistory h
+            where h.calculatedAt >= :from and h.calculatedAt < :to
+            """)
+    List<LatestScore> findCalculatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Keyset pagination of a user's history within [from, to), newest first (first page / following pages)
+    @Query("""
+            select new com.zerotrust.backend.dto.RiskHistoryEntry(h.id, h.score, h.level, h.calculatedAt)
+            from RiskScoreHistory h
+            where h.user.id = :userId and h.calculatedAt >= :from and h.calculatedAt < :to
+            order by h.calculatedAt desc, h.id desc
+            """)
+    List<RiskHistoryEntry> findHistoryPage(@Param("userId") UUID userId,
+                                           @Param("from") Instant from,
+                                           @Param("to") Instant to,
+                                           Limit limit);
+
+    @Query("""
+            select new com.zerotrust.backend.dto.RiskHistoryEntry(h.id, h.score, h.level, h.calculatedAt)
+            from RiskScoreHistory h
+            where h.user.id = :userId and h.calculatedAt >= :from and h.calculatedAt < :to
+              and (h.calculatedAt < :afterAt or (h.calculatedAt = :afterAt and h.id < :afterId))
+            order by h.calculatedAt desc, h.id desc
+            """)
+    List<RiskHistoryEntry> findHistoryPageAfter(@Param("userId") UUID userId,
+                                                @Param("from") Instant from,
+                                                @Param("to") Instant to,
+                                                @Param("afterAt") Instant afterAt,
+                                                @Param("afterId") UUID afterId,
+                                                Limit limit);
+
+    // Forward-only cursor over [from, to) for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.zerotrust.backend.dto.RiskHistoryExportRow(
+                h.id, h.user.id, h.score, h.level, h.calculatedAt, h.modelName, h.modelVersion)
+            from RiskScoreHistory h
+            where h.calculatedAt >= :from and h.calculatedAt < :to
+            """)
+    Stream<RiskHistoryExportRow> streamForExport(@Param("from") Instant from, @Param("to") Instant to);
 }
@@ -1,11 +1,33 @@
 package com.zerotrust.backend.repositories;
 
 import com.zerotrust.backend.entities.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
+
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    // Keyset pagination within an inclusive id range, i.e. one recompute slot (first page / following pages)
+    List<User> findByIdBetweenOrderByIdAsc(UUID lowest, UUID highest, Limit limit);
+    List<User> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(UUID id, UUID highest, Limit limit);
+
+    @Query("select u.id from User u")
+    List<UUID> findAllIds();
+
+    // Change marker read by the periodic recompute to skip unchanged users
+    @Modifying
+    @Query("update User u set u.inputsChangedAt = :changedAt where u.id in :userIds")
+    int markInputsChanged(@Param("userIds") Collection<UUID> userIds, @Param("changedAt") Instant changedAt);
 }
@@ -7,14 +7,15 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 
 @Component
 @RequiredArgsConstructor
@@ -29,66 +30,53 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        
+
         // Skip JWT validation only for login endpoint
-        final String requestPath = request.getServletPath();
-        System.out.println("DEBUG JwtFilter: Processing request to: " + requestPath);
-        
-        if (requestPath.equals("/api/auth/login")) {
-            System.out.println("DEBUG JwtFilter: Skipping JWT validation for login endpoint");
+        if (request.getServletPath().equals("/api/auth/login")) {
             filterChain.doFilter(request, response);
             return;
         }
 
         final String authHeader = request.getHeader("Authorization");
-        System.out.println("DEBUG JwtFilter: Authorization header: " + (authHeader != null ? authHeader.substring(0, Math.min(20, authHeader.length())) + "..." : "null"));
-        
-        final String jwt;
-        final String userEmail;
 
         // Check if Authorization header is present and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("DEBUG JwtFilter: No valid Authorization header found");
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Extract JWT token
-        jwt = authHeader.substring(7);
-        System.out.println("DEBUG JwtFilter: Extracted JWT token");
-        
-        try {
-            userEmail = jwtService.extractUsername(jwt);
-            System.out.println("DEBUG JwtFilter: Extracted email from token: " + userEmail);
-
-            // If user is not already authenticated
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                System.out.println("DEBUG JwtFilter: Loaded user details for: " + userDetails.getUsername());
-
-                // Validate token
-                if (jwtService.validateToken(jwt, userDetails)) {
-                    System.out.println("DEBUG JwtFilter: Token is valid, setting authentication");
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+        // If user is not already authenticated
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                UsernamePasswordAuthenticationToken authToken = authenticate(authHeader.substring(7));
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("DEBUG JwtFilter: Authentication set successfully");
-                } else {
-                    System.out.println("DEBUG JwtFilter: Token validation failed");
                 }
-            } else {
-                System.out.println("DEBUG JwtFilter: Email is null or user already authenticated");
+            } catch (Exception e) {
+                // Invalid token - continue without authentication
+                logger.error("JWT validation failed: " + e.getMessage());
             }
-        } catch (Exception e) {
-            // Invalid token - continue without authentication
-            System.out.println("DEBUG JwtFilter: Exception during JWT processing: " + e.getMessage());
-            logger.error("JWT validation failed: " + e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Build the authentication for a bearer token.
+     * The token is verified once and the principal (email) and authorities come from its
+     * claims; only tokens issued without a roles claim fall back to a user lookup.
+     */
+    UsernamePasswordAuthenticationToken authenticate(String jwt) {
+        JwtService.VerifiedToken token = jwtService.verify(jwt);
+        if (token.subject() == null) {
+            return null;
+        }
+
+        Collection<? extends GrantedAuthority> authorities = token.authorities();
+        if (authorities == null) {
+            authorities = userDetailsService.loadUserByUsername(token.subject()).getAuthorities();
+        }
+        return new UsernamePasswordAuthenticationToken(token.subject(), null, authorities);
+    }
 }
@@ -1,23 +1,31 @@
 package com.zerotrust.backend.security;
 
+import com.zerotrust.backend.services.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    // Claim carrying the granted authorities, so requests can be authenticated without a user lookup
+    static final String ROLES_CLAIM = "roles";
+
     // Secret key for JWT signing (in production, use environment variable)
     @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secretKey;
@@ -25,6 +33,56 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpiration;
 
+    // Verified tokens are cached for at most this long (and never past their own expiry)
+    @Value("${jwt.verified-cache.ttl-seconds:60}")
+    private long verifiedCacheTtlSeconds;
+
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    // Key and parser are immutable and thread-safe, built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private BoundedCache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = decodeSigningKey();
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = new BoundedCache<>(verifiedCacheMaxEntries, verifiedCacheTtlSeconds);
+    }
+
+    /**
+     * Verify the token once and return its subject, authorities and expiry.
+     * Repeat tokens are answered from a short-lived cache.
+     * Throws a JwtException if the token is malformed, forged or expired.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parseVerified(token);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                authoritiesFrom(claims),
+                claims.getExpiration().getTime());
+
+        long remainingNanos = (verified.expiresAtMillis() - System.currentTimeMillis()) * 1_000_000L;
+        if (remainingNanos > 0) {
+            verifiedTokens.put(token, verified, remainingNanos);
+        }
+        return verified;
+    }
+
+    /**
+     * Parse and verify signature and expiry in a single pass
+     */
+    public Claims parseVerified(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     // Extract username (email) from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,39 +95,34 @@ public class JwtService {
 
     // Extract a specific claim from token
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseVerified(token);
         return claimsResolver.apply(claims);
     }
 
-    // Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     // Validate token
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // Parsing already rejects expired tokens
+        final Claims claims = parseVerified(token);
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date());
     }
 
     // Generate token for user
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        return generateToken(new HashMap<>(), userDetails);
     }
 
     // Generate token with extra claims
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return createToken(extraClaims, userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.putIfAbsent(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return createToken(claims, userDetails.getUsername());
+    }
+
+    public BoundedCache.Stats verifiedCacheStats() {
+        return verifiedTokens.stats();
     }
 
     // Create JWT token
@@ -79,13 +132,32 @@ public class JwtService {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    // Get signing key from secret
-    private SecretKey getSigningKey() {
+    // Tokens issued before the roles claim existed return null
+    private static List<GrantedAuthority> authoritiesFrom(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return null;
+        }
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+    }
+
+    // Decode signing key from secret
+    SecretKey decodeSigningKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    /**
+     * Result of a successful token verification
+     *
+     * @param authorities null for tokens without a roles claim
+     */
+    public record VerifiedToken(String subject, List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
 }
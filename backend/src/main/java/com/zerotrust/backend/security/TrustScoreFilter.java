@@ -1,8 +1,7 @@
 package com.zerotrust.backend.security;
 
-import com.zerotrust.backend.entities.RiskScoreHistory;
 import com.zerotrust.backend.enums.RiskLevel;
-import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.services.cache.LatestRiskIndex;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,8 +15,8 @@ import java.io.IOException;
 @Component
 public class TrustScoreFilter extends OncePerRequestFilter {
 
-     @Autowired
-    private RiskScoreHistoryRepository historyRepo;
+    @Autowired
+    private LatestRiskIndex latestRiskIndex;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -26,9 +25,10 @@ public class TrustScoreFilter extends OncePerRequestFilter {
 
         if(request.getUserPrincipal() != null){
             String email = request.getUserPrincipal().getName();
-            RiskScoreHistory latest = historyRepo.findTopByUserEmailOrderByCalculatedAtDesc(email);
+            // Served from memory; only a cold miss reaches risk_score_history
+            RiskLevel latest = latestRiskIndex.latest(email);
 
-            if(latest != null && latest.getLevel() == RiskLevel.HIGH){
+            if(latest == RiskLevel.HIGH){
                 response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                 response.getWriter().write("Access denied: high risk user.");
                 return;
@@ -0,0 +1,228 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.dto.LatestScore;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Incrementally maintained dashboard aggregates: latest score per user, user
+ * counts per risk level, the sum of latest scores and the number of score
+ * calculations. Seeded once from risk_score_history at startup and then updated
+ * by the scoring pipeline, so reading a snapshot does not touch the history table.
+ * <p>
+ * With several replicas each node only records its own scores. The opt-in
+ * reseed (trust.dashboard.reseed-enabled) merges the others' in the background
+ * by reading only the history rows calculated since the previous reseed,
+ * trailing the clock by a lag that covers the write-behind, and counting rows
+ * beyond the ones this node recorded for the same window. Own scores still queued
+ * past the lag make that window's count low by as many rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardAggregateService {
+
+    // Scores are summed in fixed point so the running average does not drift
+    private static final double SCORE_SCALE = 1_000_000.0;
+
+    private final RiskScoreHistoryRepository historyRepository;
+    private final UserRepository userRepository;
+
+    @Value("${trust.dashboard.user-count-refresh-ms:30000}")
+    private long userCountRefreshMs;
+
+    // Merge other replicas' scores and drop deleted users periodically
+    @Value("${trust.dashboard.reseed-enabled:false}")
+    private boolean reseedEnabled;
+
+    // How far the reseed window trails the clock, so scores still in a write-behind queue are not missed
+    @Value("${trust.dashboard.reseed-lag-ms:30000}")
+    private long reseedLagMs = 30000;
+
+    // All state below is guarded by this
+    private final Map<UUID, LatestScore> latestByUser = new HashMap<>();
+    private final long[] usersPerLevel = new long[RiskLevel.values().length];
+    private long scoreSum;
+    private long totalCalculations;
+    // History rows calculated before this have been counted (whole seconds)
+    private Instant watermark;
+    // Scores recorded by this node at or after the watermark, per epoch second of calculatedAt
+    private final NavigableMap<Long, Long> ownPerSecond = new TreeMap<>();
+
+    private volatile long totalUsers;
+    private volatile long totalUsersRefreshedAt;
+
+    /**
+     * Apply a newly calculated score
+     */
+    public synchronized void record(UUID userId, double score, RiskLevel level, Instant calculatedAt) {
+        totalCalculations++;
+        if (reseedEnabled && watermark != null && !calculatedAt.isBefore(watermark)) {
+            ownPerSecond.merge(calculatedAt.getEpochSecond(), 1L, Long::sum);
+        }
+        apply(new LatestScore(userId, score, level, calculatedAt));
+    }
+
+    /**
+     * Current aggregates; only reads the in-memory state (and the cached user count)
+     */
+    public DashboardSnapshot snapshot() {
+        long users = totalUsers();
+        synchronized (this) {
+            int scored = latestByUser.size();
+            return DashboardSnapshot.builder()
+                    .totalUsers(users)
+                    .scoredUsers(scored)
+                    .highRiskUsers(usersPerLevel[RiskLevel.HIGH.ordinal()])
+                    .mediumRiskUsers(usersPerLevel[RiskLevel.MEDIUM.ordinal()])
+                    .lowRiskUsers(usersPerLevel[RiskLevel.LOW.ordinal()])
+                    .averageTrustScore(scored == 0 ? 0.0 : scoreSum / SCORE_SCALE / scored)
+                    .totalScoreCalculations(totalCalculations)
+                    .build();
+        }
+    }
+
+    // Keeps the newer of the known and the incoming score for the user
+    private void apply(LatestScore incoming) {
+        LatestScore previous = latestByUser.get(incoming.getUserId());
+        if (previous != null) {
+            if (previous.getCalculatedAt().isAfter(incoming.getCalculatedAt())) {
+                return;
+            }
+            usersPerLevel[previous.getLevel().ordinal()]--;
+            scoreSum -= fixedPoint(previous.getScore());
+        }
+        latestByUser.put(incoming.getUserId(), incoming);
+        usersPerLevel[incoming.getLevel().ordinal()]++;
+        scoreSum += fixedPoint(incoming.getScore());
+    }
+
+    private void remove(UUID userId) {
+        LatestScore previous = latestByUser.remove(userId);
+        if (previous != null) {
+            usersPerLevel[previous.getLevel().ordinal()]--;
+            scoreSum -= fixedPoint(previous.getScore());
+        }
+    }
+
+    /**
+     * Seed from the whole history table, once at startup. Nothing records scores yet
+     * (the logging service depends on this bean), so the count cannot overlap with record().
+     * With the reseed on, rows from the lag window are left to the first reseed.
+     */
+    @PostConstruct
+    void seed() {
+        try {
+            Instant seedWatermark = reseedEnabled ? windowEnd() : null;
+            List<LatestScore> latest = historyRepository.findLatestPerUser();
+            long calculations = seedWatermark != null
+                    ? historyRepository.countByCalculatedAtBefore(seedWatermark)
+                    : historyRepository.count();
+            synchronized (this) {
+                latest.forEach(this::apply);
+                totalCalculations += calculations;
+                watermark = seedWatermark;
+                log.info("Dashboard aggregates seeded: {} scored users, {} calculations",
+                        latestByUser.size(), totalCalculations);
+            }
+        } catch (Exception e) {
+            log.error("Dashboard aggregate seed failed, starting from this node's scores only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merge the scores calculated since the previous reseed (by any replica) and drop deleted users
+     */
+    @Scheduled(fixedDelayString = "${trust.dashboard.reseed-ms:300000}")
+    public void reseed() {
+        if (!reseedEnabled) {
+            return;
+        }
+        try {
+            reseedWindow();
+        } catch (Exception e) {
+            log.error("Dashboard aggregate reseed failed: {}", e.getMessage());
+        }
+    }
+
+    private void reseedWindow() {
+        Instant from;
+        Set<UUID> known;
+        synchronized (this) {
+            from = watermark;
+            // Taken before the user ids are read, so a user created meanwhile is not taken for deleted
+            known = new HashSet<>(latestByUser.keySet());
+        }
+        Instant to = windowEnd();
+        // Nothing to merge if the startup seed failed or the lag window has not moved on yet
+        List<LatestScore> calculated = from != null && to.isAfter(from)
+                ? historyRepository.findCalculatedBetween(from, to)
+                : null;
+        known.removeAll(userRepository.findAllIds());
+
+        synchronized (this) {
+            if (calculated != null) {
+                calculated.forEach(this::apply);
+                // Rows beyond the ones recorded here came from other replicas
+                Map<Long, Long> own = ownPerSecond.headMap(to.getEpochSecond(), false);
+                long ownCount = own.values().stream().mapToLong(Long::longValue).sum();
+                own.clear();
+                totalCalculations += Math.max(0, calculated.size() - ownCount);
+                watermark = to;
+            }
+            known.forEach(this::remove);
+        }
+    }
+
+    // Whole seconds, matching the own-score buckets
+    private Instant windowEnd() {
+        return Instant.ofEpochSecond(Instant.now().minusMillis(reseedLagMs).getEpochSecond());
+    }
+
+    private long totalUsers() {
+        long now = System.currentTimeMillis();
+        if (now - totalUsersRefreshedAt > userCountRefreshMs) {
+            totalUsers = userRepository.count();
+            totalUsersRefreshedAt = now;
+        }
+        return totalUsers;
+    }
+
+    private static long fixedPoint(double score) {
+        return Math.round(score * SCORE_SCALE);
+    }
+
+    /**
+     * Dashboard aggregates DTO
+     */
+    @Builder
+    @Data
+    public static class DashboardSnapshot {
+        private long totalUsers;
+        private int scoredUsers;
+        private long highRiskUsers;
+        private long mediumRiskUsers;
+        private long lowRiskUsers;
+        private double averageTrustScore;
+        private long totalScoreCalculations;
+    }
+}
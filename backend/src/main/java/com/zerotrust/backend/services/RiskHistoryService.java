@@ -0,0 +1,86 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.dto.RiskHistoryEntry;
+import com.zerotrust.backend.dto.RiskHistoryPage;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated reads of a user's risk score history.
+ * Pages are ordered newest first on (calculatedAt, id); the cursor encodes the
+ * last row of the previous page, so every page costs one bounded index range scan.
+ */
+@Service
+@RequiredArgsConstructor
+public class RiskHistoryService {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    // Stand-ins for open time-range bounds
+    private static final Instant MIN_TIME = Instant.EPOCH;
+    private static final Instant MAX_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final RiskScoreHistoryRepository historyRepository;
+
+    /**
+     * One page of history within [from, to); from/to and cursor may be null
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public RiskHistoryPage page(UUID userId, Instant from, Instant to, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_LIMIT);
+        Instant lower = from != null ? from : MIN_TIME;
+        Instant upper = to != null ? to : MAX_TIME;
+
+        // One extra row tells whether another page exists
+        Limit fetch = Limit.of(pageSize + 1);
+        List<RiskHistoryEntry> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = historyRepository.findHistoryPage(userId, lower, upper, fetch);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = historyRepository.findHistoryPageAfter(userId, lower, upper, after.calculatedAt(), after.id(), fetch);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<RiskHistoryEntry> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? Cursor.of(items.get(items.size() - 1)).encode() : null;
+
+        return RiskHistoryPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private record Cursor(Instant calculatedAt, UUID id) {
+
+        static Cursor of(RiskHistoryEntry entry) {
+            return new Cursor(entry.getCalculatedAt(), entry.getId());
+        }
+
+        String encode() {
+            String raw = calculatedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.enums.RiskLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for risk_score_history.
+ * Score records are queued by the scoring paths and flushed by a dedicated writer
+ * thread as JDBC batch inserts, whenever a batch fills up or the flush interval
+ * elapses. When the queue is full, callers wait briefly and then write their record
+ * synchronously, so back-pressure alone never drops records. That write gets a single
+ * attempt so the caller never sleeps on a retry; if it fails the record is logged and
+ * counted as failed. On the writer thread a failed batch is retried once after a pause and
+ * then written row by row, so only rows the database itself rejects (e.g. for a user
+ * deleted meanwhile) are lost; they are logged and counted as failed. Record ids
+ * are assigned up front, so rows a failed batch already wrote are recognised as
+ * duplicates rather than written twice. The queue is drained on shutdown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskScoreHistoryWriter {
+
+    private static final String INSERT_SQL = """
+            insert into risk_score_history
+                (id, user_id, score, level, calculated_at, model_name, model_version, created_at, update_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trust.history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${trust.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trust.history.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // How long a producer waits for queue space before writing synchronously
+    @Value("${trust.history.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    // Pause before a failed batch is retried
+    @Value("${trust.history.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<PendingScore> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("trust.history.queue.depth", queue, BlockingQueue::size)
+                .description("Score records waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("trust.history.flush")
+                .description("Latency of one batch insert into risk_score_history")
+                .register(meterRegistry);
+        writtenCounter = meterRegistry.counter("trust.history.records.written");
+        failedCounter = meterRegistry.counter("trust.history.records.failed");
+        fallbackCounter = meterRegistry.counter("trust.history.backpressure.fallbacks");
+
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("risk-history-writer")
+                .daemon(true)
+                .start(this::runWriter);
+    }
+
+    /**
+     * Queue a score record for writing
+     *
+     * @param modelName    model family that produced the score
+     * @param modelVersion version id from the ModelRegistry
+     */
+    public void submit(UUID userId, double score, RiskLevel level, Instant calculatedAt,
+                       String modelName, String modelVersion) {
+        PendingScore record = new PendingScore(UUID.randomUUID(), userId, score, level, calculatedAt,
+                modelName, modelVersion);
+        if (running) {
+            try {
+                if (queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Queue saturated (or shutting down): the caller pays for its own insert
+        fallbackCounter.increment();
+        writeSynchronously(record);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("Risk score history writer stopped with {} records still queued", queue.size());
+        }
+    }
+
+    private void runWriter() {
+        List<PendingScore> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingScore first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the flush interval has elapsed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingScore next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Flush what we have and keep draining until the queue is empty
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingScore> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            log.warn("Batch of {} risk score history records failed, retrying: {}", batch.size(), e.getMessage());
+            retry(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // On the caller's thread: one attempt, no backoff or retries
+    private void writeSynchronously(PendingScore record) {
+        long start = System.nanoTime();
+        try {
+            insert(List.of(record));
+            writtenCounter.increment();
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Dropped risk score history record {} for user {} (synchronous fallback): {}",
+                    record.id(), record.userId(), e.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Writer thread only: one more batch attempt after a pause, then row by row so one bad row costs only itself
+    private void retry(List<PendingScore> batch) {
+        try {
+            Thread.sleep(retryBackoffMs);
+            insert(batch);
+            writtenCounter.increment(batch.size());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Retry of {} risk score history records failed, writing them one by one: {}",
+                    batch.size(), e.getMessage());
+        }
+        for (PendingScore record : batch) {
+            try {
+                insert(List.of(record));
+                writtenCounter.increment();
+            } catch (DuplicateKeyException e) {
+                // Already written by the failed batch
+                writtenCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Dropped risk score history record {} for user {}: {}",
+                        record.id(), record.userId(), e.getMessage());
+            }
+        }
+    }
+
+    private void insert(List<PendingScore> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+            ps.setObject(1, record.id());
+            ps.setObject(2, record.userId());
+            ps.setDouble(3, record.score());
+            ps.setString(4, record.level().name());
+            ps.setTimestamp(5, Timestamp.from(record.calculatedAt()));
+            ps.setString(6, record.modelName());
+            ps.setString(7, record.modelVersion());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+    }
+
+    public WriterStats stats() {
+        return WriterStats.builder()
+                .running(running)
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .recordsWritten((long) writtenCounter.count())
+                .recordsFailed((long) failedCounter.count())
+                .backpressureFallbacks((long) fallbackCounter.count())
+                .flushes(flushTimer.count())
+                .meanFlushMs(flushTimer.mean(TimeUnit.MILLISECONDS))
+                .maxFlushMs(flushTimer.max(TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    private record PendingScore(UUID id, UUID userId, double score, RiskLevel level, Instant calculatedAt,
+                                String modelName, String modelVersion) {
+    }
+
+    /**
+     * Write-behind pipeline statistics DTO
+     */
+    @Builder
+    @Data
+    public static class WriterStats {
+        private boolean running;
+        private int queueDepth;
+        private int queueCapacity;
+        private long recordsWritten;
+        private long recordsFailed;
+        private long backpressureFallbacks;
+        private long flushes;
+        private double meanFlushMs;
+        private double maxFlushMs;
+    }
+}
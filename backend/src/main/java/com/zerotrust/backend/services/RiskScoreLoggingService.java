@@ -1,7 +1,8 @@
 package com.zerotrust.backend.services;
 
 import com.zerotrust.backend.enums.RiskLevel;
-import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.services.cache.LatestRiskIndex;
+import com.zerotrust.backend.services.trust.ModelVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.zerotrust.backend.entities.*;
@@ -12,16 +13,18 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class RiskScoreLoggingService {
 
-    private final RiskScoreHistoryRepository historyRepository;
+    private final RiskScoreHistoryWriter historyWriter;
+    private final LatestRiskIndex latestRiskIndex;
+    private final DashboardAggregateService dashboardAggregates;
 
-    public void logScore(User user, double score, RiskLevel level) {
-        RiskScoreHistory history = RiskScoreHistory.builder()
-                .user(user)
-                .score(score)
-                .level(level)
-                .calculatedAt(Instant.now())
-                .build();
-        historyRepository.save(history);
+    /**
+     * @param modelName engine that produced the score (TrustScoringService.servingModelName)
+     */
+    public void logScore(User user, double score, RiskLevel level, ModelVersion version, String modelName) {
+        Instant calculatedAt = Instant.now();
+        // History row is written behind; the in-memory views reflect the score immediately
+        historyWriter.submit(user.getId(), score, level, calculatedAt, modelName, version.id());
+        latestRiskIndex.update(user.getEmail(), level);
+        dashboardAggregates.record(user.getId(), score, level, calculatedAt);
     }
 }
-
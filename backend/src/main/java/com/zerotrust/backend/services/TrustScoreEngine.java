@@ -3,54 +3,300 @@ package com.zerotrust.backend.services;
 import com.zerotrust.backend.dto.FeatureVector;
 import com.zerotrust.backend.enums.RiskLevel;
 import com.zerotrust.backend.repositories.*;
+import com.zerotrust.backend.services.cache.InferenceCache;
+import com.zerotrust.backend.services.cluster.RecomputeClusterCoordinator;
+import com.zerotrust.backend.services.cluster.UserIdRange;
 import com.zerotrust.backend.services.features.FeatureExtractionService;
+import com.zerotrust.backend.services.rescore.RescorePolicy;
+import com.zerotrust.backend.services.shadow.ShadowScoringService;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import lombok.Builder;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import com.zerotrust.backend.entities.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TrustScoreEngine {
 
     private final UserRepository userRepository;
-    private final DeviceRepository deviceRepository;
-    private final AccessEventRepository accessEventRepository;
 
     private final FeatureExtractionService featureService;
     private final TrustScoringService scoringService;
     private final RiskScoreLoggingService loggingService;
+    private final RescorePolicy rescorePolicy;
+    private final RecomputeClusterCoordinator clusterCoordinator;
+    private final ShadowScoringService shadowScoring;
+    private final InferenceCache inferenceCache;
 
-    @Scheduled(fixedRate = 300_000) // every 5 min
+    // Users loaded per keyset page; each page is one partition of work
+    @Value("${trust.recompute.page-size:500}")
+    private int pageSize;
+
+    // Maximum number of partitions scored concurrently
+    @Value("${trust.recompute.parallelism:4}")
+    private int parallelism;
+
+    // Only re-score users whose inputs changed or whose time-based features drifted (see RescorePolicy)
+    @Value("${trust.recompute.skip-unchanged:true}")
+    private boolean skipUnchanged;
+
+    private final AtomicBoolean passRunning = new AtomicBoolean(false);
+    private volatile RecomputeStats lastPassStats;
+
+    /**
+     * Periodic recompute of trust scores.
+     * Users are paged by id (keyset) and each page is scored on a bounded pool of
+     * virtual threads. Users whose score is still current are skipped.
+     * With trust.cluster.enabled each replica only pages through the id ranges it holds leases on.
+     * A pass is skipped if the previous one is still running.
+     */
+    @Scheduled(fixedDelayString = "${trust.recompute.interval-ms:300000}")
     public void computeAllTrustScores() throws Exception {
-        List<User> users = userRepository.findAll();
-        for(User user : users) {
-            computeTrustScoreForUser(user);
+        if (!passRunning.compareAndSet(false, true)) {
+            log.warn("Skipping trust recompute: previous pass is still running");
+            return;
+        }
+        try {
+            RecomputeStats stats = runPartitionedPass();
+            lastPassStats = stats;
+            log.info("Trust recompute pass finished: {} users scored, {} skipped in {} partitions ({} slots), "
+                            + "{} failed, {} ms ({} users/sec), reasons {}",
+                    stats.getUsersScored(), stats.getUsersSkipped(), stats.getPartitions(),
+                    stats.getSlots() == null ? "all" : stats.getSlots().size(), stats.getUsersFailed(),
+                    stats.getDurationMs(), Math.round(stats.getUsersPerSecond()), stats.getRescoreReasons());
+        } finally {
+            passRunning.set(false);
         }
     }
 
+    /**
+     * Statistics of the last completed recompute pass, or null before the first one
+     */
+    public RecomputeStats getLastPassStats() {
+        return lastPassStats;
+    }
+
+    public boolean isPassRunning() {
+        return passRunning.get();
+    }
+
+    private RecomputeStats runPartitionedPass() throws InterruptedException {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        AtomicLong scored = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        Map<RescorePolicy.Reason, AtomicLong> reasons = new ConcurrentHashMap<>();
+        int partitions = 0;
+
+        boolean clustered = clusterCoordinator.isEnabled();
+        // Without clustering the whole id space is a single slot
+        List<UserIdRange> ranges = clustered ? clusterCoordinator.ownedRanges() : List.of(UserIdRange.forSlot(0, 1));
+
+        // Closing the executor waits for all submitted partitions to finish
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UserIdRange range : ranges) {
+                List<User> page = firstPage(range);
+                while (!page.isEmpty()) {
+                    // Stop scoring a slot whose lease moved to another node mid-pass
+                    if (clustered && !clusterCoordinator.holds(range.slot())) {
+                        log.info("Lease on recompute slot {} lost, leaving it to its new owner", range.slot());
+                        break;
+                    }
+                    List<User> partition = page;
+                    // Blocks paging until a worker slot frees up, bounding users held in memory
+                    slots.acquire();
+                    workers.submit(() -> {
+                        try {
+                            scorePartition(partition, startedAt, scored, failed, skipped, reasons);
+                        } catch (Exception e) {
+                            // Nobody reads the future, so the failure is recorded here
+                            log.error("Failed to recompute a partition of {} users: {}", partition.size(), e.getMessage());
+                            failed.addAndGet(partition.size());
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                    partitions++;
+
+                    if (page.size() < pageSize) {
+                        break;
+                    }
+                    page = nextPage(range, page.get(page.size() - 1).getId());
+                }
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        double usersPerSecond = durationMs == 0 ? scored.get() : scored.get() * 1000.0 / durationMs;
+        Map<RescorePolicy.Reason, Long> reasonCounts = new EnumMap<>(RescorePolicy.Reason.class);
+        reasons.forEach((reason, count) -> reasonCounts.put(reason, count.get()));
+
+        return RecomputeStats.builder()
+                .startedAt(startedAt)
+                .partitions(partitions)
+                .usersScored(scored.get())
+                .usersFailed(failed.get())
+                .usersSkipped(skipped.get())
+                .slots(clustered ? ranges.stream().map(UserIdRange::slot).toList() : null)
+                .rescoreReasons(reasonCounts)
+                .durationMs(durationMs)
+                .usersPerSecond(usersPerSecond)
+                .build();
+    }
+
+    private List<User> firstPage(UserIdRange range) {
+        return userRepository.findByIdBetweenOrderByIdAsc(range.lowest(), range.highest(), Limit.of(pageSize));
+    }
+
+    private List<User> nextPage(UserIdRange range, UUID lastId) {
+        return userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(lastId, range.highest(), Limit.of(pageSize));
+    }
+
+    private void scorePartition(List<User> partition, Instant passStart, AtomicLong scored, AtomicLong failed,
+                                AtomicLong skipped, Map<RescorePolicy.Reason, AtomicLong> reasons) {
+        List<User> due = partition;
+        if (skipUnchanged) {
+            due = new ArrayList<>(partition.size());
+            for (User user : partition) {
+                RescorePolicy.Reason reason = rescorePolicy.reason(user, passStart);
+                if (reason != null) {
+                    due.add(user);
+                    reasons.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+                }
+            }
+            skipped.addAndGet(partition.size() - due.size());
+        }
+        int count = scoreUsers(due);
+        scored.addAndGet(count);
+        failed.addAndGet(due.size() - count);
+    }
+
+    /**
+     * Score a group of users with one feature query per table and one model call,
+     * then save them. Used by the recompute pass and the event-driven re-scoring pipeline.
+     *
+     * @return number of users scored (0 if the group failed)
+     */
+    public int scoreUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        // Stamped before the inputs are read, so a change committed while scoring counts as newer
+        Instant scoredAt = Instant.now();
+        Map<UUID, FeatureVector> features;
+        try {
+            // One aggregate round trip per table for the whole group
+            features = featureService.extractAll(users);
+        } catch (Exception e) {
+            log.error("Failed to extract features for {} users: {}", users.size(), e.getMessage());
+            return 0;
+        }
+
+        double[][] rows = new double[users.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = FeatureRows.toRow(features.get(users.get(i).getId()));
+        }
+
+        ModelVersion version;
+        double[] scores;
+        try {
+            // One model call for the group's cache misses, against one pinned model version
+            version = scoringService.activeVersion();
+            scores = inferenceCache.computeBatch(version, rows);
+        } catch (Exception e) {
+            log.error("Failed to score {} users: {}", users.size(), e.getMessage());
+            return 0;
+        }
+
+        for (int i = 0; i < scores.length; i++) {
+            applyScore(users.get(i), scores[i], scoredAt);
+        }
+        try {
+            userRepository.saveAll(users);
+        } catch (Exception e) {
+            log.error("Failed to save scores of {} users: {}", users.size(), e.getMessage());
+            return 0;
+        }
+        // History and the in-memory views only see scores the users table has
+        String modelName = scoringService.servingModelName(version);
+        users.forEach(user -> logScore(user, version, modelName));
+        // Candidate comparison runs on the shadow executor after the group is saved
+        shadowScoring.observe(version, rows, scores);
+        return users.size();
+    }
+
     /**
      * Compute trust score for a specific user (used during login)
      */
     public void computeTrustScoreForUser(User user) throws Exception {
-        List<Device> devices = deviceRepository.findByUser(user);
-        List<AccessEvent> events = accessEventRepository.findByUser(user);
+        Instant scoredAt = Instant.now();
+        FeatureVector features = featureService.extractIncremental(user);
+        ModelVersion version = scoringService.activeVersion();
+        double score = inferenceCache.compute(version, features);
+        applyScore(user, score, scoredAt);
+        userRepository.save(user);
+        logScore(user, version, scoringService.servingModelName(version));
+        // Off the login's critical path: at most a queue offer
+        shadowScoring.observe(version, features, score);
+    }
 
-        FeatureVector features = featureService.extract(user, events, devices);
-        double score = scoringService.compute(features);
+    // scoredAt is when the score's inputs were read, not when it was saved
+    private void applyScore(User user, double score, Instant scoredAt) {
         RiskLevel risk = scoringService.risk(score);
-        
+
         // Update user with new score and risk level
         user.setTrustScore(score);
         user.setCurrentRiskLevel(risk);
-        userRepository.save(user);
-        
-        // Log the score
-        loggingService.logScore(user, score, risk);
+        user.setScoredAt(scoredAt);
 
-        System.out.println("User: " + user.getEmail() + " | Score: " + score + " | Risk: " + risk);
+        log.debug("User: {} | Score: {} | Risk: {}", user.getEmail(), score, risk);
     }
-}
 
+    // Once the user is saved: history row, latest-risk index and dashboard aggregates
+    private void logScore(User user, ModelVersion version, String modelName) {
+        loggingService.logScore(user, user.getTrustScore(), user.getCurrentRiskLevel(), version, modelName);
+    }
+
+    /**
+     * Per-pass recompute statistics
+     */
+    @Builder
+    @Data
+    public static class RecomputeStats {
+        private Instant startedAt;
+        private int partitions;
+        // Recompute slots scored by this node, null when clustering is off
+        private List<Integer> slots;
+        private long usersScored;
+        private long usersFailed;
+        // Users whose score was still current
+        private long usersSkipped;
+        private Map<RescorePolicy.Reason, Long> rescoreReasons;
+        private long durationMs;
+        private double usersPerSecond;
+    }
+}
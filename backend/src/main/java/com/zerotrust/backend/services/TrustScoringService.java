@@ -1,19 +1,89 @@
 package com.zerotrust.backend.services;
 
 import com.zerotrust.backend.dto.FeatureVector;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
 import com.zerotrust.backend.services.trust.TrustModel;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.zerotrust.backend.enums.RiskLevel;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TrustScoringService {
 
-    private final TrustModel trustModel;
+    private final ModelRegistry modelRegistry;
+
+    // "compiled" (flattened forest), "weka" (generic classifyInstance path),
+    // "gbdt" (boosted shallow trees) or "linear" (ridge regression); a version without the
+    // engine (e.g. loaded from the Weka model file) scores with its forest, which is logged
+    @Value("${trust.model.engine:compiled}")
+    private String engine = "compiled";
+
+    // Version the missing engine was last logged for, so the error is logged once per version
+    private final AtomicReference<String> missingEngineLogged = new AtomicReference<>();
 
     public double compute(FeatureVector features) throws Exception {
-        return trustModel.score(features);
+        return compute(activeVersion(), features);
+    }
+
+    public double compute(ModelVersion version, FeatureVector features) throws Exception {
+        return scorer(version).score(features);
+    }
+
+    /**
+     * Score a page of feature rows in one call (layout: FeatureRows)
+     */
+    public double[] computeBatch(double[][] rows) throws Exception {
+        return computeBatch(activeVersion(), rows);
+    }
+
+    /**
+     * Score a page of rows against one pinned version, so every score can be attributed to it
+     */
+    public double[] computeBatch(ModelVersion version, double[][] rows) throws Exception {
+        return scorer(version).scoreBatch(rows);
+    }
+
+    /**
+     * Model of the version that serves scores under the configured engine
+     */
+    public TrustModel scorer(ModelVersion version) {
+        if (!version.hasEngine(engine) && !version.id().equals(missingEngineLogged.getAndSet(version.id()))) {
+            log.error("Model version {} has no {} engine (trust.model.engine); scoring with its forest instead",
+                    version.id(), engine);
+        }
+        return version.scorer(engine);
+    }
+
+    /**
+     * Model name stamped into risk_score_history for scores of the version: the trained
+     * engine that serves them (e.g. "gbdt"), or the version's name when its forest does
+     */
+    public String servingModelName(ModelVersion version) {
+        return version.scorer(engine) == version.engines().get(engine) ? engine : version.name();
+    }
+
+    public String engine() {
+        return engine;
+    }
+
+    /**
+     * Version new scores are computed with
+     *
+     * @throws IllegalStateException if no model has been trained or loaded yet
+     */
+    public ModelVersion activeVersion() {
+        ModelVersion version = modelRegistry.active();
+        if (version == null) {
+            throw new IllegalStateException("Model not trained. Please train the model first.");
+        }
+        return version;
     }
 
     public RiskLevel risk(double score) {
@@ -22,4 +92,3 @@ public class TrustScoringService {
         return RiskLevel.LOW;
     }
 }
-
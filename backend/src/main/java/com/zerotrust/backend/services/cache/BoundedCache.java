@@ -0,0 +1,197 @@
+package com.zerotrust.backend.services.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded concurrent cache with optional time-to-live.
+ * Reads are lock-free. When the size limit is exceeded, one writer trims the
+ * cache to 90% of its capacity, dropping expired entries first and then
+ * arbitrary ones (hash order). There is no per-entry bookkeeping.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize    maximum number of entries
+     * @param ttlSeconds entry lifetime in seconds, 0 for no expiry
+     */
+    public BoundedCache(int maxSize, long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Cached value, or the loader's result (cached unless null) on a miss
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Live value for the key, or the factory's result stored atomically if there is none.
+     * The factory runs under the map's lock for the key and must be cheap.
+     */
+    public V computeIfAbsent(K key, Function<K, V> factory) {
+        long now = System.nanoTime();
+        boolean[] created = new boolean[1];
+        Entry<V> entry = entries.compute(key, (k, current) -> {
+            if (current != null && !current.isExpired(now)) {
+                return current;
+            }
+            created[0] = true;
+            return new Entry<>(factory.apply(k), ttlNanos > 0 ? now + ttlNanos : Long.MAX_VALUE);
+        });
+        if (created[0]) {
+            misses.increment();
+            if (entries.size() > maxSize) {
+                evict();
+            }
+        } else {
+            hits.increment();
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * Put with an explicit lifetime, capped by the cache's own time-to-live
+     */
+    public void put(K key, V value, long ttlNanos) {
+        long lifetime = this.ttlNanos > 0 ? Math.min(ttlNanos, this.ttlNanos) : ttlNanos;
+        long expiresAt = lifetime > 0 ? System.nanoTime() + lifetime : Long.MAX_VALUE;
+        entries.put(key, new Entry<>(value, expiresAt));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Store the value only if the key has no live entry; returns the value that is cached afterwards.
+     * Lets a loader's possibly stale result lose against a concurrent {@link #put}.
+     */
+    public V putIfAbsent(K key, V value, long ttlNanos) {
+        long lifetime = this.ttlNanos > 0 ? Math.min(ttlNanos, this.ttlNanos) : ttlNanos;
+        long now = System.nanoTime();
+        Entry<V> entry = entries.compute(key, (k, current) -> current != null && !current.isExpired(now)
+                ? current
+                : new Entry<>(value, lifetime > 0 ? now + lifetime : Long.MAX_VALUE));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return entry.value;
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxSize - maxSize / 10;
+            if (ttlNanos > 0) {
+                long now = System.nanoTime();
+                Iterator<Entry<V>> values = entries.values().iterator();
+                while (values.hasNext()) {
+                    if (values.next().isExpired(now)) {
+                        values.remove();
+                        evictions.increment();
+                    }
+                }
+            }
+            Iterator<K> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return Stats.builder()
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.sum())
+                .hitRatio(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .build();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+
+    /**
+     * Cache statistics DTO
+     */
+    @Builder
+    @Data
+    public static class Stats {
+        private int size;
+        private int maxSize;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private double hitRatio;
+    }
+}
@@ -0,0 +1,257 @@
+package com.zerotrust.backend.services.cache;
+
+import com.zerotrust.backend.dto.FeatureVector;
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.CompiledForestModel;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.GradientBoostedModel;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import com.zerotrust.backend.services.trust.SplitQuantizer;
+import com.zerotrust.backend.services.trust.WekaForestModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scores of the active model version memoized by quantized feature row.
+ * Rows are reduced to the split resolution of the tree ensemble that serves scores (forest or
+ * boosted trees, see SplitQuantizer), so a hit returns exactly the score the model would compute;
+ * users whose features moved within the same split interval since the last pass are served
+ * without walking the trees. The linear engine has no such intervals and is never cached.
+ * Keys carry the version id, so a swapped-out version is never served; its entries are
+ * dropped on the first call after another version becomes active.
+ * Only the active version is cached; other versions (the shadow candidate) are scored directly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InferenceCache {
+
+    private final ModelRegistry modelRegistry;
+    private final TrustScoringService scoringService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trust.inference-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${trust.inference-cache.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    private BoundedCache<QuantizedRow, Double> scores;
+
+    // Quantizer of the version the cache currently holds scores for
+    private volatile Quantized current;
+
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder missRows = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    private record Quantized(ModelVersion version, SplitQuantizer quantizer) {
+    }
+
+    @PostConstruct
+    void start() {
+        scores = new BoundedCache<>(maxEntries, 0);
+        FunctionCounter.builder("trust.inference.cache.hits", this, c -> c.scores.stats().getHits())
+                .description("Rows scored from the inference cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("trust.inference.cache.misses", this, c -> c.scores.stats().getMisses())
+                .description("Rows scored by the model")
+                .register(meterRegistry);
+        Gauge.builder("trust.inference.cache.hit.ratio", this, c -> c.scores.stats().getHitRatio())
+                .register(meterRegistry);
+        Gauge.builder("trust.inference.cache.size", this, c -> c.scores.size())
+                .register(meterRegistry);
+        FunctionCounter.builder("trust.inference.cache.saved", savedNanos,
+                        saved -> saved.sum() / (double) TimeUnit.SECONDS.toNanos(1))
+                .description("Model inference time avoided by hits, at the mean per-row cost of misses")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Score one row with the given version, from the cache when possible
+     */
+    public double compute(ModelVersion version, FeatureVector features) throws Exception {
+        return computeBatch(version, new double[][]{FeatureRows.toRow(features)})[0];
+    }
+
+    /**
+     * Score a page of rows (layout: FeatureRows) with the given version; only cache misses
+     * reach the model, in one batch call
+     */
+    public double[] computeBatch(ModelVersion version, double[][] rows) throws Exception {
+        Quantized quantized = enabled ? quantizedFor(version) : null;
+        if (quantized == null) {
+            return scoringService.computeBatch(version, rows);
+        }
+
+        double[] results = new double[rows.length];
+        QuantizedRow[] keys = new QuantizedRow[rows.length];
+        int[] missing = new int[rows.length];
+        int misses = 0;
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = new QuantizedRow(version.id(), quantized.quantizer().buckets(rows[i]));
+            Double cached = scores.get(keys[i]);
+            if (cached != null) {
+                results[i] = cached;
+            } else {
+                missing[misses++] = i;
+            }
+        }
+        int hits = rows.length - misses;
+        if (misses > 0) {
+            double[][] missRowsBatch = new double[misses][];
+            for (int m = 0; m < misses; m++) {
+                missRowsBatch[m] = rows[missing[m]];
+            }
+            long start = System.nanoTime();
+            double[] computed = scoringService.computeBatch(version, missRowsBatch);
+            missNanos.add(System.nanoTime() - start);
+            missRows.add(misses);
+            for (int m = 0; m < misses; m++) {
+                results[missing[m]] = computed[m];
+                scores.put(keys[missing[m]], computed[m]);
+            }
+        }
+        if (hits > 0) {
+            long rowsScored = missRows.sum();
+            if (rowsScored > 0) {
+                savedNanos.add((long) (hits * ((double) missNanos.sum() / rowsScored)));
+            }
+        }
+        return results;
+    }
+
+    public void clear() {
+        scores.clear();
+    }
+
+    public InferenceCacheStats stats() {
+        BoundedCache.Stats cacheStats = scores.stats();
+        Quantized quantized = current;
+        long rowsScored = missRows.sum();
+        return InferenceCacheStats.builder()
+                .enabled(enabled)
+                .modelVersion(quantized == null ? null : quantized.version().id())
+                .engine(scoringService.engine())
+                .cacheable(quantized != null && quantized.quantizer() != null)
+                .size(cacheStats.getSize())
+                .maxSize(cacheStats.getMaxSize())
+                .hits(cacheStats.getHits())
+                .misses(cacheStats.getMisses())
+                .hitRatio(cacheStats.getHitRatio())
+                .evictions(cacheStats.getEvictions())
+                .invalidations(invalidations.sum())
+                .inferenceNanosPerRow(rowsScored == 0 ? 0 : (double) missNanos.sum() / rowsScored)
+                .savedMs(savedNanos.sum() / 1_000_000)
+                .build();
+    }
+
+    // Quantizer for the version if it is active and tree-based, rebuilding (and clearing) on a model swap
+    private Quantized quantizedFor(ModelVersion version) {
+        if (version != modelRegistry.active()) {
+            return null;
+        }
+        Quantized quantized = current;
+        if (quantized == null || quantized.version() != version) {
+            quantized = swapTo(version);
+        }
+        return quantized.quantizer() == null ? null : quantized;
+    }
+
+    private synchronized Quantized swapTo(ModelVersion version) {
+        Quantized quantized = current;
+        if (quantized != null && quantized.version() == version) {
+            return quantized;
+        }
+        if (quantized != null) {
+            // Old entries can never match again (the key holds the version); free them now
+            scores.clear();
+            invalidations.increment();
+        }
+        quantized = new Quantized(version, quantizer(version));
+        current = quantized;
+        log.info("Inference cache now serves model version {}{}", version.id(),
+                quantized.quantizer() == null ? " (not cacheable with this engine)" : "");
+        return quantized;
+    }
+
+    private SplitQuantizer quantizer(ModelVersion version) {
+        return switch (scoringService.scorer(version)) {
+            case GradientBoostedModel boosted -> SplitQuantizer.of(boosted);
+            case CompiledForestModel compiled -> SplitQuantizer.of(compiled);
+            // Same forest as the compiled form, walked by Weka
+            case WekaForestModel ignored -> version.compiled() == null ? null : SplitQuantizer.of(version.compiled());
+            default -> null;
+        };
+    }
+
+    /**
+     * Cache key: model version and the bucket of every feature
+     */
+    private static final class QuantizedRow {
+
+        private final String versionId;
+        private final int[] buckets;
+        private final int hash;
+
+        QuantizedRow(String versionId, int[] buckets) {
+            this.versionId = versionId;
+            this.buckets = buckets;
+            this.hash = 31 * versionId.hashCode() + Arrays.hashCode(buckets);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof QuantizedRow row
+                    && hash == row.hash
+                    && Arrays.equals(buckets, row.buckets)
+                    && versionId.equals(row.versionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Inference cache statistics DTO
+     */
+    @Builder
+    @Data
+    public static class InferenceCacheStats {
+        private boolean enabled;
+        // Version the cached scores belong to
+        private String modelVersion;
+        private String engine;
+        // False when the engine is not tree-based and every row is scored by the model
+        private boolean cacheable;
+        private int size;
+        private int maxSize;
+        private long hits;
+        private long misses;
+        private double hitRatio;
+        private long evictions;
+        // Times the cache was cleared because another version became active
+        private long invalidations;
+        // Mean model cost of a missed row
+        private double inferenceNanosPerRow;
+        // Inference time avoided by hits, at that mean cost
+        private long savedMs;
+    }
+}
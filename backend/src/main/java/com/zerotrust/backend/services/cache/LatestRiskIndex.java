@@ -0,0 +1,75 @@
+package com.zerotrust.backend.services.cache;
+
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * In-memory index of the latest risk level per user email.
+ * Written through by the scoring pipeline whenever a score is logged and loaded
+ * lazily from risk_score_history on a miss. Users without any history are cached
+ * too (as empty) so unknown principals do not hit the database on every request.
+ * A value loaded on a miss never replaces one written by {@link #update} meanwhile.
+ * Only HIGH entries keep the full time-to-live: any other level may be stale (history
+ * rows are written behind, and other replicas score users without telling this one),
+ * so it is re-read after a short lifetime rather than letting a HIGH user through.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatestRiskIndex {
+
+    private final RiskScoreHistoryRepository historyRepository;
+
+    @Value("${trust.risk-index.max-entries:100000}")
+    private int maxEntries;
+
+    // Bounds staleness for history rows written outside the scoring pipeline
+    @Value("${trust.risk-index.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    // Lifetime of entries that let a user through (anything but HIGH)
+    @Value("${trust.risk-index.allow-ttl-seconds:15}")
+    private long allowTtlSeconds;
+
+    private BoundedCache<String, Optional<RiskLevel>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxEntries, ttlSeconds);
+    }
+
+    /**
+     * Latest risk level of the user, or null if the user has never been scored
+     */
+    public RiskLevel latest(String email) {
+        Optional<RiskLevel> level = cache.get(email);
+        if (level == null) {
+            RiskScoreHistory latest = historyRepository.findTopByUserEmailOrderByCalculatedAtDesc(email);
+            Optional<RiskLevel> loaded = Optional.ofNullable(latest).map(RiskScoreHistory::getLevel);
+            level = cache.putIfAbsent(email, loaded, ttlNanos(loaded.orElse(null)));
+        }
+        return level.orElse(null);
+    }
+
+    public void update(String email, RiskLevel level) {
+        cache.put(email, Optional.of(level), ttlNanos(level));
+    }
+
+    private long ttlNanos(RiskLevel level) {
+        return (level == RiskLevel.HIGH ? ttlSeconds : allowTtlSeconds) * 1_000_000_000L;
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,261 @@
+package com.zerotrust.backend.services.cluster;
+
+import com.zerotrust.backend.entities.ClusterNode;
+import com.zerotrust.backend.entities.RecomputeLease;
+import com.zerotrust.backend.repositories.ClusterNodeRepository;
+import com.zerotrust.backend.repositories.RecomputeLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the periodic trust recompute across backend replicas.
+ * The user id space is cut into a fixed number of slots (see UserIdRange), each
+ * guarded by a row in recompute_leases. Every node heartbeats into recompute_nodes,
+ * renews its leases and moves towards a fair share of ceil(slots / live nodes):
+ * surplus slots are released, missing ones claimed with a conditional update.
+ * When a node stops its leases expire and the others pick them up.
+ * Heartbeats run on their own thread so a long recompute pass cannot starve them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecomputeClusterCoordinator {
+
+    private final RecomputeLeaseRepository leaseRepository;
+    private final ClusterNodeRepository nodeRepository;
+
+    @Value("${trust.cluster.enabled:false}")
+    private boolean enabled;
+
+    // Defaults to host name and process id, so several JVMs on one host stay distinct
+    @Value("${trust.cluster.node-id:}")
+    private String nodeId;
+
+    // Must be identical on every node
+    @Value("${trust.cluster.slots:64}")
+    private int slots;
+
+    @Value("${trust.cluster.heartbeat-ms:5000}")
+    private long heartbeatMs;
+
+    // A node missing heartbeats for this long is considered gone and its leases free
+    @Value("${trust.cluster.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    // Replaced in tests to drive lease expiry without sleeping
+    private Clock clock = Clock.systemUTC();
+
+    private ScheduledExecutorService heartbeater;
+    private volatile Set<Integer> ownedSlots = Set.of();
+    // Local deadline of the current leases; slots are not scored past it without a renewal
+    private volatile Instant ownedUntil = Instant.EPOCH;
+    private volatile long liveNodes;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        join();
+        heartbeater = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("recompute-cluster").daemon(true).factory());
+        heartbeater.scheduleWithFixedDelay(this::heartbeatSafely, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    void join() {
+        if (slots < 1 || slots > UserIdRange.MAX_SLOTS) {
+            throw new IllegalStateException("trust.cluster.slots must be between 1 and " + UserIdRange.MAX_SLOTS);
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        ensureSlots();
+        Instant now = clock.instant();
+        nodeRepository.save(ClusterNode.builder().nodeId(nodeId).startedAt(now).heartbeatAt(now).build());
+        log.info("Recompute cluster node {} joined ({} slots)", nodeId, slots);
+    }
+
+    /**
+     * Hand the slots back and leave, so the remaining nodes rebalance without waiting for expiry
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (heartbeater != null) {
+            heartbeater.shutdown();
+            heartbeater.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (!enabled) {
+            return;
+        }
+        try {
+            leave();
+        } catch (Exception e) {
+            log.warn("Failed to release recompute leases of {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    void leave() {
+        List<Integer> mine = leaseRepository.findSlotsOwnedBy(nodeId, slots);
+        if (!mine.isEmpty()) {
+            leaseRepository.release(nodeId, mine);
+        }
+        nodeRepository.deleteById(nodeId);
+        ownedSlots = Set.of();
+        ownedUntil = Instant.EPOCH;
+    }
+
+    private void heartbeatSafely() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            log.error("Recompute cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Announce this node, renew its leases and rebalance towards a fair share
+     */
+    void heartbeat() {
+        Instant now = clock.instant();
+        Instant until = now.plusMillis(leaseTtlMs);
+
+        ClusterNode node = nodeRepository.findById(nodeId)
+                .orElseGet(() -> ClusterNode.builder().nodeId(nodeId).startedAt(now).build());
+        node.setHeartbeatAt(now);
+        nodeRepository.save(node);
+        leaseRepository.renew(nodeId, until);
+
+        long live = Math.max(1, nodeRepository.countByHeartbeatAtAfter(now.minusMillis(leaseTtlMs)));
+        int fairShare = (int) ((slots + live - 1) / live);
+
+        List<Integer> mine = new ArrayList<>(leaseRepository.findSlotsOwnedBy(nodeId, slots));
+        if (mine.size() > fairShare) {
+            List<Integer> surplus = new ArrayList<>(mine.subList(fairShare, mine.size()));
+            leaseRepository.release(nodeId, surplus);
+            mine.removeAll(surplus);
+            log.info("Node {} released {} slots ({} live nodes)", nodeId, surplus.size(), live);
+        } else if (mine.size() < fairShare) {
+            int claimed = 0;
+            for (Integer slot : leaseRepository.findClaimableSlots(slots, now)) {
+                if (mine.size() >= fairShare) {
+                    break;
+                }
+                if (leaseRepository.tryClaim(slot, nodeId, now, until) == 1) {
+                    mine.add(slot);
+                    claimed++;
+                }
+            }
+            if (claimed > 0) {
+                log.info("Node {} claimed {} slots, now owns {} ({} live nodes)", nodeId, claimed, mine.size(), live);
+            }
+        }
+
+        // Claiming slot by slot can take a while; extend everything from the end of the pass,
+        // otherwise a heartbeat slower than the TTL would hold leases that already lapsed
+        Instant renewedAt = clock.instant();
+        Instant renewedUntil = renewedAt.plusMillis(leaseTtlMs);
+        if (!mine.isEmpty() && leaseRepository.renew(nodeId, renewedUntil) != mine.size()) {
+            // Some lease lapsed and was taken over during the pass
+            mine = new ArrayList<>(leaseRepository.findSlotsOwnedBy(nodeId, slots));
+        }
+
+        ownedSlots = Set.copyOf(mine);
+        // Leave a heartbeat of margin so a slow renewal never overlaps with a new owner
+        ownedUntil = renewedUntil.minusMillis(heartbeatMs);
+        liveNodes = live;
+
+        nodeRepository.deleteStale(now.minusMillis(leaseTtlMs * 10));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Whether this node may still score the slot
+     */
+    public boolean holds(int slot) {
+        return clock.instant().isBefore(ownedUntil) && ownedSlots.contains(slot);
+    }
+
+    /**
+     * Id ranges of the slots this node currently owns, in slot order
+     */
+    public List<UserIdRange> ownedRanges() {
+        if (!clock.instant().isBefore(ownedUntil)) {
+            return List.of();
+        }
+        return ownedSlots.stream().sorted().map(slot -> UserIdRange.forSlot(slot, slots)).toList();
+    }
+
+    private void ensureSlots() {
+        Set<Integer> existing = new HashSet<>(leaseRepository.findAllSlots());
+        for (int slot = 0; slot < slots; slot++) {
+            if (existing.contains(slot)) {
+                continue;
+            }
+            try {
+                leaseRepository.saveAndFlush(RecomputeLease.builder().slot(slot).build());
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it concurrently
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    public ClusterStats stats() {
+        return ClusterStats.builder()
+                .enabled(enabled)
+                .nodeId(nodeId)
+                .liveNodes(liveNodes)
+                .totalSlots(slots)
+                .ownedSlots(ownedSlots.stream().sorted().toList())
+                .leaseValidUntil(enabled ? ownedUntil : null)
+                .build();
+    }
+
+    /**
+     * Recompute cluster membership DTO
+     */
+    @Builder
+    @Data
+    public static class ClusterStats {
+        private boolean enabled;
+        private String nodeId;
+        private long liveNodes;
+        private int totalSlots;
+        private List<Integer> ownedSlots;
+        private Instant leaseValidUntil;
+    }
+}
@@ -0,0 +1,28 @@
+package com.zerotrust.backend.services.cluster;
+
+import java.util.UUID;
+
+/**
+ * Inclusive range of user ids covered by one recompute slot.
+ * Slots split the space on the top 16 bits of the id; user ids are random UUIDs,
+ * so every slot holds roughly the same share of users. Bounds compare as unsigned
+ * bytes, which is how PostgreSQL orders uuid columns.
+ */
+public record UserIdRange(int slot, UUID lowest, UUID highest) {
+
+    public static final int MAX_SLOTS = 1 << 16;
+
+    public static UserIdRange forSlot(int slot, int slots) {
+        if (slots < 1 || slots > MAX_SLOTS || slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException("Invalid slot " + slot + " of " + slots);
+        }
+        long lowMsb = prefix(slot, slots) << 48;
+        // For the last slot the shift wraps to 0 and the subtraction yields all ones
+        long highMsb = (prefix(slot + 1, slots) << 48) - 1;
+        return new UserIdRange(slot, new UUID(lowMsb, 0L), new UUID(highMsb, -1L));
+    }
+
+    private static long prefix(int slot, int slots) {
+        return (long) slot * MAX_SLOTS / slots;
+    }
+}
@@ -0,0 +1,194 @@
+package com.zerotrust.backend.services.export;
+
+import com.zerotrust.backend.dto.AccessEventExportRow;
+import com.zerotrust.backend.dto.RiskHistoryExportRow;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming exports of risk_score_history and access_events.
+ * Rows are read through a forward-only cursor (repository Stream with a fetch size)
+ * as projections, so nothing accumulates in the persistence context, and written
+ * one at a time; memory use does not depend on the number of rows exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Stand-ins for open time-range bounds
+    private static final Instant MIN_TIME = Instant.EPOCH;
+    private static final Instant MAX_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    private static final List<Column<RiskHistoryExportRow>> HISTORY_COLUMNS = List.of(
+            new Column<>("id", RiskHistoryExportRow::getId),
+            new Column<>("userId", RiskHistoryExportRow::getUserId),
+            new Column<>("score", RiskHistoryExportRow::getScore),
+            new Column<>("level", RiskHistoryExportRow::getLevel),
+            new Column<>("calculatedAt", RiskHistoryExportRow::getCalculatedAt),
+            new Column<>("modelName", RiskHistoryExportRow::getModelName),
+            new Column<>("modelVersion", RiskHistoryExportRow::getModelVersion));
+
+    private static final List<Column<AccessEventExportRow>> EVENT_COLUMNS = List.of(
+            new Column<>("id", AccessEventExportRow::getId),
+            new Column<>("userId", AccessEventExportRow::getUserId),
+            new Column<>("deviceId", AccessEventExportRow::getDeviceId),
+            new Column<>("timestamp", AccessEventExportRow::getTimestamp),
+            new Column<>("ipAddress", AccessEventExportRow::getIpAddress),
+            new Column<>("networkType", AccessEventExportRow::getNetworkType),
+            new Column<>("country", AccessEventExportRow::getCountry),
+            new Column<>("city", AccessEventExportRow::getCity),
+            new Column<>("hourOfDay", AccessEventExportRow::getHourOfDay),
+            new Column<>("weekend", AccessEventExportRow::isWeekend),
+            new Column<>("resource", AccessEventExportRow::getResource),
+            new Column<>("sessionId", AccessEventExportRow::getSessionId),
+            new Column<>("userAgent", AccessEventExportRow::getUserAgent),
+            new Column<>("success", AccessEventExportRow::isSuccess),
+            new Column<>("eventRiskScore", AccessEventExportRow::getEventRiskScore));
+
+    private final RiskScoreHistoryRepository historyRepository;
+    private final AccessEventRepository accessEventRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write risk_score_history rows calculated within [from, to) to the output
+     *
+     * @return number of rows written
+     */
+    public long exportRiskHistory(ExportFormat format, boolean gzip, Instant from, Instant to, OutputStream out)
+            throws IOException {
+        return export("risk_score_history", format, gzip, out, HISTORY_COLUMNS,
+                () -> historyRepository.streamForExport(lower(from), upper(to)));
+    }
+
+    /**
+     * Write access_events rows with a timestamp within [from, to) to the output
+     *
+     * @return number of rows written
+     */
+    public long exportAccessEvents(ExportFormat format, boolean gzip, Instant from, Instant to, OutputStream out)
+            throws IOException {
+        return export("access_events", format, gzip, out, EVENT_COLUMNS,
+                () -> accessEventRepository.streamForExport(lower(from), upper(to)));
+    }
+
+    private <T> long export(String table, ExportFormat format, boolean gzip, OutputStream target,
+                            List<Column<T>> columns, Supplier<Stream<T>> query) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = gzip
+                ? new GZIPOutputStream(target, BUFFER_SIZE)
+                : new BufferedOutputStream(target, BUFFER_SIZE);
+
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(out, columns.stream().map(Column::name).map(Object.class::cast).toList());
+        }
+
+        // PostgreSQL only streams with a cursor inside a transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long rows;
+        try {
+            rows = readOnly.execute(status -> {
+                long written = 0;
+                try (Stream<T> stream = query.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        T row = iterator.next();
+                        if (format == ExportFormat.CSV) {
+                            writeCsvLine(out, columns.stream().map(column -> column.value().apply(row)).toList());
+                        } else {
+                            out.write(objectMapper.writeValueAsBytes(row));
+                            out.write('\n');
+                        }
+                        written++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return written;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        out.flush();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Exported {} rows from {} as {}{} in {} ms", rows, table, format, gzip ? " (gzip)" : "", durationMs);
+        return rows == null ? 0 : rows;
+    }
+
+    private static void writeCsvLine(OutputStream out, List<Object> values) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendCsvField(line, values.get(i));
+        }
+        line.append('\n');
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    static void appendCsvField(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static Instant lower(Instant from) {
+        return from != null ? from : MIN_TIME;
+    }
+
+    private static Instant upper(Instant to) {
+        return to != null ? to : MAX_TIME;
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.zerotrust.backend.services.features;
+
+import com.zerotrust.backend.entities.AccessEvent;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener folding every persisted access event into the incremental feature state.
+ * The bulk ingest path writes through JDBC and records its rows itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessEventListener {
+
+    // Optional so slices without the feature store can still persist events
+    private final ObjectProvider<FeatureStateStore> featureStateStore;
+
+    @PostPersist
+    void onEventPersisted(AccessEvent event) {
+        featureStateStore.ifAvailable(store -> store.record(event));
+    }
+}
@@ -1,24 +1,120 @@
 package com.zerotrust.backend.services.features;
 
+import com.zerotrust.backend.dto.DeviceAggregate;
+import com.zerotrust.backend.dto.EventAggregate;
 import com.zerotrust.backend.dto.FeatureVector;
 import com.zerotrust.backend.entities.AccessEvent;
 import com.zerotrust.backend.entities.Device;
 import com.zerotrust.backend.entities.User;
 import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.repositories.DeviceRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class FeatureExtractionService {
 
     private static final double DEFAULT_NETWORK_RISK_SCORE = 30.0;
 
+    private final AccessEventRepository accessEventRepository;
+    private final DeviceRepository deviceRepository;
+    private final FeatureStateStore featureStateStore;
+
+    /**
+     * Extraction for a single user (login path): event features come from the
+     * incremental store, device features from one aggregate query.
+     */
+    public FeatureVector extractIncremental(User user) {
+        Instant now = Instant.now();
+        EventAggregate events = featureStateStore.snapshot(user, now);
+        List<DeviceAggregate> devices = deviceRepository.aggregateByUserIds(List.of(user.getId()));
+        return extract(
+                user,
+                events,
+                devices.isEmpty() ? DeviceAggregate.empty(user.getId()) : devices.get(0),
+                now);
+    }
+
+    /**
+     * Bulk extraction for a page of users: two GROUP BY queries (events, devices)
+     * instead of two entity loads per user. Produces the same vectors as
+     * {@link #extract(User, List, List)}.
+     */
+    public Map<UUID, FeatureVector> extractAll(List<User> users) {
+        Instant now = Instant.now();
+        List<UUID> userIds = users.stream().map(User::getId).toList();
+
+        Map<UUID, EventAggregate> events = accessEventRepository
+                .aggregateByUserIds(userIds, now.minusSeconds(86400)).stream()
+                .collect(Collectors.toMap(EventAggregate::getUserId, Function.identity()));
+        Map<UUID, DeviceAggregate> devices = deviceRepository
+                .aggregateByUserIds(userIds).stream()
+                .collect(Collectors.toMap(DeviceAggregate::getUserId, Function.identity()));
+
+        Map<UUID, FeatureVector> features = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            UUID id = user.getId();
+            features.put(id, extract(
+                    user,
+                    events.getOrDefault(id, EventAggregate.empty(id)),
+                    devices.getOrDefault(id, DeviceAggregate.empty(id)),
+                    now));
+        }
+        return features;
+    }
+
+    /**
+     * Build the feature vector from pre-aggregated counts and sums.
+     * Arithmetic mirrors the list-based extractor term by term.
+     */
+    public FeatureVector extract(User user, EventAggregate events, DeviceAggregate devices, Instant now) {
+        long total = events.getTotalEvents();
+
+        double failedRate = total == 0 ? 0 : (double) events.getFailedEvents() / total;
+        double nightRate = total == 0 ? 0 : (double) events.getNightEvents() / total;
+
+        long deviceCount = devices.getDeviceCount();
+        double avgDeviceRisk = deviceCount == 0 ? 50 : devices.getDeviceRiskSum() / deviceCount;
+        double unpatchedRatio = deviceCount == 0 ? 0 : devices.getUnpatchedDevices() / (double) deviceCount;
+        double avDisabledRatio = deviceCount == 0 ? 0 : devices.getAntivirusDisabledDevices() / (double) deviceCount;
+
+        double networkRisk = total == 0 ? DEFAULT_NETWORK_RISK_SCORE : events.getNetworkRiskSum() / (double) total;
+
+        long distinctCountries = events.getDistinctCountries() + (events.getNullCountryEvents() > 0 ? 1 : 0);
+        double locationChangeScore = distinctCountries * 10.0;
+        double timeAnomalyScore = nightRate * 100;
+
+        long secondsSinceLastLogin =
+                user.getLastLoginAt() == null ? 0 :
+                        now.getEpochSecond() - user.getLastLoginAt().getEpochSecond();
+
+        return FeatureVector.builder()
+                .totalEvents(total)
+                .failedLoginRate(failedRate)
+                .nightAccessRate(nightRate)
+                .loginFrequency24h(events.getEventsLast24h())
+                .avgDeviceRisk(avgDeviceRisk)
+                .unpatchedDeviceRatio(unpatchedRatio)
+                .antivirusDisabledRatio(avDisabledRatio)
+                .networkRiskScore(networkRisk)
+                .locationChangeScore(locationChangeScore)
+                .timeAnomalyScore(timeAnomalyScore)
+                .secondsSinceLastLogin(secondsSinceLastLogin)
+                .build();
+    }
+
     public FeatureVector extract(
             User user,
             List<AccessEvent> events,
@@ -84,7 +180,7 @@ public class FeatureExtractionService {
                 .distinct()
                 .count() * 10.0;
     }
-    private static double networkRiskScoreFor(NetworkType networkType) {
+    static double networkRiskScoreFor(NetworkType networkType) {
         if (networkType == null) {
             return DEFAULT_NETWORK_RISK_SCORE;
         }
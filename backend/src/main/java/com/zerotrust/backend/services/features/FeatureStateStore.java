@@ -0,0 +1,132 @@
+package com.zerotrust.backend.services.features;
+
+import com.zerotrust.backend.dto.EventAggregate;
+import com.zerotrust.backend.entities.AccessEvent;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.services.cache.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Incremental per-user event feature store.
+ * New access events are folded in as they are written (every JPA persist through
+ * {@link AccessEventListener}, plus the bulk ingest path), so feature extraction
+ * no longer rescans a user's full event history. A user's state is rebuilt from the
+ * database on first access (cold start); events recorded while it is being rebuilt
+ * are merged in without double counting. States are bounded and expire, so events
+ * written by other replicas are picked up within the time-to-live.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FeatureStateStore {
+
+    private final AccessEventRepository accessEventRepository;
+
+    @Value("${trust.features.state.max-entries:100000}")
+    private int maxEntries = 100000;
+
+    @Value("${trust.features.state.ttl-seconds:900}")
+    private long ttlSeconds = 900;
+
+    private BoundedCache<UUID, UserFeatureState> states;
+
+    @PostConstruct
+    void init() {
+        states = new BoundedCache<>(maxEntries, ttlSeconds);
+    }
+
+    /**
+     * Fold a newly persisted event into its user's state.
+     * A user without state gets an unloaded one, so the event is not lost if the
+     * history is read before the event's transaction commits.
+     */
+    public void record(AccessEvent event) {
+        if (event.getUser() == null) {
+            return;
+        }
+        states.computeIfAbsent(event.getUser().getId(), UserFeatureState::new).record(event, Instant.now());
+    }
+
+    /**
+     * Current event aggregates for a user, loading the history from the database on a miss
+     */
+    public EventAggregate snapshot(User user, Instant now) {
+        return loaded(user).snapshot(now);
+    }
+
+    /**
+     * Drop the user's state and replay the full event history into a fresh one
+     */
+    public UserFeatureState rebuild(User user) {
+        states.invalidate(user.getId());
+        return loaded(user);
+    }
+
+    private UserFeatureState loaded(User user) {
+        UserFeatureState state = states.computeIfAbsent(user.getId(), UserFeatureState::new);
+        state.load(() -> accessEventRepository.findByUser(user), Instant.now());
+        return state;
+    }
+
+    public void invalidate(UUID userId) {
+        states.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        states.clear();
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Compare the incremental state against a full-scan aggregate from the
+     * database; on mismatch the state is rebuilt.
+     */
+    public ConsistencyReport checkConsistency(User user) {
+        Instant now = Instant.now();
+        EventAggregate incremental = snapshot(user, now);
+        List<EventAggregate> rows = accessEventRepository
+                .aggregateByUserIds(List.of(user.getId()), now.minusSeconds(86400));
+        EventAggregate fullScan = rows.isEmpty() ? EventAggregate.empty(user.getId()) : rows.get(0);
+
+        boolean consistent = incremental.equals(fullScan);
+        if (!consistent) {
+            log.warn("Feature state for {} diverged from database, rebuilding: incremental={} fullScan={}",
+                    user.getEmail(), incremental, fullScan);
+            rebuild(user);
+        }
+        return ConsistencyReport.builder()
+                .userId(user.getId())
+                .consistent(consistent)
+                .incremental(incremental)
+                .fullScan(fullScan)
+                .checkedAt(now)
+                .build();
+    }
+
+    /**
+     * Consistency check result DTO
+     */
+    @Builder
+    @Data
+    public static class ConsistencyReport {
+        private UUID userId;
+        private boolean consistent;
+        private EventAggregate incremental;
+        private EventAggregate fullScan;
+        private Instant checkedAt;
+    }
+}
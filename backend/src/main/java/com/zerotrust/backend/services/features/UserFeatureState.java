@@ -0,0 +1,115 @@
+package com.zerotrust.backend.services.features;
+
+import com.zerotrust.backend.dto.EventAggregate;
+import com.zerotrust.backend.entities.AccessEvent;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Running event aggregates for one user.
+ * Counts and sums are updated in O(1) per event; the 24h window keeps only
+ * timestamps that can still fall inside it and is trimmed on read.
+ * A state starts unloaded: events recorded before the history has been replayed are
+ * held back and applied afterwards, unless the replayed history already contained them.
+ */
+class UserFeatureState {
+
+    private static final long WINDOW_SECONDS = 86400;
+
+    private final UUID userId;
+
+    private long totalEvents;
+    private long failedEvents;
+    private long nightEvents;
+    private long networkRiskSum;
+    // Events per country; a null key stands for events without a country
+    private final Map<String, Integer> countryCounts = new HashMap<>();
+    // Oldest timestamp at the head; events may arrive slightly out of order
+    private final PriorityQueue<Instant> window = new PriorityQueue<>();
+
+    // Events recorded while the history is not loaded yet, by id; null once loaded
+    private Map<UUID, AccessEvent> pending = new LinkedHashMap<>();
+    private final Object loadLock = new Object();
+
+    UserFeatureState(UUID userId) {
+        this.userId = userId;
+    }
+
+    synchronized boolean isLoaded() {
+        return pending == null;
+    }
+
+    /**
+     * Replay the user's history once; concurrent callers wait for the first one
+     */
+    void load(Supplier<List<AccessEvent>> history, Instant now) {
+        synchronized (loadLock) {
+            if (isLoaded()) {
+                return;
+            }
+            List<AccessEvent> events = history.get();
+            synchronized (this) {
+                Set<UUID> replayed = new HashSet<>();
+                for (AccessEvent event : events) {
+                    apply(event, now);
+                    replayed.add(event.getId());
+                }
+                for (AccessEvent event : pending.values()) {
+                    if (!replayed.contains(event.getId())) {
+                        apply(event, now);
+                    }
+                }
+                pending = null;
+            }
+        }
+    }
+
+    synchronized void record(AccessEvent event, Instant now) {
+        if (pending != null) {
+            // Events without an id cannot be matched against the history; keep them apart
+            pending.put(event.getId() != null ? event.getId() : UUID.randomUUID(), event);
+            return;
+        }
+        apply(event, now);
+    }
+
+    private void apply(AccessEvent event, Instant now) {
+        totalEvents++;
+        if (!event.isSuccess()) {
+            failedEvents++;
+        }
+        if (event.getHourOfDay() < 6 || event.getHourOfDay() > 22) {
+            nightEvents++;
+        }
+        networkRiskSum += (long) FeatureExtractionService.networkRiskScoreFor(event.getNetworkType());
+        countryCounts.merge(event.getCountry(), 1, Integer::sum);
+
+        Instant timestamp = event.getTimestamp();
+        if (timestamp != null && timestamp.isAfter(now.minusSeconds(WINDOW_SECONDS))) {
+            window.add(timestamp);
+        }
+    }
+
+    synchronized EventAggregate snapshot(Instant now) {
+        Instant cutoff = now.minusSeconds(WINDOW_SECONDS);
+        while (!window.isEmpty() && !window.peek().isAfter(cutoff)) {
+            window.poll();
+        }
+
+        boolean hasNullCountry = countryCounts.containsKey(null);
+        long distinctCountries = countryCounts.size() - (hasNullCountry ? 1 : 0);
+        long nullCountryEvents = hasNullCountry ? countryCounts.get(null) : 0;
+
+        return new EventAggregate(userId, totalEvents, failedEvents, nightEvents, window.size(),
+                networkRiskSum, distinctCountries, nullCountryEvents);
+    }
+}
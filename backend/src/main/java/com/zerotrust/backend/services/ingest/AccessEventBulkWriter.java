@@ -0,0 +1,172 @@
+package com.zerotrust.backend.services.ingest;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Multi-row writes into access_events.
+ * Uses PostgreSQL COPY when the connection supports it, otherwise a JDBC batch insert
+ * (rewritten into multi-row INSERTs by the PostgreSQL driver's reWriteBatchedInserts).
+ */
+@Component
+@RequiredArgsConstructor
+class AccessEventBulkWriter {
+
+    // %s is the (keyword) timestamp column, quoted per database
+    private static final String COLUMNS = "id, user_id, device_id, %s, ip_address, network_type, country, city, "
+            + "hour_of_day, weekend, resource, session_id, user_agent, success, event_risk_score, created_at, update_at";
+
+    private static final String INSERT_SQL = "insert into access_events (" + COLUMNS + ") "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COPY_SQL = "copy access_events (" + COLUMNS + ") from stdin with (format csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${trust.ingest.use-copy:true}")
+    private boolean useCopy;
+
+    /**
+     * Write all rows in one round trip (one COPY or one batch)
+     *
+     * @return true if COPY was used
+     */
+    boolean write(List<Row> rows) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            String timestampColumn = quotedTimestampColumn(connection.getMetaData());
+            if (useCopy && connection.isWrapperFor(PGConnection.class)) {
+                copy(connection, COPY_SQL.formatted(timestampColumn), rows);
+                return true;
+            }
+            batchInsert(connection, INSERT_SQL.formatted(timestampColumn), rows);
+            return false;
+        }));
+    }
+
+    private static void copy(Connection connection, String sql, List<Row> rows) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 256);
+        for (Row row : rows) {
+            appendField(csv, row.id());
+            csv.append(',');
+            appendField(csv, row.userId());
+            csv.append(',');
+            appendField(csv, row.deviceId());
+            csv.append(',');
+            appendField(csv, row.timestamp());
+            csv.append(',');
+            appendField(csv, row.ipAddress());
+            csv.append(',');
+            appendField(csv, row.networkType());
+            csv.append(',');
+            appendField(csv, row.country());
+            csv.append(',');
+            appendField(csv, row.city());
+            csv.append(',');
+            appendField(csv, row.hourOfDay());
+            csv.append(',');
+            appendField(csv, row.weekend());
+            csv.append(',');
+            appendField(csv, row.resource());
+            csv.append(',');
+            appendField(csv, row.sessionId());
+            csv.append(',');
+            appendField(csv, row.userAgent());
+            csv.append(',');
+            appendField(csv, row.success());
+            csv.append(',');
+            appendField(csv, row.eventRiskScore());
+            csv.append(',');
+            appendField(csv, row.createdAt());
+            csv.append(',');
+            appendField(csv, row.createdAt());
+            csv.append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into access_events failed", e);
+        }
+    }
+
+    // Quoted in the database's own identifier case, as the schema generator created it
+    private static String quotedTimestampColumn(DatabaseMetaData meta) throws SQLException {
+        String quote = meta.getIdentifierQuoteString().trim();
+        String name = meta.storesUpperCaseIdentifiers() ? "TIMESTAMP" : "timestamp";
+        return quote + name + quote;
+    }
+
+    // COPY csv: an unquoted empty field is NULL, so every non-null value is quoted
+    private static void appendField(StringBuilder csv, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        csv.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    private static void batchInsert(Connection connection, String sql, List<Row> rows) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Row row : rows) {
+                ps.setObject(1, row.id());
+                ps.setObject(2, row.userId());
+                if (row.deviceId() != null) {
+                    ps.setObject(3, row.deviceId());
+                } else {
+                    ps.setNull(3, Types.OTHER);
+                }
+                ps.setTimestamp(4, Timestamp.from(row.timestamp()));
+                ps.setString(5, row.ipAddress());
+                ps.setString(6, row.networkType());
+                ps.setString(7, row.country());
+                ps.setString(8, row.city());
+                ps.setInt(9, row.hourOfDay());
+                ps.setBoolean(10, row.weekend());
+                ps.setString(11, row.resource());
+                ps.setString(12, row.sessionId());
+                ps.setString(13, row.userAgent());
+                ps.setBoolean(14, row.success());
+                if (row.eventRiskScore() != null) {
+                    ps.setDouble(15, row.eventRiskScore());
+                } else {
+                    ps.setNull(15, Types.DOUBLE);
+                }
+                ps.setTimestamp(16, Timestamp.from(row.createdAt()));
+                ps.setTimestamp(17, Timestamp.from(row.createdAt()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * One resolved access_events row
+     */
+    record Row(UUID id, UUID userId, UUID deviceId, Instant timestamp, String ipAddress, String networkType,
+               String country, String city, int hourOfDay, boolean weekend, String resource, String sessionId,
+               String userAgent, boolean success, Double eventRiskScore, Instant createdAt) {
+    }
+}
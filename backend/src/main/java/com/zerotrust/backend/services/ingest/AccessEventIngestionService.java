@@ -0,0 +1,352 @@
+package com.zerotrust.backend.services.ingest;
+
+import com.zerotrust.backend.dto.AccessEventPayload;
+import com.zerotrust.backend.dto.IngestBatchResponse;
+import com.zerotrust.backend.entities.AccessEvent;
+import com.zerotrust.backend.entities.Device;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.repositories.DeviceRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.cache.BoundedCache;
+import com.zerotrust.backend.services.features.FeatureStateStore;
+import com.zerotrust.backend.services.rescore.UserInputsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingestion of gateway access events.
+ * Each batch is validated event by event and users and devices are resolved
+ * through caches. Valid events are written in a single multi-row write before
+ * the batch is acknowledged. Events being written at any moment are bounded by
+ * a permit budget; a batch that does not fit is rejected rather than queued.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccessEventIngestionService {
+
+    private final UserRepository userRepository;
+    private final DeviceRepository deviceRepository;
+    private final AccessEventBulkWriter bulkWriter;
+    private final FeatureStateStore featureStateStore;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${trust.ingest.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    // Upper bound on events being validated and written concurrently
+    @Value("${trust.ingest.max-in-flight-events:50000}")
+    private int maxInFlightEvents;
+
+    @Value("${trust.ingest.resolver-cache.max-entries:100000}")
+    private int resolverCacheMaxEntries;
+
+    @Value("${trust.ingest.resolver-cache.ttl-seconds:300}")
+    private long resolverCacheTtlSeconds;
+
+    private Semaphore inFlight;
+    // Email -> user id and device id -> owner id. Misses are not cached, so users and
+    // devices created moments ago are accepted on their first event.
+    private BoundedCache<String, UUID> userIds;
+    private BoundedCache<UUID, UUID> deviceOwners;
+
+    private final LongAdder acceptedTotal = new LongAdder();
+    private final LongAdder rejectedTotal = new LongAdder();
+    private final LongAdder batchesTotal = new LongAdder();
+    private final LongAdder saturatedTotal = new LongAdder();
+    private final LongAdder writeNanosTotal = new LongAdder();
+    private volatile double lastBatchEventsPerSecond;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        inFlight = new Semaphore(maxInFlightEvents);
+        userIds = new BoundedCache<>(resolverCacheMaxEntries, resolverCacheTtlSeconds);
+        deviceOwners = new BoundedCache<>(resolverCacheMaxEntries, resolverCacheTtlSeconds);
+
+        acceptedCounter = meterRegistry.counter("trust.ingest.events.accepted");
+        rejectedCounter = meterRegistry.counter("trust.ingest.events.rejected");
+        batchTimer = Timer.builder("trust.ingest.batch")
+                .description("Validation, resolution and write time of one ingested batch")
+                .register(meterRegistry);
+        Gauge.builder("trust.ingest.in-flight", this, s -> s.maxInFlightEvents - s.inFlight.availablePermits())
+                .description("Events currently being ingested")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validate, resolve and persist one batch
+     *
+     * @throws IllegalArgumentException if the batch is empty or too large
+     * @throws SaturatedException       if the in-flight budget cannot take the batch
+     */
+    public IngestBatchResponse ingest(List<AccessEventPayload> events) {
+        if (events == null || events.isEmpty()) {
+            throw new IllegalArgumentException("Batch contains no events");
+        }
+        if (events.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch exceeds " + maxBatchSize + " events");
+        }
+        if (!inFlight.tryAcquire(events.size())) {
+            saturatedTotal.increment();
+            throw new SaturatedException();
+        }
+        try {
+            return ingestBatch(events);
+        } finally {
+            inFlight.release(events.size());
+        }
+    }
+
+    private IngestBatchResponse ingestBatch(List<AccessEventPayload> events) {
+        long start = System.nanoTime();
+        List<IngestBatchResponse.EventError> errors = new ArrayList<>();
+
+        // 1. Bean validation per event
+        boolean[] invalid = new boolean[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            AccessEventPayload event = events.get(i);
+            if (event == null) {
+                invalid[i] = true;
+                errors.add(new IngestBatchResponse.EventError(i, "event is null"));
+                continue;
+            }
+            Set<ConstraintViolation<AccessEventPayload>> violations = validator.validate(event);
+            if (!violations.isEmpty()) {
+                invalid[i] = true;
+                errors.add(new IngestBatchResponse.EventError(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            }
+        }
+
+        // 2. Resolve users and devices, one query per table for all cache misses
+        Map<String, UUID> users = resolveUsers(events, invalid);
+        Map<UUID, UUID> devices = resolveDevices(events, invalid);
+
+        Instant now = Instant.now();
+        List<AccessEventBulkWriter.Row> rows = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (invalid[i]) {
+                continue;
+            }
+            AccessEventPayload event = events.get(i);
+            UUID userId = users.get(event.getUserEmail());
+            if (userId == null) {
+                errors.add(new IngestBatchResponse.EventError(i, "unknown user " + event.getUserEmail()));
+                continue;
+            }
+            if (event.getDeviceId() != null) {
+                UUID owner = devices.get(event.getDeviceId());
+                if (!userId.equals(owner)) {
+                    errors.add(new IngestBatchResponse.EventError(i, owner == null
+                            ? "unknown device " + event.getDeviceId()
+                            : "device " + event.getDeviceId() + " does not belong to " + event.getUserEmail()));
+                    continue;
+                }
+            }
+            rows.add(toRow(event, userId, now));
+        }
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+
+        // 3. One multi-row write for the whole batch
+        long writeStart = System.nanoTime();
+        if (!rows.isEmpty()) {
+            bulkWriter.write(rows);
+            rows.forEach(row -> featureStateStore.record(toEntity(row)));
+            // Affected users are re-scored by the event-driven pipeline
+            eventPublisher.publishEvent(new UserInputsChangedEvent(
+                    rows.stream().map(AccessEventBulkWriter.Row::userId).distinct().toList(), "access-events"));
+        }
+        writeNanosTotal.add(System.nanoTime() - writeStart);
+
+        long nanos = System.nanoTime() - start;
+        double eventsPerSecond = nanos == 0 ? rows.size() : rows.size() * 1e9 / nanos;
+        lastBatchEventsPerSecond = eventsPerSecond;
+        batchesTotal.increment();
+        acceptedTotal.add(rows.size());
+        rejectedTotal.add(errors.size());
+        acceptedCounter.increment(rows.size());
+        rejectedCounter.increment(errors.size());
+        batchTimer.record(nanos, TimeUnit.NANOSECONDS);
+
+        return IngestBatchResponse.builder()
+                .received(events.size())
+                .accepted(rows.size())
+                .rejected(errors.size())
+                .errors(errors)
+                .durationMs(nanos / 1_000_000)
+                .eventsPerSecond(eventsPerSecond)
+                .build();
+    }
+
+    // Email -> user id for every valid event whose user exists
+    private Map<String, UUID> resolveUsers(List<AccessEventPayload> events, boolean[] invalid) {
+        Map<String, UUID> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            String email = invalid[i] ? null : events.get(i).getUserEmail();
+            if (email == null || resolved.containsKey(email) || missing.contains(email)) {
+                continue;
+            }
+            UUID cached = userIds.get(email);
+            if (cached == null) {
+                missing.add(email);
+            } else {
+                resolved.put(email, cached);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (User user : userRepository.findByEmailIn(missing)) {
+                userIds.put(user.getEmail(), user.getId());
+                resolved.put(user.getEmail(), user.getId());
+            }
+        }
+        return resolved;
+    }
+
+    // Device id -> owner user id for every referenced device that exists
+    private Map<UUID, UUID> resolveDevices(List<AccessEventPayload> events, boolean[] invalid) {
+        Map<UUID, UUID> resolved = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            UUID deviceId = invalid[i] ? null : events.get(i).getDeviceId();
+            if (deviceId == null || resolved.containsKey(deviceId) || missing.contains(deviceId)) {
+                continue;
+            }
+            UUID cached = deviceOwners.get(deviceId);
+            if (cached == null) {
+                missing.add(deviceId);
+            } else {
+                resolved.put(deviceId, cached);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Device device : deviceRepository.findAllById(missing)) {
+                // The owner id is read from the lazy proxy without loading the user
+                if (device.getUser() != null) {
+                    deviceOwners.put(device.getId(), device.getUser().getId());
+                    resolved.put(device.getId(), device.getUser().getId());
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private static AccessEventBulkWriter.Row toRow(AccessEventPayload event, UUID userId, Instant now) {
+        ZonedDateTime utc = event.getTimestamp().atZone(ZoneOffset.UTC);
+        DayOfWeek day = utc.getDayOfWeek();
+        return new AccessEventBulkWriter.Row(
+                UUID.randomUUID(),
+                userId,
+                event.getDeviceId(),
+                event.getTimestamp(),
+                event.getIpAddress(),
+                event.getNetworkType().name(),
+                event.getCountry(),
+                event.getCity(),
+                utc.getHour(),
+                day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY,
+                event.getResource(),
+                event.getSessionId(),
+                event.getUserAgent(),
+                event.isSuccess(),
+                event.getEventRiskScore(),
+                now);
+    }
+
+    // Detached view of a written row, for the incremental feature state
+    private AccessEvent toEntity(AccessEventBulkWriter.Row row) {
+        return AccessEvent.builder()
+                .id(row.id())
+                .user(userRepository.getReferenceById(row.userId()))
+                .timestamp(row.timestamp())
+                .networkType(NetworkType.valueOf(row.networkType()))
+                .country(row.country())
+                .hourOfDay(row.hourOfDay())
+                .weekend(row.weekend())
+                .success(row.success())
+                .eventRiskScore(row.eventRiskScore())
+                .build();
+    }
+
+    public IngestStats stats() {
+        long accepted = acceptedTotal.sum();
+        double writeSeconds = writeNanosTotal.sum() / 1e9;
+        return IngestStats.builder()
+                .batches(batchesTotal.sum())
+                .eventsAccepted(accepted)
+                .eventsRejected(rejectedTotal.sum())
+                .batchesRejectedSaturated(saturatedTotal.sum())
+                .inFlightEvents(maxInFlightEvents - inFlight.availablePermits())
+                .maxInFlightEvents(maxInFlightEvents)
+                .lastBatchEventsPerSecond(lastBatchEventsPerSecond)
+                .writeEventsPerSecond(writeSeconds == 0 ? 0 : accepted / writeSeconds)
+                .userCache(userIds.stats())
+                .deviceCache(deviceOwners.stats())
+                .build();
+    }
+
+    /**
+     * The in-flight budget is exhausted; the caller should retry later
+     */
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            super("Ingestion buffer saturated, retry later");
+        }
+    }
+
+    /**
+     * Cumulative ingestion statistics DTO
+     */
+    @Builder
+    @Data
+    public static class IngestStats {
+        private long batches;
+        private long eventsAccepted;
+        private long eventsRejected;
+        private long batchesRejectedSaturated;
+        private int inFlightEvents;
+        private int maxInFlightEvents;
+        private double lastBatchEventsPerSecond;
+        // Accepted events per second of time spent in the bulk write itself
+        private double writeEventsPerSecond;
+        private BoundedCache.Stats userCache;
+        private BoundedCache.Stats deviceCache;
+    }
+}
@@ -0,0 +1,31 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.entities.Device;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * JPA listener announcing device changes to the re-scoring pipeline.
+ * The event is delivered after the surrounding transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeviceChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onDeviceChanged(Device device) {
+        if (device.getUser() != null) {
+            eventPublisher.publishEvent(new UserInputsChangedEvent(List.of(device.getUser().getId()), "device"));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * Persists User.inputsChangedAt for users whose events or devices changed,
+ * so the periodic recompute can tell changed users from unchanged ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InputChangeTracker {
+
+    private final UserRepository userRepository;
+
+    // Runs after the publishing transaction committed, so it needs a transaction of its own
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onInputsChanged(UserInputsChangedEvent event) {
+        if (event.userIds().isEmpty()) {
+            return;
+        }
+        int marked = userRepository.markInputsChanged(event.userIds(), Instant.now());
+        log.debug("Marked {} users as changed ({})", marked, event.source());
+    }
+}
@@ -0,0 +1,97 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.entities.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decides whether the periodic recompute has to re-score a user.
+ * Besides explicit input changes, two model features move with the clock alone:
+ * loginFrequency24h (events age out of the 24h window) and secondsSinceLastLogin.
+ * Those are only re-evaluated once the change is large enough to matter.
+ */
+@Component
+public class RescorePolicy {
+
+    // Width of the event window behind loginFrequency24h and the other 24h features
+    static final Duration FEATURE_WINDOW = Duration.ofHours(24);
+
+    public enum Reason {
+        NEVER_SCORED,
+        INPUTS_CHANGED,
+        WINDOW_AGING,
+        LOGIN_DRIFT,
+        MAX_STALENESS
+    }
+
+    // Re-score users with events in the 24h window at most this often while those events age out
+    private final Duration windowAgingInterval;
+
+    // Re-score when secondsSinceLastLogin grew by this fraction since the last score
+    private final double loginDriftRatio;
+
+    // Below this age secondsSinceLastLogin is not treated as drifting
+    private final Duration loginDriftFloor;
+
+    // Upper bound on the age of any score, whatever changed
+    private final Duration maxStaleness;
+
+    public RescorePolicy(@Value("${trust.recompute.window-aging-minutes:60}") long windowAgingMinutes,
+                         @Value("${trust.recompute.login-drift-ratio:0.25}") double loginDriftRatio,
+                         @Value("${trust.recompute.login-drift-min-seconds:3600}") long loginDriftMinSeconds,
+                         @Value("${trust.recompute.max-staleness-hours:24}") long maxStalenessHours) {
+        this.windowAgingInterval = Duration.ofMinutes(windowAgingMinutes);
+        this.loginDriftRatio = loginDriftRatio;
+        this.loginDriftFloor = Duration.ofSeconds(loginDriftMinSeconds);
+        this.maxStaleness = Duration.ofHours(maxStalenessHours);
+    }
+
+    /**
+     * @return why the user must be re-scored at {@code now}, or null if the stored score is still current
+     */
+    public Reason reason(User user, Instant now) {
+        Instant scoredAt = user.getScoredAt();
+        if (scoredAt == null) {
+            return Reason.NEVER_SCORED;
+        }
+        Instant changedAt = user.getInputsChangedAt();
+        if (changedAt != null && !changedAt.isBefore(scoredAt)) {
+            return Reason.INPUTS_CHANGED;
+        }
+        Duration sinceScored = Duration.between(scoredAt, now);
+        if (sinceScored.compareTo(maxStaleness) >= 0) {
+            return Reason.MAX_STALENESS;
+        }
+        // Inputs seen within the window at scoring time are still ageing out of it
+        if (changedAt != null
+                && changedAt.isAfter(scoredAt.minus(FEATURE_WINDOW))
+                && sinceScored.compareTo(windowAgingInterval) >= 0) {
+            return Reason.WINDOW_AGING;
+        }
+        if (loginDrifted(user.getLastLoginAt(), scoredAt, now)) {
+            return Reason.LOGIN_DRIFT;
+        }
+        return null;
+    }
+
+    public boolean needsRescore(User user, Instant now) {
+        return reason(user, now) != null;
+    }
+
+    // Relative growth of secondsSinceLastLogin, compared against its value when the score was computed
+    private boolean loginDrifted(Instant lastLoginAt, Instant scoredAt, Instant now) {
+        if (lastLoginAt == null) {
+            // Feature stays 0 until the first login
+            return false;
+        }
+        if (lastLoginAt.isAfter(scoredAt)) {
+            return true;
+        }
+        long atScore = Math.max(Duration.between(lastLoginAt, scoredAt).toSeconds(), loginDriftFloor.toSeconds());
+        long current = Duration.between(lastLoginAt, now).toSeconds();
+        return current - atScore >= atScore * loginDriftRatio;
+    }
+}
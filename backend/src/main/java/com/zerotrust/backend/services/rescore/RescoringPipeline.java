@@ -0,0 +1,190 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.TrustScoreEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven re-scoring of users whose inputs changed.
+ * Changes are coalesced per user in a pending set; every window the set is drained
+ * and only those users are re-scored, in groups, through TrustScoreEngine. Runs on
+ * its own thread so it is not held up by the periodic full recompute.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RescoringPipeline {
+
+    private final UserRepository userRepository;
+    private final TrustScoreEngine trustScoreEngine;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trust.rescore.enabled:true}")
+    private boolean enabled;
+
+    // Coalescing window: changes within one window cause a single re-score per user
+    @Value("${trust.rescore.window-ms:1000}")
+    private long windowMs;
+
+    @Value("${trust.rescore.max-batch:500}")
+    private int maxBatch;
+
+    // User id -> System.nanoTime() of the earliest change not yet scored
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService drainer;
+
+    private Counter changesCounter;
+    private Counter rescoredCounter;
+    private Counter failedCounter;
+    private Timer latencyTimer;
+    private volatile double lastDrainUsersPerSecond;
+
+    @PostConstruct
+    void start() {
+        changesCounter = meterRegistry.counter("trust.rescore.changes");
+        rescoredCounter = meterRegistry.counter("trust.rescore.users");
+        failedCounter = meterRegistry.counter("trust.rescore.failed");
+        latencyTimer = Timer.builder("trust.rescore.latency")
+                .description("Time from the first change of a user's inputs to the new score")
+                .register(meterRegistry);
+        Gauge.builder("trust.rescore.pending", pending, Map::size)
+                .description("Users waiting to be re-scored")
+                .register(meterRegistry);
+
+        if (enabled) {
+            drainer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("trust-rescore").daemon(true).factory());
+            drainer.scheduleWithFixedDelay(this::drainSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (drainer != null) {
+            drainer.shutdown();
+            drainer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queue the users for re-scoring; delivered after commit when published inside a transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInputsChanged(UserInputsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (UUID userId : event.userIds()) {
+            pending.putIfAbsent(userId, now);
+        }
+        changesCounter.increment(event.userIds().size());
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.error("Re-scoring drain failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-score every pending user
+     *
+     * @return number of users re-scored
+     */
+    public int drain() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Long> changedSince = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            Long since = pending.remove(userId);
+            if (since != null) {
+                changedSince.put(userId, since);
+            }
+        }
+
+        long start = System.nanoTime();
+        int rescored = 0;
+        List<UUID> ids = new ArrayList<>(changedSince.keySet());
+        for (int from = 0; from < ids.size(); from += maxBatch) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + maxBatch));
+            List<User> users = userRepository.findAllById(chunk);
+            int scored = trustScoreEngine.scoreUsers(users);
+            if (scored == 0) {
+                failedCounter.increment(users.size());
+                continue;
+            }
+            long now = System.nanoTime();
+            for (User user : users) {
+                latencyTimer.record(now - changedSince.get(user.getId()), TimeUnit.NANOSECONDS);
+            }
+            rescored += scored;
+        }
+        rescoredCounter.increment(rescored);
+
+        long nanos = System.nanoTime() - start;
+        lastDrainUsersPerSecond = nanos == 0 ? rescored : rescored * 1e9 / nanos;
+        log.debug("Re-scored {} users in {} ms", rescored, nanos / 1_000_000);
+        return rescored;
+    }
+
+    public PipelineStats stats() {
+        long changes = (long) changesCounter.count();
+        long rescored = (long) rescoredCounter.count();
+        return PipelineStats.builder()
+                .enabled(enabled)
+                .windowMs(windowMs)
+                .pendingUsers(pending.size())
+                .changesReceived(changes)
+                .usersRescored(rescored)
+                .usersFailed((long) failedCounter.count())
+                .lastDrainUsersPerSecond(lastDrainUsersPerSecond)
+                .meanLatencyMs(latencyTimer.mean(TimeUnit.MILLISECONDS))
+                .maxLatencyMs(latencyTimer.max(TimeUnit.MILLISECONDS))
+                .build();
+    }
+
+    /**
+     * Re-scoring pipeline statistics DTO
+     */
+    @Builder
+    @Data
+    public static class PipelineStats {
+        private boolean enabled;
+        private long windowMs;
+        private int pendingUsers;
+        private long changesReceived;
+        private long usersRescored;
+        private long usersFailed;
+        private double lastDrainUsersPerSecond;
+        // Event-to-score latency
+        private double meanLatencyMs;
+        private double maxLatencyMs;
+    }
+}
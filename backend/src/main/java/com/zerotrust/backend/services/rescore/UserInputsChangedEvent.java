@@ -0,0 +1,12 @@
+package com.zerotrust.backend.services.rescore;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published when data feeding the trust score of some users has changed
+ *
+ * @param source what changed, e.g. "access-events" or "device"
+ */
+public record UserInputsChangedEvent(Collection<UUID> userIds, String source) {
+}
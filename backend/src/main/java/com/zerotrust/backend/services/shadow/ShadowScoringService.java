@@ -0,0 +1,316 @@
+package com.zerotrust.backend.services.shadow;
+
+import com.zerotrust.backend.dto.FeatureVector;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shadow scoring of the candidate model version on live traffic.
+ * After a login or a batch of users has been scored and the result applied, a sample of the
+ * same feature rows is handed to a small executor, which scores them with the candidate and
+ * compares against the active scores. The caller only pays for the sampling draw and a
+ * non-blocking queue offer. Thread priority is not relied on (HotSpot ignores it on Linux):
+ * the cores shadow scoring can take are bounded by trust.shadow.threads, and the backlog by
+ * the bounded queue, past which samples are dropped and counted.
+ * Disagreement is kept as streaming statistics (mean and variance of the score delta, largest
+ * delta, risk level flips) for the current (active, candidate) pair and starts over when either changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShadowScoringService {
+
+    private static final RiskLevel[] LEVELS = RiskLevel.values();
+
+    private final ModelRegistry modelRegistry;
+    private final TrustScoringService scoringService;
+
+    @Value("${trust.shadow.enabled:true}")
+    private boolean enabled = true;
+
+    // Share of scored rows also scored by the candidate (0-1)
+    @Value("${trust.shadow.sample-rate:0.1}")
+    private double sampleRate = 0.1;
+
+    @Value("${trust.shadow.threads:1}")
+    private int threads = 1;
+
+    // Sampled batches waiting for the shadow executor; more are dropped
+    @Value("${trust.shadow.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Statistics of the current (active, candidate) pair; replaced when the pair changes
+    private volatile Disagreement disagreement;
+
+    @PostConstruct
+    void start() {
+        int poolSize = Math.max(1, threads);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("shadow-score-", 0).daemon(true).factory(),
+                (task, pool) -> dropped.increment());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Offer rows that were just scored by {@code active} for shadow comparison; never blocks.
+     * The rows must not be modified afterwards.
+     *
+     * @param rows         feature rows (layout: FeatureRows)
+     * @param activeScores scores the active version returned for the rows
+     */
+    public void observe(ModelVersion active, double[][] rows, double[] activeScores) {
+        ModelVersion candidate = modelRegistry.candidate();
+        if (!enabled || candidate == null || candidate == active || sampleRate <= 0 || rows.length == 0) {
+            return;
+        }
+        double[][] sampledRows = rows;
+        double[] sampledScores = activeScores;
+        if (sampleRate < 1) {
+            int[] picked = sample(rows.length);
+            if (picked.length == 0) {
+                return;
+            }
+            sampledRows = new double[picked.length][];
+            sampledScores = new double[picked.length];
+            for (int i = 0; i < picked.length; i++) {
+                sampledRows[i] = rows[picked[i]];
+                sampledScores[i] = activeScores[picked[i]];
+            }
+        }
+        double[][] shadowRows = sampledRows;
+        double[] shadowActiveScores = sampledScores;
+        executor.execute(() -> compare(active, candidate, shadowRows, shadowActiveScores));
+    }
+
+    /**
+     * Single-row variant for the login path; the feature row is only built when sampled
+     */
+    public void observe(ModelVersion active, FeatureVector features, double activeScore) {
+        ModelVersion candidate = modelRegistry.candidate();
+        if (!enabled || candidate == null || candidate == active
+                || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        double[][] rows = {FeatureRows.toRow(features)};
+        double[] activeScores = {activeScore};
+        executor.execute(() -> compare(active, candidate, rows, activeScores));
+    }
+
+    /**
+     * Disagreement between the current active and candidate versions
+     */
+    public ShadowStats stats() {
+        ModelVersion active = modelRegistry.active();
+        ModelVersion candidate = modelRegistry.candidate();
+        Disagreement current = disagreement;
+        ShadowStats.ShadowStatsBuilder stats = ShadowStats.builder()
+                .enabled(enabled)
+                .sampleRate(sampleRate)
+                .activeVersion(active == null ? null : active.id())
+                .candidateVersion(candidate == null ? null : candidate.id())
+                .queued(executor.getQueue().size())
+                .dropped(dropped.sum())
+                .failed(failed.sum());
+        if (current != null && current.matches(active, candidate)) {
+            current.fill(stats);
+        } else {
+            stats.levelFlips(new Disagreement(active, candidate).flipCounts());
+        }
+        return stats.build();
+    }
+
+    // Row indices picked with probability sampleRate each
+    private int[] sample(int rows) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] picked = new int[rows];
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            if (random.nextDouble() < sampleRate) {
+                picked[count++] = i;
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    private void compare(ModelVersion active, ModelVersion candidate, double[][] rows, double[] activeScores) {
+        // The pair changed while this sample was queued; it no longer describes the current candidate
+        if (modelRegistry.active() != active || modelRegistry.candidate() != candidate) {
+            return;
+        }
+        double[] candidateScores;
+        long start = System.nanoTime();
+        try {
+            candidateScores = scoringService.computeBatch(candidate, rows);
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Shadow scoring with candidate {} failed: {}", candidate.id(), e.getMessage());
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        disagreementFor(active, candidate).add(activeScores, candidateScores, nanos);
+    }
+
+    private Disagreement disagreementFor(ModelVersion active, ModelVersion candidate) {
+        Disagreement current = disagreement;
+        if (current != null && current.matches(active, candidate)) {
+            return current;
+        }
+        synchronized (this) {
+            current = disagreement;
+            if (current == null || !current.matches(active, candidate)) {
+                current = new Disagreement(active, candidate);
+                disagreement = current;
+                log.info("Shadow scoring candidate {} against active {}", candidate.id(), active.id());
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Streaming disagreement of one (active, candidate) pair. Mean and variance of the delta
+     * (candidate minus active) use Welford's update, so they stay exact over any number of rows.
+     */
+    private final class Disagreement {
+
+        private final ModelVersion active;
+        private final ModelVersion candidate;
+        private final Instant since = Instant.now();
+
+        // Guarded by this
+        private long count;
+        private double mean;
+        private double squaredDeviations;
+        private double absoluteSum;
+        private double maxAbsolute;
+        private long riskier;
+        private long lessRisky;
+        private long scoringNanos;
+        private final long[][] flips = new long[LEVELS.length][LEVELS.length];
+
+        Disagreement(ModelVersion active, ModelVersion candidate) {
+            this.active = active;
+            this.candidate = candidate;
+        }
+
+        boolean matches(ModelVersion active, ModelVersion candidate) {
+            return this.active == active && this.candidate == candidate;
+        }
+
+        synchronized void add(double[] activeScores, double[] candidateScores, long nanos) {
+            scoringNanos += nanos;
+            for (int i = 0; i < activeScores.length; i++) {
+                double delta = candidateScores[i] - activeScores[i];
+                count++;
+                double previousMean = mean;
+                mean += (delta - previousMean) / count;
+                squaredDeviations += (delta - previousMean) * (delta - mean);
+                absoluteSum += Math.abs(delta);
+                maxAbsolute = Math.max(maxAbsolute, Math.abs(delta));
+
+                RiskLevel from = scoringService.risk(activeScores[i]);
+                RiskLevel to = scoringService.risk(candidateScores[i]);
+                flips[from.ordinal()][to.ordinal()]++;
+                if (from != to) {
+                    // HIGH is the last level, so a larger ordinal is riskier
+                    if (to.ordinal() > from.ordinal()) {
+                        riskier++;
+                    } else {
+                        lessRisky++;
+                    }
+                }
+            }
+        }
+
+        synchronized void fill(ShadowStats.ShadowStatsBuilder stats) {
+            long flipped = riskier + lessRisky;
+            stats.since(since)
+                    .compared(count)
+                    .meanDelta(mean)
+                    .deltaStdDev(count > 1 ? Math.sqrt(squaredDeviations / (count - 1)) : 0)
+                    .meanAbsoluteDelta(count > 0 ? absoluteSum / count : 0)
+                    .maxAbsoluteDelta(maxAbsolute)
+                    .levelFlips(flipCounts())
+                    .flipped(flipped)
+                    .flipRate(count > 0 ? (double) flipped / count : 0)
+                    .candidateRiskier(riskier)
+                    .candidateLessRisky(lessRisky)
+                    .candidateNanosPerRow(count > 0 ? (double) scoringNanos / count : 0);
+        }
+
+        // Active level -> candidate level -> rows
+        synchronized Map<RiskLevel, Map<RiskLevel, Long>> flipCounts() {
+            Map<RiskLevel, Map<RiskLevel, Long>> counts = new EnumMap<>(RiskLevel.class);
+            for (RiskLevel from : LEVELS) {
+                Map<RiskLevel, Long> row = new EnumMap<>(RiskLevel.class);
+                for (RiskLevel to : LEVELS) {
+                    row.put(to, flips[from.ordinal()][to.ordinal()]);
+                }
+                counts.put(from, row);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Shadow scoring statistics DTO
+     */
+    @Builder
+    @Data
+    public static class ShadowStats {
+        private boolean enabled;
+        private double sampleRate;
+        private String activeVersion;
+        private String candidateVersion;
+        // Start of the statistics for this pair
+        private Instant since;
+        // Rows scored by both versions
+        private long compared;
+        // Candidate score minus active score
+        private double meanDelta;
+        private double deltaStdDev;
+        private double meanAbsoluteDelta;
+        private double maxAbsoluteDelta;
+        // Active risk level -> candidate risk level -> rows
+        private Map<RiskLevel, Map<RiskLevel, Long>> levelFlips;
+        private long flipped;
+        private double flipRate;
+        private long candidateRiskier;
+        private long candidateLessRisky;
+        private double candidateNanosPerRow;
+        private int queued;
+        // Samples dropped because the shadow queue was full (all pairs)
+        private long dropped;
+        private long failed;
+    }
+}
@@ -0,0 +1,135 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.dto.FeatureVector;
+
+/**
+ * Regression forest flattened into primitive arrays.
+ * All trees share one node table; node {@code i} is a leaf when
+ * {@code feature[i] < 0}, otherwise rows with {@code row[feature[i]] < threshold[i]}
+ * go to {@code left[i]} and the rest to {@code right[i]} (same rule as Weka's RandomTree).
+ * The prediction is the mean of the tree outputs, skipping trees whose leaf is
+ * unclassified (NaN), exactly like Bagging. Instances are immutable and thread-safe;
+ * {@link #predict(double[])} allocates nothing.
+ */
+public class CompiledForestModel implements TrustModel {
+
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+
+    public CompiledForestModel(int[] roots, int[] feature, double[] threshold,
+                               int[] left, int[] right, double[] value) {
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    @Override
+    public double score(FeatureVector features) {
+        return score(FeatureRows.toRow(features));
+    }
+
+    /**
+     * Clamped trust score for one input row
+     */
+    public double score(double[] row) {
+        return Math.max(0, Math.min(100, predict(row)));
+    }
+
+    /**
+     * Raw forest output for one input row (NaN if no tree produced a value)
+     */
+    public double predict(double[] row) {
+        double sum = 0;
+        int count = 0;
+        for (int root : roots) {
+            double leaf = value[leafOf(root, row)];
+            if (!Double.isNaN(leaf)) {
+                sum += leaf;
+                count++;
+            }
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Clamped scores for a block of rows. Trees are the outer loop so each
+     * tree's nodes stay hot in cache while every row is routed through it.
+     */
+    @Override
+    public double[] scoreBatch(double[][] rows) {
+        int n = rows.length;
+        double[] sums = new double[n];
+        int[] counts = new int[n];
+        for (int root : roots) {
+            for (int i = 0; i < n; i++) {
+                double leaf = value[leafOf(root, rows[i])];
+                if (!Double.isNaN(leaf)) {
+                    sums[i] += leaf;
+                    counts[i]++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            double prediction = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+            sums[i] = Math.max(0, Math.min(100, prediction));
+        }
+        return sums;
+    }
+
+    private int leafOf(int node, double[] row) {
+        int[] feature = this.feature;
+        while (feature[node] >= 0) {
+            node = row[feature[node]] < threshold[node] ? left[node] : right[node];
+        }
+        return node;
+    }
+
+    public int numTrees() {
+        return roots.length;
+    }
+
+    public int numNodes() {
+        return feature.length;
+    }
+
+    // Node tables, read by ModelFileFormat when writing the compact model file
+
+    int[] roots() {
+        return roots;
+    }
+
+    int[] features() {
+        return feature;
+    }
+
+    double[] thresholds() {
+        return threshold;
+    }
+
+    int[] lefts() {
+        return left;
+    }
+
+    int[] rights() {
+        return right;
+    }
+
+    double[] values() {
+        return value;
+    }
+
+    /**
+     * Approximate heap footprint of the node tables in bytes
+     */
+    public long sizeInBytes() {
+        return (long) roots.length * Integer.BYTES
+                + (long) feature.length * (3L * Integer.BYTES + 2L * Double.BYTES);
+    }
+}
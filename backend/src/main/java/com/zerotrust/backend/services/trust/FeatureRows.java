@@ -0,0 +1,62 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.dto.FeatureVector;
+
+/**
+ * Column layout of the model input row.
+ * Must match the attribute order of WekaDatasetBuilder / WekaTrustModel.
+ */
+public final class FeatureRows {
+
+    public static final int NUM_FEATURES = 10;
+
+    public static final String[] FEATURE_NAMES = {
+            "failedLoginRate",
+            "nightAccessRate",
+            "loginFrequency24h",
+            "avgDeviceRisk",
+            "unpatchedDeviceRatio",
+            "antivirusDisabledRatio",
+            "networkRiskScore",
+            "locationChangeScore",
+            "timeAnomalyScore",
+            "secondsSinceLastLogin"
+    };
+
+    private FeatureRows() {
+    }
+
+    public static double[] toRow(FeatureVector f) {
+        double[] row = new double[NUM_FEATURES];
+        toRow(f, row);
+        return row;
+    }
+
+    public static FeatureVector toFeatureVector(double[] row) {
+        return FeatureVector.builder()
+                .failedLoginRate(row[0])
+                .nightAccessRate(row[1])
+                .loginFrequency24h(row[2])
+                .avgDeviceRisk(row[3])
+                .unpatchedDeviceRatio(row[4])
+                .antivirusDisabledRatio(row[5])
+                .networkRiskScore(row[6])
+                .locationChangeScore(row[7])
+                .timeAnomalyScore(row[8])
+                .secondsSinceLastLogin(row[9])
+                .build();
+    }
+
+    public static void toRow(FeatureVector f, double[] row) {
+        row[0] = f.getFailedLoginRate();
+        row[1] = f.getNightAccessRate();
+        row[2] = f.getLoginFrequency24h();
+        row[3] = f.getAvgDeviceRisk();
+        row[4] = f.getUnpatchedDeviceRatio();
+        row[5] = f.getAntivirusDisabledRatio();
+        row[6] = f.getNetworkRiskScore();
+        row[7] = f.getLocationChangeScore();
+        row[8] = f.getTimeAnomalyScore();
+        row[9] = f.getSecondsSinceLastLogin();
+    }
+}
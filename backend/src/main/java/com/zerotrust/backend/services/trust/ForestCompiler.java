@@ -0,0 +1,170 @@
+package com.zerotrust.backend.services.trust;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.trees.RandomForest;
+import weka.classifiers.trees.RandomTree;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Compiles a trained Weka RandomForest (regression) into a {@link CompiledForestModel}.
+ * Weka keeps the tree structure in protected fields, so they are read reflectively.
+ * Missing input values are not supported: the trust features are always present.
+ */
+public final class ForestCompiler {
+
+    private static final Field CLASSIFIERS = field(weka.classifiers.IteratedSingleClassifierEnhancer.class, "m_Classifiers");
+    private static final Field TREE = field(RandomTree.class, "m_Tree");
+    private static final Field ZERO_R = field(RandomTree.class, "m_zeroR");
+    private static final Field ZERO_R_VALUE = field(weka.classifiers.rules.ZeroR.class, "m_ClassValue");
+
+    private static final Class<?> NODE_CLASS = nodeClass();
+    private static final Field ATTRIBUTE = field(NODE_CLASS, "m_Attribute");
+    private static final Field SPLIT_POINT = field(NODE_CLASS, "m_SplitPoint");
+    private static final Field SUCCESSORS = field(NODE_CLASS, "m_Successors");
+    private static final Field CLASS_DISTRIBUTION = field(NODE_CLASS, "m_ClassDistribution");
+
+    private ForestCompiler() {
+    }
+
+    /**
+     * @return the compiled forest, or null if the forest has not been trained yet
+     */
+    public static CompiledForestModel compile(RandomForest forest) {
+        try {
+            Classifier[] trees = (Classifier[]) CLASSIFIERS.get(forest);
+            if (trees == null || trees.length == 0 || !(trees[0] instanceof RandomTree)) {
+                return null;
+            }
+
+            NodeTable table = new NodeTable();
+            int[] roots = new int[trees.length];
+            for (int t = 0; t < trees.length; t++) {
+                roots[t] = compileTree((RandomTree) trees[t], table);
+            }
+            return table.build(roots);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to read RandomForest internals", e);
+        }
+    }
+
+    private static int compileTree(RandomTree tree, NodeTable table) throws IllegalAccessException {
+        Object zeroR = ZERO_R.get(tree);
+        if (zeroR != null) {
+            // Degenerate tree: constant prediction
+            return table.leaf(ZERO_R_VALUE.getDouble(zeroR));
+        }
+        Object root = TREE.get(tree);
+        if (root == null) {
+            return table.leaf(Double.NaN);
+        }
+        boolean allowUnclassified = tree.getAllowUnclassifiedInstances();
+
+        // Iterative pre-order walk; each frame carries the value inherited from the
+        // closest ancestor with a class distribution (Weka falls back to it when a
+        // child has none)
+        Deque<Frame> stack = new ArrayDeque<>();
+        int rootIndex = table.reserve();
+        stack.push(new Frame(root, rootIndex, Double.NaN));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            int attribute = ATTRIBUTE.getInt(frame.node);
+            double[] distribution = (double[]) CLASS_DISTRIBUTION.get(frame.node);
+            double inherited = distribution != null ? distribution[0] : frame.inherited;
+            Object[] successors = (Object[]) SUCCESSORS.get(frame.node);
+
+            if (attribute < 0 || successors == null) {
+                double leafValue = distribution != null ? distribution[0]
+                        : allowUnclassified ? Double.NaN : frame.inherited;
+                table.setLeaf(frame.index, leafValue);
+                continue;
+            }
+
+            int leftIndex = table.reserve();
+            int rightIndex = table.reserve();
+            table.setSplit(frame.index, attribute, SPLIT_POINT.getDouble(frame.node), leftIndex, rightIndex);
+            stack.push(new Frame(successors[1], rightIndex, inherited));
+            stack.push(new Frame(successors[0], leftIndex, inherited));
+        }
+        return rootIndex;
+    }
+
+    private record Frame(Object node, int index, double inherited) {
+    }
+
+    /**
+     * Growable node table backing the compiled arrays
+     */
+    private static final class NodeTable {
+        private int size;
+        private int[] feature = new int[1024];
+        private double[] threshold = new double[1024];
+        private int[] left = new int[1024];
+        private int[] right = new int[1024];
+        private double[] value = new double[1024];
+
+        int reserve() {
+            if (size == feature.length) {
+                int capacity = size * 2;
+                feature = Arrays.copyOf(feature, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                value = Arrays.copyOf(value, capacity);
+            }
+            return size++;
+        }
+
+        int leaf(double leafValue) {
+            int index = reserve();
+            setLeaf(index, leafValue);
+            return index;
+        }
+
+        void setLeaf(int index, double leafValue) {
+            feature[index] = -1;
+            value[index] = leafValue;
+            left[index] = -1;
+            right[index] = -1;
+        }
+
+        void setSplit(int index, int attribute, double splitPoint, int leftIndex, int rightIndex) {
+            feature[index] = attribute;
+            threshold[index] = splitPoint;
+            left[index] = leftIndex;
+            right[index] = rightIndex;
+            value[index] = Double.NaN;
+        }
+
+        CompiledForestModel build(int[] roots) {
+            return new CompiledForestModel(
+                    roots,
+                    Arrays.copyOf(feature, size),
+                    Arrays.copyOf(threshold, size),
+                    Arrays.copyOf(left, size),
+                    Arrays.copyOf(right, size),
+                    Arrays.copyOf(value, size));
+        }
+    }
+
+    private static Class<?> nodeClass() {
+        try {
+            return Class.forName("weka.classifiers.trees.RandomTree$Tree");
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Field field(Class<?> owner, String name) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
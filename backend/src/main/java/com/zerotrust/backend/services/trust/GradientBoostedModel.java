@@ -0,0 +1,130 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.dto.FeatureVector;
+
+import java.util.Arrays;
+
+/**
+ * Gradient-boosted ensemble of shallow regression trees, in the flattened node layout of
+ * {@link CompiledForestModel}: node {@code i} is a leaf when {@code feature[i] < 0}, otherwise
+ * rows with {@code row[feature[i]] < threshold[i]} go to {@code left[i]} and the rest to
+ * {@code right[i]}. The prediction is the base value plus one leaf value per tree (leaves
+ * already include the learning rate). Instances are immutable and thread-safe.
+ */
+public class GradientBoostedModel implements TrustModel {
+
+    private final double base;
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+
+    public GradientBoostedModel(double base, int[] roots, int[] feature, double[] threshold,
+                                int[] left, int[] right, double[] value) {
+        this.base = base;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    @Override
+    public double score(FeatureVector features) {
+        return score(FeatureRows.toRow(features));
+    }
+
+    /**
+     * Clamped trust score for one input row
+     */
+    public double score(double[] row) {
+        return Math.max(0, Math.min(100, predict(row)));
+    }
+
+    /**
+     * Raw ensemble output for one input row
+     */
+    public double predict(double[] row) {
+        double sum = base;
+        for (int root : roots) {
+            sum += value[leafOf(root, row)];
+        }
+        return sum;
+    }
+
+    /**
+     * Clamped scores for a block of rows, trees as the outer loop as in CompiledForestModel
+     */
+    @Override
+    public double[] scoreBatch(double[][] rows) {
+        int n = rows.length;
+        double[] sums = new double[n];
+        Arrays.fill(sums, base);
+        for (int root : roots) {
+            for (int i = 0; i < n; i++) {
+                sums[i] += value[leafOf(root, rows[i])];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            sums[i] = Math.max(0, Math.min(100, sums[i]));
+        }
+        return sums;
+    }
+
+    private int leafOf(int node, double[] row) {
+        int[] feature = this.feature;
+        while (feature[node] >= 0) {
+            node = row[feature[node]] < threshold[node] ? left[node] : right[node];
+        }
+        return node;
+    }
+
+    public int numTrees() {
+        return roots.length;
+    }
+
+    public int numNodes() {
+        return feature.length;
+    }
+
+    // Node tables, read by SplitQuantizer and by ModelFileFormat when writing the model file
+
+    double base() {
+        return base;
+    }
+
+    int[] roots() {
+        return roots;
+    }
+
+    int[] features() {
+        return feature;
+    }
+
+    double[] thresholds() {
+        return threshold;
+    }
+
+    int[] lefts() {
+        return left;
+    }
+
+    int[] rights() {
+        return right;
+    }
+
+    double[] values() {
+        return value;
+    }
+
+    /**
+     * Approximate heap footprint of the node tables in bytes
+     */
+    public long sizeInBytes() {
+        return Double.BYTES + (long) roots.length * Integer.BYTES
+                + (long) feature.length * (3L * Integer.BYTES + 2L * Double.BYTES);
+    }
+}
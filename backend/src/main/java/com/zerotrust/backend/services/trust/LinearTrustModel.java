@@ -0,0 +1,77 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.dto.FeatureVector;
+
+/**
+ * Linear regression over standardized features:
+ * {@code intercept + sum(coefficient[f] * (row[f] - mean[f]) / scale[f])}, clamped to 0-100.
+ * Instances are immutable and thread-safe.
+ */
+public class LinearTrustModel implements TrustModel {
+
+    private final double intercept;
+    private final double[] means;
+    private final double[] scales;
+    private final double[] coefficients;
+
+    public LinearTrustModel(double intercept, double[] means, double[] scales, double[] coefficients) {
+        if (means.length != FeatureRows.NUM_FEATURES || scales.length != FeatureRows.NUM_FEATURES
+                || coefficients.length != FeatureRows.NUM_FEATURES) {
+            throw new IllegalArgumentException("Expected " + FeatureRows.NUM_FEATURES + " features");
+        }
+        this.intercept = intercept;
+        this.means = means;
+        this.scales = scales;
+        this.coefficients = coefficients;
+    }
+
+    @Override
+    public double score(FeatureVector features) {
+        return score(FeatureRows.toRow(features));
+    }
+
+    /**
+     * Clamped trust score for one input row
+     */
+    public double score(double[] row) {
+        double sum = intercept;
+        for (int f = 0; f < coefficients.length; f++) {
+            sum += coefficients[f] * (row[f] - means[f]) / scales[f];
+        }
+        return Math.max(0, Math.min(100, sum));
+    }
+
+    @Override
+    public double[] scoreBatch(double[][] rows) {
+        double[] scores = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            scores[i] = score(rows[i]);
+        }
+        return scores;
+    }
+
+    /**
+     * Weight of each standardized feature (FeatureRows order)
+     */
+    public double[] coefficients() {
+        return coefficients.clone();
+    }
+
+    // Read by ModelFileFormat when writing the model file
+
+    double intercept() {
+        return intercept;
+    }
+
+    double[] means() {
+        return means;
+    }
+
+    double[] scales() {
+        return scales;
+    }
+
+    public long sizeInBytes() {
+        return (1L + 3L * FeatureRows.NUM_FEATURES) * Double.BYTES;
+    }
+}
@@ -0,0 +1,378 @@
+package com.zerotrust.backend.services.trust;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary model file ("ZTRF"): a compiled forest and the other engines of its version,
+ * plus the header needed to trust them.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ * magic "ZTRF" | format version u16 | feature count u16 | feature names (u16 length + UTF-8)...
+ * model name | version id (u16 length + UTF-8) | createdAt epoch millis i64
+ * tree count i32 | node count i32
+ * roots i32[trees] | feature i16[nodes] | left child i32[nodes] | payload f64[nodes]
+ * engine count u16, then per engine: name (u16 length + UTF-8) | kind u8 | body
+ *   gbdt (1):   base f64 | tree count i32 | node count i32 | roots i32[trees] | feature i16[nodes]
+ *               | left i32[nodes] | right i32[nodes] | threshold f64[nodes] | value f64[nodes]
+ *   linear (2): intercept f64 | means f64[features] | scales f64[features] | coefficients f64[features]
+ * CRC32 of all preceding bytes, i32
+ * </pre>
+ * Children of a forest split are stored next to each other (right = left + 1), as ForestCompiler
+ * lays them out, so only the left child is kept. The payload is the split threshold for
+ * inner nodes and the leaf value for leaves. Columns are read in bulk from a memory-mapped file.
+ * Version 1 files have no engine section and are still read.
+ */
+public final class ModelFileFormat {
+
+    public static final String EXTENSION = ".ztrf";
+
+    private static final byte[] MAGIC = {'Z', 'T', 'R', 'F'};
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte KIND_GBDT = 1;
+    private static final byte KIND_LINEAR = 2;
+
+    private ModelFileFormat() {
+    }
+
+    /**
+     * Contents of a model file
+     *
+     * @param engines the version's other engines by name, empty for version 1 files
+     */
+    public record ModelFile(String modelName, String versionId, Instant createdAt, CompiledForestModel forest,
+                            Map<String, TrustModel> engines) {
+    }
+
+    /**
+     * Write the version's compiled forest and its gbdt and linear engines; the file is
+     * replaced atomically
+     */
+    public static long write(ModelVersion version, Path path) throws IOException {
+        CompiledForestModel forest = version.compiled();
+        if (forest == null) {
+            throw new IllegalArgumentException("Model version " + version.id() + " has no compiled forest");
+        }
+        int[] roots = forest.roots();
+        int[] feature = forest.features();
+        int[] left = forest.lefts();
+        int[] right = forest.rights();
+        int nodes = feature.length;
+
+        byte[][] names = new byte[FeatureRows.FEATURE_NAMES.length][];
+        int headerStrings = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = utf8(FeatureRows.FEATURE_NAMES[i]);
+            headerStrings += 2 + names[i].length;
+        }
+        byte[] modelName = utf8(version.name());
+        byte[] versionId = utf8(version.id());
+
+        Map<String, TrustModel> engines = new TreeMap<>();
+        int engineBytes = 2;
+        for (Map.Entry<String, TrustModel> engine : version.engines().entrySet()) {
+            int body = engineBytes(engine.getValue());
+            if (body > 0) {
+                engines.put(engine.getKey(), engine.getValue());
+                engineBytes += 2 + utf8(engine.getKey()).length + 1 + body;
+            }
+        }
+
+        int size = MAGIC.length + 2 + 2 + headerStrings
+                + 2 + modelName.length + 2 + versionId.length + 8
+                + 4 + 4
+                + roots.length * 4 + nodes * (2 + 4 + 8)
+                + engineBytes
+                + 4;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putShort((short) FORMAT_VERSION);
+        buffer.putShort((short) names.length);
+        for (byte[] name : names) {
+            putString(buffer, name);
+        }
+        putString(buffer, modelName);
+        putString(buffer, versionId);
+        buffer.putLong(version.createdAt().toEpochMilli());
+        buffer.putInt(roots.length);
+        buffer.putInt(nodes);
+        for (int root : roots) {
+            buffer.putInt(root);
+        }
+        for (int f : feature) {
+            buffer.putShort((short) f);
+        }
+        for (int i = 0; i < nodes; i++) {
+            if (feature[i] >= 0 && right[i] != left[i] + 1) {
+                throw new IllegalStateException("Node " + i + " does not have adjacent children");
+            }
+            buffer.putInt(feature[i] >= 0 ? left[i] : -1);
+        }
+        double[] threshold = forest.thresholds();
+        double[] value = forest.values();
+        for (int i = 0; i < nodes; i++) {
+            buffer.putDouble(feature[i] >= 0 ? threshold[i] : value[i]);
+        }
+        buffer.putShort((short) engines.size());
+        engines.forEach((name, engine) -> {
+            putString(buffer, utf8(name));
+            putEngine(buffer, engine);
+        });
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Map and validate a model file
+     *
+     * @throws IOException if the file is unreadable, truncated, corrupt or built for another feature schema
+     */
+    public static ModelFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAGIC.length + 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a model file (size " + size + ")");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    static ModelFile parse(ByteBuffer buffer) throws IOException {
+        try {
+            int size = buffer.limit();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, size - 4));
+            if ((int) crc.getValue() != buffer.getInt(size - 4)) {
+                throw new IOException("Model file checksum mismatch");
+            }
+
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(0, magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Not a model file (bad magic)");
+            }
+            buffer.position(MAGIC.length);
+            int formatVersion = Short.toUnsignedInt(buffer.getShort());
+            if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+                throw new IOException("Unsupported model file version " + formatVersion);
+            }
+            int featureCount = Short.toUnsignedInt(buffer.getShort());
+            String[] features = new String[featureCount];
+            for (int i = 0; i < featureCount; i++) {
+                features[i] = getString(buffer);
+            }
+            if (!Arrays.equals(FeatureRows.FEATURE_NAMES, features)) {
+                throw new IOException("Model file feature schema " + Arrays.toString(features)
+                        + " does not match " + Arrays.toString(FeatureRows.FEATURE_NAMES));
+            }
+            String modelName = getString(buffer);
+            String versionId = getString(buffer);
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            int trees = buffer.getInt();
+            int nodes = buffer.getInt();
+            checkLength(buffer, size, trees, nodes, 14);
+
+            int[] roots = getInts(buffer, trees);
+            short[] packedFeature = getShorts(buffer, nodes);
+            int[] left = getInts(buffer, nodes);
+            double[] payload = getDoubles(buffer, nodes);
+
+            int[] feature = new int[nodes];
+            int[] right = new int[nodes];
+            double[] threshold = new double[nodes];
+            double[] value = new double[nodes];
+            for (int i = 0; i < nodes; i++) {
+                feature[i] = packedFeature[i];
+                if (feature[i] >= 0) {
+                    if (feature[i] >= featureCount || left[i] < 0 || left[i] + 1 >= nodes) {
+                        throw new IOException("Model file has an invalid node " + i);
+                    }
+                    right[i] = left[i] + 1;
+                    threshold[i] = payload[i];
+                    value[i] = Double.NaN;
+                } else {
+                    left[i] = -1;
+                    right[i] = -1;
+                    value[i] = payload[i];
+                }
+            }
+            for (int root : roots) {
+                if (root < 0 || root >= nodes) {
+                    throw new IOException("Model file has an invalid tree root " + root);
+                }
+            }
+            CompiledForestModel forest = new CompiledForestModel(roots, feature, threshold, left, right, value);
+
+            Map<String, TrustModel> engines = new LinkedHashMap<>();
+            if (formatVersion >= 2) {
+                int engineCount = Short.toUnsignedInt(buffer.getShort());
+                for (int i = 0; i < engineCount; i++) {
+                    String name = getString(buffer);
+                    engines.put(name, getEngine(buffer, size, name));
+                }
+            }
+            if (buffer.position() != size - 4) {
+                throw new IOException("Model file has trailing data");
+            }
+            return new ModelFile(modelName, versionId, createdAt, forest, Map.copyOf(engines));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Model file is truncated", e);
+        }
+    }
+
+    // Body size of an engine this format can store, 0 for any other kind
+    private static int engineBytes(TrustModel engine) {
+        if (engine instanceof GradientBoostedModel gbdt) {
+            return 8 + 4 + 4 + gbdt.numTrees() * 4 + gbdt.numNodes() * (2 + 4 + 4 + 8 + 8);
+        }
+        if (engine instanceof LinearTrustModel) {
+            return 8 + 3 * FeatureRows.NUM_FEATURES * 8;
+        }
+        return 0;
+    }
+
+    private static void putEngine(ByteBuffer buffer, TrustModel engine) {
+        if (engine instanceof GradientBoostedModel gbdt) {
+            buffer.put(KIND_GBDT);
+            buffer.putDouble(gbdt.base());
+            buffer.putInt(gbdt.numTrees());
+            buffer.putInt(gbdt.numNodes());
+            for (int root : gbdt.roots()) {
+                buffer.putInt(root);
+            }
+            for (int f : gbdt.features()) {
+                buffer.putShort((short) f);
+            }
+            for (int l : gbdt.lefts()) {
+                buffer.putInt(l);
+            }
+            for (int r : gbdt.rights()) {
+                buffer.putInt(r);
+            }
+            for (double t : gbdt.thresholds()) {
+                buffer.putDouble(t);
+            }
+            for (double v : gbdt.values()) {
+                buffer.putDouble(v);
+            }
+        } else if (engine instanceof LinearTrustModel linear) {
+            buffer.put(KIND_LINEAR);
+            buffer.putDouble(linear.intercept());
+            for (double[] column : new double[][]{linear.means(), linear.scales(), linear.coefficients()}) {
+                for (double d : column) {
+                    buffer.putDouble(d);
+                }
+            }
+        }
+    }
+
+    private static TrustModel getEngine(ByteBuffer buffer, int size, String name) throws IOException {
+        byte kind = buffer.get();
+        if (kind == KIND_LINEAR) {
+            double intercept = buffer.getDouble();
+            int n = FeatureRows.NUM_FEATURES;
+            return new LinearTrustModel(intercept, getDoubles(buffer, n), getDoubles(buffer, n), getDoubles(buffer, n));
+        }
+        if (kind != KIND_GBDT) {
+            throw new IOException("Model file engine " + name + " has unknown kind " + kind);
+        }
+        double base = buffer.getDouble();
+        int trees = buffer.getInt();
+        int nodes = buffer.getInt();
+        checkLength(buffer, size, trees, nodes, 26);
+        int[] roots = getInts(buffer, trees);
+        short[] packedFeature = getShorts(buffer, nodes);
+        int[] left = getInts(buffer, nodes);
+        int[] right = getInts(buffer, nodes);
+        double[] threshold = getDoubles(buffer, nodes);
+        double[] value = getDoubles(buffer, nodes);
+
+        int[] feature = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            feature[i] = packedFeature[i];
+            if (feature[i] >= FeatureRows.NUM_FEATURES
+                    || feature[i] >= 0 && (left[i] < 0 || left[i] >= nodes || right[i] < 0 || right[i] >= nodes)) {
+                throw new IOException("Model file engine " + name + " has an invalid node " + i);
+            }
+        }
+        for (int root : roots) {
+            if (root < 0 || root >= nodes) {
+                throw new IOException("Model file engine " + name + " has an invalid tree root " + root);
+            }
+        }
+        return new GradientBoostedModel(base, roots, feature, threshold, left, right, value);
+    }
+
+    // Rejects negative counts and node tables longer than what is left before the checksum
+    private static void checkLength(ByteBuffer buffer, int size, int trees, int nodes, int bytesPerNode)
+            throws IOException {
+        if (trees < 0 || nodes < 0 || (long) trees * 4 + (long) nodes * bytesPerNode > size - 4 - buffer.position()) {
+            throw new IOException("Model file is truncated");
+        }
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.slice(buffer.position(), count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    private static short[] getShorts(ByteBuffer buffer, int count) {
+        short[] values = new short[count];
+        buffer.slice(buffer.position(), count * 2).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(values);
+        buffer.position(buffer.position() + count * 2);
+        return values;
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.slice(buffer.position(), count * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Header string too long");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package com.zerotrust.backend.services.trust;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "model" health contributor, part of the readiness group.
+ * DOWN until a model version is active, so a node that has not loaded or trained
+ * a model is kept out of rotation instead of failing every scoring request.
+ */
+@Component("model")
+@RequiredArgsConstructor
+public class ModelHealthIndicator implements HealthIndicator {
+
+    private final ModelRegistry modelRegistry;
+
+    @Override
+    public Health health() {
+        ModelVersion version = modelRegistry.active();
+        if (version == null) {
+            return Health.down()
+                    .withDetail("reason", "No active model version")
+                    .build();
+        }
+        return Health.up()
+                .withDetail("version", version.id())
+                .withDetail("source", version.source())
+                .withDetail("trees", version.numTrees())
+                .build();
+    }
+}
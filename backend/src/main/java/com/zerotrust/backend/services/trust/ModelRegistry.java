@@ -0,0 +1,272 @@
+package com.zerotrust.backend.services.trust;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import weka.classifiers.trees.RandomForest;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versioned trust models with atomic hot-swap.
+ * Scoring reads the active version once per call or batch through an atomic reference;
+ * a new version is built completely (forest and compiled form) before it is swapped in,
+ * so retraining never disturbs in-flight scoring. A few previous versions are kept for rollback.
+ * At most one retained version can be the candidate: it scores a sample of live traffic in the
+ * shadow of the active version without affecting any result, until it is promoted or cleared.
+ */
+@Component
+@Slf4j
+public class ModelRegistry {
+
+    public static final String MODEL_NAME = "random_forest";
+
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    // Versions kept (including the active one) for listing and rollback
+    @Value("${trust.model.retained-versions:5}")
+    private int retainedVersions = 5;
+
+    private final AtomicReference<ModelVersion> active = new AtomicReference<>();
+    private final AtomicReference<ModelVersion> candidate = new AtomicReference<>();
+    private final Deque<ModelVersion> versions = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Active version, or null before the first model is trained or loaded
+     */
+    public ModelVersion active() {
+        return active.get();
+    }
+
+    /**
+     * Candidate version scored in shadow, or null when none is set
+     */
+    public ModelVersion candidate() {
+        return candidate.get();
+    }
+
+    /**
+     * Wrap a trained forest as a new version and make it active.
+     * The caller must not modify the forest afterwards.
+     */
+    public ModelVersion register(RandomForest trainedForest, String source, Instant createdAt) throws Exception {
+        return register(trainedForest, Map.of(), source, createdAt);
+    }
+
+    /**
+     * Same as {@link #register(RandomForest, String, Instant)} with engines trained on the same data
+     */
+    public ModelVersion register(RandomForest trainedForest, Map<String, TrustModel> engines, String source,
+                                 Instant createdAt) throws Exception {
+        ModelVersion version = build(trainedForest, engines, source, createdAt, nextVersionId(createdAt));
+        activate(version);
+        return version;
+    }
+
+    /**
+     * Same as {@link #register(RandomForest, String, Instant)} with a known version id (e.g. read from a model file)
+     */
+    public ModelVersion register(RandomForest trainedForest, String source, Instant createdAt, String versionId)
+            throws Exception {
+        ModelVersion version = build(trainedForest, Map.of(), source, createdAt, versionId);
+        activate(version);
+        return version;
+    }
+
+    /**
+     * Wrap a trained forest as a new version and make it the candidate; the active version is unchanged
+     */
+    public ModelVersion registerCandidate(RandomForest trainedForest, String source, Instant createdAt)
+            throws Exception {
+        return registerCandidate(trainedForest, Map.of(), source, createdAt);
+    }
+
+    /**
+     * Same as {@link #registerCandidate(RandomForest, String, Instant)} with engines trained on the same data
+     */
+    public ModelVersion registerCandidate(RandomForest trainedForest, Map<String, TrustModel> engines, String source,
+                                          Instant createdAt) throws Exception {
+        ModelVersion version = build(trainedForest, engines, source, createdAt, nextVersionId(createdAt));
+        synchronized (versions) {
+            versions.addFirst(version);
+            candidate.set(version);
+            trim();
+        }
+        log.info("Model version {} ({}) is now the candidate", version.id(), version.source());
+        return version;
+    }
+
+    /**
+     * Register a forest that only exists in compiled form (compact model file)
+     */
+    public ModelVersion register(CompiledForestModel compiled, String name, String source, Instant createdAt,
+                                 String versionId) {
+        return register(compiled, Map.of(), name, source, createdAt, versionId);
+    }
+
+    /**
+     * Same as {@link #register(CompiledForestModel, String, String, Instant, String)} with the
+     * engines saved alongside the forest
+     */
+    public ModelVersion register(CompiledForestModel compiled, Map<String, TrustModel> engines, String name,
+                                 String source, Instant createdAt, String versionId) {
+        ModelVersion version = new ModelVersion(versionId, name, createdAt, source, null, compiled,
+                Map.copyOf(engines));
+        activate(version);
+        return version;
+    }
+
+    /**
+     * Re-activate a retained version (rollback)
+     */
+    public ModelVersion activate(String versionId) {
+        synchronized (versions) {
+            ModelVersion version = find(versionId);
+            active.set(version);
+            candidate.compareAndSet(version, null);
+            log.info("Activated model version {}", versionId);
+            return version;
+        }
+    }
+
+    /**
+     * Make a retained version other than the active one the candidate
+     */
+    public ModelVersion setCandidate(String versionId) {
+        synchronized (versions) {
+            ModelVersion version = find(versionId);
+            if (version == active.get()) {
+                throw new IllegalArgumentException("Model version " + versionId + " is already active");
+            }
+            candidate.set(version);
+            log.info("Model version {} is now the candidate", versionId);
+            return version;
+        }
+    }
+
+    /**
+     * Stop shadow scoring; the version stays retained
+     *
+     * @return the previous candidate, or null if there was none
+     */
+    public ModelVersion clearCandidate() {
+        return candidate.getAndSet(null);
+    }
+
+    /**
+     * Make the candidate the active version
+     *
+     * @throws IllegalStateException if no candidate is set
+     */
+    public ModelVersion promoteCandidate() {
+        synchronized (versions) {
+            ModelVersion version = candidate.getAndSet(null);
+            if (version == null) {
+                throw new IllegalStateException("No candidate model version to promote");
+            }
+            active.set(version);
+            log.info("Promoted candidate model version {}", version.id());
+            return version;
+        }
+    }
+
+    private ModelVersion build(RandomForest trainedForest, Map<String, TrustModel> engines, String source,
+                               Instant createdAt, String versionId) throws Exception {
+        return new ModelVersion(versionId, MODEL_NAME, createdAt, source,
+                new WekaForestModel(trainedForest), ForestCompiler.compile(trainedForest), Map.copyOf(engines));
+    }
+
+    // Caller holds the versions lock
+    private ModelVersion find(String versionId) {
+        for (ModelVersion version : versions) {
+            if (version.id().equals(versionId)) {
+                return version;
+            }
+        }
+        throw new IllegalArgumentException("Unknown model version: " + versionId);
+    }
+
+    private void activate(ModelVersion version) {
+        synchronized (versions) {
+            versions.removeIf(v -> v.id().equals(version.id()));
+            versions.addFirst(version);
+            active.set(version);
+            candidate.compareAndSet(version, null);
+            trim();
+        }
+        log.info("Model version {} ({}) is now active", version.id(), version.source());
+    }
+
+    // Drop the oldest versions beyond the limit, never the active or candidate one; caller holds the lock
+    private void trim() {
+        ModelVersion current = active.get();
+        ModelVersion shadow = candidate.get();
+        Iterator<ModelVersion> oldestFirst = versions.descendingIterator();
+        while (versions.size() > Math.max(1, retainedVersions) && oldestFirst.hasNext()) {
+            ModelVersion version = oldestFirst.next();
+            if (version != current && version != shadow) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    private String nextVersionId(Instant createdAt) {
+        return "rf-" + VERSION_FORMAT.format(createdAt) + "-" + sequence.incrementAndGet();
+    }
+
+    public List<VersionInfo> versions() {
+        ModelVersion current = active.get();
+        ModelVersion shadow = candidate.get();
+        List<VersionInfo> infos = new ArrayList<>();
+        synchronized (versions) {
+            for (ModelVersion version : versions) {
+                infos.add(VersionInfo.builder()
+                        .id(version.id())
+                        .name(version.name())
+                        .createdAt(version.createdAt())
+                        .source(version.source())
+                        .trees(version.numTrees())
+                        .compiled(version.compiled() != null)
+                        .weka(version.weka() != null)
+                        .engines(version.engines().keySet().stream().sorted().toList())
+                        .active(version == current)
+                        .candidate(version == shadow)
+                        .build());
+            }
+        }
+        return infos;
+    }
+
+    /**
+     * Registered model version DTO
+     */
+    @Builder
+    @Data
+    public static class VersionInfo {
+        private String id;
+        private String name;
+        private Instant createdAt;
+        private String source;
+        private int trees;
+        private boolean compiled;
+        private boolean weka;
+        // Engines trained next to the forest
+        private List<String> engines;
+        private boolean active;
+        private boolean candidate;
+    }
+}
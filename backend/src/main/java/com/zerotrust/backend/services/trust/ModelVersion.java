@@ -0,0 +1,54 @@
+package com.zerotrust.backend.services.trust;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One trained model as an immutable artifact: never retrained once registered,
+ * only replaced by a newer version in the ModelRegistry.
+ *
+ * @param id       version stamped into risk_score_history.model_version
+ * @param name     model family stamped into risk_score_history.model_name
+ * @param source   how the version came to be (trained, loaded from a file)
+ * @param weka     Weka forest, null for versions loaded from the compact model file
+ * @param compiled flattened form of the same forest, null if the forest could not be compiled
+ * @param engines  other engines trained on the same data (e.g. "gbdt", "linear"); versions
+ *                 loaded from the Weka model file have none
+ */
+public record ModelVersion(String id,
+                           String name,
+                           Instant createdAt,
+                           String source,
+                           WekaForestModel weka,
+                           CompiledForestModel compiled,
+                           Map<String, TrustModel> engines) {
+
+    /**
+     * Model used for scoring under the given engine setting ("compiled", "weka" or the name
+     * of a trained engine). When the version has no such engine the forest serves, compiled
+     * unless "weka" was asked for or there is no compiled form.
+     */
+    public TrustModel scorer(String engine) {
+        TrustModel trained = engine == null ? null : engines.get(engine);
+        if (trained != null) {
+            return trained;
+        }
+        if (weka != null && ("weka".equals(engine) || compiled == null)) {
+            return weka;
+        }
+        return compiled;
+    }
+
+    /**
+     * Whether the version has the given engine rather than falling back to the forest
+     */
+    public boolean hasEngine(String engine) {
+        return "compiled".equals(engine) ? compiled != null
+                : "weka".equals(engine) ? weka != null
+                : engine != null && engines.containsKey(engine);
+    }
+
+    public int numTrees() {
+        return compiled != null ? compiled.numTrees() : weka.getForest().getNumIterations();
+    }
+}
@@ -0,0 +1,93 @@
+package com.zerotrust.backend.services.trust;
+
+import java.util.Arrays;
+
+/**
+ * Maps feature values to the split resolution of one tree ensemble (forest or boosted).
+ * Every node compares {@code row[f] < threshold}, so a value's bucket for feature f is the
+ * number of distinct split points of f at or below it: two rows with equal buckets for every
+ * feature take the same path through every tree and get exactly the same score.
+ * Features the ensemble never splits on always fall into bucket 0.
+ */
+public final class SplitQuantizer {
+
+    // Per feature: distinct split points in ascending order
+    private final double[][] splits;
+
+    private SplitQuantizer(double[][] splits) {
+        this.splits = splits;
+    }
+
+    public static SplitQuantizer of(CompiledForestModel forest) {
+        return of(forest.features(), forest.thresholds());
+    }
+
+    public static SplitQuantizer of(GradientBoostedModel ensemble) {
+        return of(ensemble.features(), ensemble.thresholds());
+    }
+
+    private static SplitQuantizer of(int[] features, double[] thresholds) {
+        int[] counts = new int[FeatureRows.NUM_FEATURES];
+        for (int feature : features) {
+            if (feature >= 0) {
+                counts[feature]++;
+            }
+        }
+        double[][] splits = new double[FeatureRows.NUM_FEATURES][];
+        for (int f = 0; f < splits.length; f++) {
+            splits[f] = new double[counts[f]];
+            counts[f] = 0;
+        }
+        for (int node = 0; node < features.length; node++) {
+            int f = features[node];
+            if (f >= 0) {
+                splits[f][counts[f]++] = thresholds[node];
+            }
+        }
+        for (int f = 0; f < splits.length; f++) {
+            splits[f] = Arrays.stream(splits[f]).sorted().distinct().toArray();
+        }
+        return new SplitQuantizer(splits);
+    }
+
+    /**
+     * Bucket of every feature of the row
+     */
+    public int[] buckets(double[] row) {
+        int[] buckets = new int[splits.length];
+        for (int f = 0; f < splits.length; f++) {
+            buckets[f] = bucket(f, row[f]);
+        }
+        return buckets;
+    }
+
+    /**
+     * Number of split points of the feature at or below the value. NaN is never below a
+     * split point, so it shares the last bucket with values past every split.
+     */
+    public int bucket(int feature, double value) {
+        double[] points = splits[feature];
+        if (Double.isNaN(value)) {
+            return points.length;
+        }
+        // Primitive comparison, as in the trees: -0.0 and 0.0 are the same value
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Distinct split points of the feature; its values fall into one more bucket than this
+     */
+    public int splitCount(int feature) {
+        return splits[feature].length;
+    }
+}
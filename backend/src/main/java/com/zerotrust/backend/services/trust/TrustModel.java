@@ -6,4 +6,17 @@ public interface TrustModel {
 
     double score(FeatureVector features) throws Exception;
 
+    /**
+     * Score a contiguous block of feature rows laid out as in {@link FeatureRows}.
+     * Implementations should override this to amortize per-call overhead;
+     * the default scores row by row.
+     */
+    default double[] scoreBatch(double[][] rows) throws Exception {
+        double[] scores = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            scores[i] = score(FeatureRows.toFeatureVector(rows[i]));
+        }
+        return scores;
+    }
+
 }
@@ -0,0 +1,97 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.dto.FeatureVector;
+import weka.classifiers.trees.RandomForest;
+import weka.core.*;
+
+import java.util.ArrayList;
+
+/**
+ * Weka inference over one trained forest. The forest must not be rebuilt once wrapped.
+ */
+public class WekaForestModel implements TrustModel {
+
+    private static final Instances STRUCTURE = buildStructure();
+
+    private final RandomForest forest;
+
+    public WekaForestModel(RandomForest forest) {
+        this.forest = forest;
+    }
+
+    /**
+     * Header of the model input: the FeatureRows columns followed by the trustScore target
+     */
+    public static Instances structure() {
+        return STRUCTURE;
+    }
+
+    private static Instances buildStructure() {
+        ArrayList<Attribute> attrs = new ArrayList<>();
+
+        attrs.add(new Attribute("failedLoginRate"));
+        attrs.add(new Attribute("nightAccessRate"));
+        attrs.add(new Attribute("loginFrequency24h"));
+        attrs.add(new Attribute("avgDeviceRisk"));
+        attrs.add(new Attribute("unpatchedDeviceRatio"));
+        attrs.add(new Attribute("antivirusDisabledRatio"));
+        attrs.add(new Attribute("networkRiskScore"));
+        attrs.add(new Attribute("locationChangeScore"));
+        attrs.add(new Attribute("timeAnomalyScore"));
+        attrs.add(new Attribute("secondsSinceLastLogin"));
+
+        // Target
+        attrs.add(new Attribute("trustScore"));
+
+        Instances data = new Instances("TrustData", attrs, 0);
+        data.setClassIndex(attrs.size() - 1);
+        return data;
+    }
+
+    public RandomForest getForest() {
+        return forest;
+    }
+
+    @Override
+    public double score(FeatureVector f) throws Exception {
+        Instance inst = new DenseInstance(STRUCTURE.numAttributes());
+        inst.setDataset(STRUCTURE);
+
+        inst.setValue(0, f.getFailedLoginRate());
+        inst.setValue(1, f.getNightAccessRate());
+        inst.setValue(2, f.getLoginFrequency24h());
+        inst.setValue(3, f.getAvgDeviceRisk());
+        inst.setValue(4, f.getUnpatchedDeviceRatio());
+        inst.setValue(5, f.getAntivirusDisabledRatio());
+        inst.setValue(6, f.getNetworkRiskScore());
+        inst.setValue(7, f.getLocationChangeScore());
+        inst.setValue(8, f.getTimeAnomalyScore());
+        inst.setValue(9, f.getSecondsSinceLastLogin());
+
+        inst.setMissing(10);
+
+        double score = forest.classifyInstance(inst);
+        return Math.max(0, Math.min(100, score));
+    }
+
+    /**
+     * Batch scoring: one instance bound to the header once, whose backing
+     * array is refilled for every row (DenseInstance keeps a reference to it)
+     */
+    @Override
+    public double[] scoreBatch(double[][] rows) throws Exception {
+        double[] values = new double[STRUCTURE.numAttributes()];
+        Instance inst = new DenseInstance(1.0, values);
+        inst.setDataset(STRUCTURE);
+
+        int classIndex = STRUCTURE.classIndex();
+        double[] scores = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, values, 0, FeatureRows.NUM_FEATURES);
+            values[classIndex] = Utils.missingValue();
+            double score = forest.classifyInstance(inst);
+            scores[i] = Math.max(0, Math.min(100, score));
+        }
+        return scores;
+    }
+}
@@ -1,73 +1,72 @@
 package com.zerotrust.backend.services.trust;
 
 import com.zerotrust.backend.dto.FeatureVector;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import weka.classifiers.trees.RandomForest;
-import weka.core.*;
+import weka.core.Instances;
 
-import java.util.ArrayList;
+import java.time.Instant;
 
+/**
+ * Weka view of the active model version in the ModelRegistry
+ */
 @Service
+@RequiredArgsConstructor
 public class WekaTrustModel implements TrustModel {
 
-    private final RandomForest model;
-    private Instances structure;
+    private final ModelRegistry registry;
 
-    public WekaTrustModel() throws Exception {
-        this.model = new RandomForest();
-        this.model.setNumIterations(100);
-        this.structure = buildStructure();
+    /**
+     * Train a default forest (100 trees) and make it the active version
+     */
+    public ModelVersion train(Instances trainingData) throws Exception {
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(100);
+        return train(trainingData, forest);
     }
 
-    private Instances buildStructure() {
-        ArrayList<Attribute> attrs = new ArrayList<>();
-
-        attrs.add(new Attribute("failedLoginRate"));
-        attrs.add(new Attribute("nightAccessRate"));
-        attrs.add(new Attribute("loginFrequency24h"));
-        attrs.add(new Attribute("avgDeviceRisk"));
-        attrs.add(new Attribute("unpatchedDeviceRatio"));
-        attrs.add(new Attribute("antivirusDisabledRatio"));
-        attrs.add(new Attribute("networkRiskScore"));
-        attrs.add(new Attribute("locationChangeScore"));
-        attrs.add(new Attribute("timeAnomalyScore"));
-        attrs.add(new Attribute("secondsSinceLastLogin"));
-
-        // Target
-        attrs.add(new Attribute("trustScore"));
-
-        Instances data = new Instances("TrustData", attrs, 0);
-        data.setClassIndex(attrs.size() - 1);
-        return data;
+    /**
+     * Build the given (configured, untrained) forest off to the side and swap it in as a new version
+     */
+    public ModelVersion train(Instances trainingData, RandomForest forest) throws Exception {
+        forest.buildClassifier(trainingData);
+        return registry.register(forest, "trained", Instant.now());
     }
 
-    public void train(Instances trainingData) throws Exception {
-        model.buildClassifier(trainingData);
+    /**
+     * Allocation-free compiled form of the active forest, or null if not trained
+     */
+    public CompiledForestModel getCompiledModel() {
+        ModelVersion version = registry.active();
+        return version == null ? null : version.compiled();
     }
 
+    /**
+     * Active trained forest, or null if not trained or only the compact form was loaded;
+     * must not be modified
+     */
     public RandomForest getClassifier() {
-        return model;
+        ModelVersion version = registry.active();
+        return version == null || version.weka() == null ? null : version.weka().getForest();
     }
 
+    // Versions loaded from the compact model file have no Weka forest and score compiled
     @Override
     public double score(FeatureVector f) throws Exception {
-        Instance inst = new DenseInstance(structure.numAttributes());
-        inst.setDataset(structure);
-
-        inst.setValue(0, f.getFailedLoginRate());
-        inst.setValue(1, f.getNightAccessRate());
-        inst.setValue(2, f.getLoginFrequency24h());
-        inst.setValue(3, f.getAvgDeviceRisk());
-        inst.setValue(4, f.getUnpatchedDeviceRatio());
-        inst.setValue(5, f.getAntivirusDisabledRatio());
-        inst.setValue(6, f.getNetworkRiskScore());
-        inst.setValue(7, f.getLocationChangeScore());
-        inst.setValue(8, f.getTimeAnomalyScore());
-        inst.setValue(9, f.getSecondsSinceLastLogin());
+        return activeVersion().scorer("weka").score(f);
+    }
 
-        inst.setMissing(10);
+    @Override
+    public double[] scoreBatch(double[][] rows) throws Exception {
+        return activeVersion().scorer("weka").scoreBatch(rows);
+    }
 
-        double score = model.classifyInstance(inst);
-        return Math.max(0, Math.min(100, score));
+    private ModelVersion activeVersion() {
+        ModelVersion version = registry.active();
+        if (version == null) {
+            throw new IllegalStateException("Model not trained. Please train the model first.");
+        }
+        return version;
     }
 }
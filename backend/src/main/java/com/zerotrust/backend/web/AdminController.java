@@ -1,13 +1,28 @@
 package com.zerotrust.backend.web;
 
 import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.ml.DatasetCache;
+import com.zerotrust.backend.ml.InferenceBenchmarkService;
+import com.zerotrust.backend.ml.JobProgress;
+import com.zerotrust.backend.ml.MlJobService;
 import com.zerotrust.backend.ml.ModelEvaluationService;
 import com.zerotrust.backend.ml.ModelTrainingService;
+import com.zerotrust.backend.ml.ThresholdSweep;
+import com.zerotrust.backend.ml.TrainingConfig;
 import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.security.JwtAuthBenchmarkService;
+import com.zerotrust.backend.services.cache.InferenceCache;
+import com.zerotrust.backend.services.features.FeatureStateStore;
+import com.zerotrust.backend.services.shadow.ShadowScoringService;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,11 +40,19 @@ public class AdminController {
 
     private final ModelTrainingService trainingService;
     private final ModelEvaluationService evaluationService;
+    private final InferenceBenchmarkService benchmarkService;
+    private final MlJobService jobService;
+    private final DatasetCache datasetCache;
+    private final JwtAuthBenchmarkService jwtAuthBenchmarkService;
     private final UserRepository userRepository;
+    private final FeatureStateStore featureStateStore;
+    private final ModelRegistry modelRegistry;
+    private final ShadowScoringService shadowScoring;
+    private final InferenceCache inferenceCache;
 
     /**
      * Train the ML model with synthetic data
-     * POST /api/admin/train?samples=1000
+     * POST /api/admin/train?samples=1000&trees=100&maxDepth=0&slots=0&seed=42&candidate=false
      */
     @PostMapping("/train")
     @Operation(
@@ -40,9 +63,12 @@ public class AdminController {
             **Training Process:**
             1. Generates balanced synthetic dataset (1/3 LOW, 1/3 MEDIUM, 1/3 HIGH risk)
             2. Creates 10-feature vectors with labeled trust scores (0-100)
-            3. Trains Random Forest with 100 decision trees
+            3. Trains Random Forest (100 decision trees by default), building trees in parallel
             4. Saves model to disk at `models/trust_model.model`
             
+            Data generation is split across cores with independent random streams; the dataset
+            only depends on `seed`, not on the number of slots.
+            
             **Feature Generation:**
             - LOW RISK: failedLoginRate < 5%, secure devices, internal networks → Score 75-95
             - MEDIUM RISK: failedLoginRate 5-20%, moderate device risk → Score 40-74
@@ -50,20 +76,51 @@ public class AdminController {
             
             **Model Configuration:**
             - Algorithm: Random Forest Regression
-            - Trees: 100 (ensemble learning)
+            - Trees: `trees` (default 100)
+            - Max depth: `maxDepth` (0 = unlimited)
+            - Execution slots: `slots` cores for generation and tree building (0 = all cores)
             - Features: 10 behavioral/device/contextual signals
             
             **Response:**
-            Returns training metrics including sample count, duration, and model path.
+            Returns training metrics including sample count, generation/build durations, configuration and model path.
             
             **Typical Training Time:** ~1-2 seconds for 1000 samples
+            
+            With `candidate=true` the new version is not activated or saved; it becomes the shadow
+            candidate (see `GET /api/admin/models/shadow`) until it is promoted.
+            
+            Runs on the request thread; larger runs (above `trust.jobs.sync-max-samples`) must be
+            submitted through `POST /api/admin/jobs/train`. `slots` is capped at
+            `trust.jobs.max-training-slots` like for jobs, and synchronous runs count towards
+            `trust.jobs.max-concurrent` (429 with Retry-After while it is reached).
             """
     )
     public ResponseEntity<?> trainModel(
-            @Parameter(description = "Number of training samples (recommended: 1000-5000)") @RequestParam(defaultValue = "1000") int samples) {
+            @Parameter(description = "Number of training samples (recommended: 1000-5000)") @RequestParam(defaultValue = "1000") int samples,
+            @Parameter(description = "Number of trees") @RequestParam(defaultValue = "100") int trees,
+            @Parameter(description = "Maximum tree depth (0 = unlimited)") @RequestParam(defaultValue = "0") int maxDepth,
+            @Parameter(description = "Cores used for training (0 = all)") @RequestParam(defaultValue = "0") int slots,
+            @Parameter(description = "Seed for data generation and the forest") @RequestParam(defaultValue = "42") long seed,
+            @Parameter(description = "Register as the shadow candidate instead of activating") @RequestParam(defaultValue = "false") boolean candidate) {
         try {
-            ModelTrainingService.TrainingResult result = trainingService.trainModel(samples);
+            TrainingConfig config = TrainingConfig.builder()
+                    .numTrees(trees)
+                    .maxDepth(maxDepth)
+                    .executionSlots(slots)
+                    .seed(seed)
+                    .candidate(candidate)
+                    .build();
+            config.validate();
+            // Same cap as training jobs; applied once validated so a negative value is rejected
+            config.setExecutionSlots(jobService.trainingSlots(slots));
+            ModelTrainingService.TrainingResult result =
+                    jobService.runSynchronously(samples, "train", () -> trainingService.trainModel(samples, config));
             return ResponseEntity.ok(result);
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", e.getMessage()));
@@ -81,7 +138,8 @@ public class AdminController {
             Evaluate the trained Random Forest model using fresh test data.
             
             **Evaluation Process:**
-            1. Generates new synthetic test dataset (different seed from training)
+            1. Uses the synthetic test dataset (`trust.evaluation.seed`, different from training),
+               generated on first use and memory-mapped from the dataset cache afterwards
             2. Makes predictions for all test samples
             3. Compares predictions vs. ground truth labels
             4. Calculates regression metrics
@@ -102,14 +160,22 @@ public class AdminController {
             - Before deploying to production
             
             **Typical Evaluation Time:** ~0.5 seconds for 500 samples
+            
+            Larger runs (above `trust.jobs.sync-max-samples`) must be submitted through
+            `POST /api/admin/jobs/evaluate`.
             """
     )
     public ResponseEntity<?> evaluateModel(
             @Parameter(description = "Number of test samples (recommended: 500-1000)") @RequestParam(defaultValue = "500") int samples) {
         try {
             ModelEvaluationService.EvaluationMetrics metrics =
-                    evaluationService.evaluateModel(samples);
+                    jobService.runSynchronously(samples, "evaluate", () -> evaluationService.evaluateModel(samples));
             return ResponseEntity.ok(metrics);
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", e.getMessage()));
@@ -118,6 +184,44 @@ public class AdminController {
 
     // Removed - use /evaluate endpoint for model validation
 
+    /**
+     * k-fold cross-validation with folds evaluated concurrently
+     * GET /api/admin/cross-validate?samples=2000&folds=10&compareSequential=false
+     */
+    @GetMapping("/cross-validate")
+    @Operation(
+        summary = "Cross-Validate Model",
+        description = """
+            k-fold cross-validation of the current Random Forest configuration on synthetic data.
+            
+            Folds are trained and evaluated concurrently on a bounded pool
+            (`trust.evaluation.max-threads`, default half of the cores, so live scoring keeps the rest).
+            MAE, RMSE and correlation are merged from the per-fold error sums, i.e. they describe
+            all out-of-fold predictions together rather than an average of fold metrics.
+            
+            The dataset is generated once per sample size and reused by later calls.
+            With `compareSequential=true` the same folds are also run one after another and
+            `additionalMetrics` reports `parallelTimeMs`, `sequentialTimeMs` and `speedup`.
+            """
+    )
+    public ResponseEntity<?> crossValidate(
+            @Parameter(description = "Number of samples") @RequestParam(defaultValue = "2000") int samples,
+            @Parameter(description = "Number of folds") @RequestParam(defaultValue = "10") int folds,
+            @Parameter(description = "Also time the sequential path") @RequestParam(defaultValue = "false") boolean compareSequential) {
+        try {
+            return ResponseEntity.ok(jobService.runSynchronously(samples, "cross-validate",
+                    () -> evaluationService.crossValidate(samples, folds, compareSequential)));
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get confusion matrix and false positive/negative rates
      * GET /api/admin/confusion-metrics?samples=500
@@ -157,16 +261,246 @@ public class AdminController {
             
             **Use Cases:**
             - Security vs. usability trade-off analysis
-            - Threshold tuning (adjust 40 cutoff point)
+            - Threshold tuning (adjust 40 cutoff point; see `/threshold-sweep` for many thresholds at once)
             - Compliance reporting
+            
+            Larger runs (above `trust.jobs.sync-max-samples`) must be submitted through
+            `POST /api/admin/jobs/confusion-metrics`.
             """
     )
     public ResponseEntity<?> getConfusionMetrics(
             @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "500") int samples) {
         try {
-            ModelEvaluationService.ConfusionMetrics metrics =
-                    evaluationService.calculateConfusionMetrics(samples);
+            ModelEvaluationService.ConfusionMetrics metrics = jobService.runSynchronously(samples,
+                    "confusion-metrics", () -> evaluationService.calculateConfusionMetrics(samples));
             return ResponseEntity.ok(metrics);
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Confusion matrices for a range of thresholds plus ROC and precision-recall curves
+     * GET /api/admin/threshold-sweep?samples=5000&positiveBelow=40&from=0&to=100&step=1&curvePoints=200
+     */
+    @GetMapping("/threshold-sweep")
+    @Operation(
+        summary = "Sweep Risk Thresholds",
+        description = """
+            Scores the test set once and derives a confusion matrix for every threshold
+            `from, from + step, ... to` (a score below the threshold is flagged), plus ROC and
+            precision-recall curves over every distinct predicted score with their exact areas.
+            
+            `positiveBelow` sets the actual positive class: 40 for HIGH risk, 70 for HIGH or MEDIUM,
+            so both risk cutoffs can be tuned without re-running inference per candidate.
+            
+            **Returned:** per-threshold TP/TN/FP/FN, FPR, FNR, precision, recall, accuracy and F1;
+            the thresholds with the best F1 and the best TPR - FPR; ROC AUC, average precision
+            and curves reduced to at most `curvePoints` points.
+            """
+    )
+    public ResponseEntity<?> sweepThresholds(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "5000") int samples,
+            @Parameter(description = "Labels below this are the positive (risky) class") @RequestParam(defaultValue = "40") double positiveBelow,
+            @Parameter(description = "First threshold") @RequestParam(defaultValue = "0") double from,
+            @Parameter(description = "Last threshold") @RequestParam(defaultValue = "100") double to,
+            @Parameter(description = "Threshold step") @RequestParam(defaultValue = "1") double step,
+            @Parameter(description = "Maximum points per curve") @RequestParam(defaultValue = "200") int curvePoints) {
+        try {
+            ThresholdSweep.thresholdCount(from, to, step);
+            return ResponseEntity.ok(jobService.runSynchronously(samples, "threshold-sweep",
+                    () -> evaluationService.analyzeThresholds(samples, positiveBelow, from, to, step,
+                            curvePoints, JobProgress.NONE)));
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Cached synthetic datasets
+     * GET /api/admin/datasets
+     */
+    @GetMapping("/datasets")
+    @Operation(summary = "Get Dataset Cache",
+               description = "Dataset files cached on disk by (seed, size, profile mix), total size, hits and generations")
+    public ResponseEntity<?> getDatasetCache() {
+        try {
+            return ResponseEntity.ok(datasetCache.stats());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete cached synthetic datasets
+     * DELETE /api/admin/datasets
+     */
+    @DeleteMapping("/datasets")
+    @Operation(summary = "Clear Dataset Cache",
+               description = "Delete all cached dataset files; the next training or evaluation regenerates its data")
+    public ResponseEntity<?> clearDatasetCache() {
+        try {
+            return ResponseEntity.ok(Map.of("deleted", datasetCache.clear()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Inference cache statistics
+     * GET /api/admin/inference-cache
+     */
+    @GetMapping("/inference-cache")
+    @Operation(
+        summary = "Get Inference Cache",
+        description = """
+            Scores of the active model version memoized by feature row quantized to the forest's
+            split points, used by logins, the recompute pass and event-driven re-scoring.
+            A hit is exactly the score the model would return. Shows size, hit ratio, the model
+            version the entries belong to, mean inference cost of a miss and the inference time
+            saved by hits (also exported as `trust.inference.cache.*` metrics).
+            """
+    )
+    public ResponseEntity<?> getInferenceCache() {
+        return ResponseEntity.ok(inferenceCache.stats());
+    }
+
+    /**
+     * Drop memoized scores
+     * DELETE /api/admin/inference-cache
+     */
+    @DeleteMapping("/inference-cache")
+    @Operation(summary = "Clear Inference Cache",
+               description = "Drop all memoized scores; counters are kept")
+    public ResponseEntity<?> clearInferenceCache() {
+        inferenceCache.clear();
+        return ResponseEntity.ok(inferenceCache.stats());
+    }
+
+    /**
+     * Compare Weka and compiled-forest inference latency
+     * GET /api/admin/benchmark/inference?samples=2000&rounds=5
+     */
+    @GetMapping("/benchmark/inference")
+    @Operation(
+        summary = "Benchmark Model Inference",
+        description = """
+            Scores the same synthetic rows through Weka's classifyInstance path and through
+            the compiled (flattened, allocation-free) forest.
+            
+            **Returned:** nanoseconds per score for each engine, speedup, and the largest
+            absolute difference between the two outputs (expected: 0).
+            """
+    )
+    public ResponseEntity<?> benchmarkInference(
+            @Parameter(description = "Number of rows scored per round") @RequestParam(defaultValue = "2000") int samples,
+            @Parameter(description = "Timed rounds (after one warm-up round)") @RequestParam(defaultValue = "5") int rounds) {
+        try {
+            return ResponseEntity.ok(benchmarkService.benchmarkInference(samples, rounds));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Compare saved model formats
+     * GET /api/admin/benchmark/model-format?rounds=5
+     */
+    @GetMapping("/benchmark/model-format")
+    @Operation(
+        summary = "Benchmark Model File Formats",
+        description = """
+            Writes the active version as a Java-serialized Weka forest and as the compact
+            memory-mapped model file, then loads each repeatedly.
+            
+            **Returned:** file sizes, mean load time per format (the serialized forest also
+            needs compiling before it serves), size ratio and load speedup.
+            """
+    )
+    public ResponseEntity<?> benchmarkModelFormat(
+            @Parameter(description = "Timed loads per format (after one warm-up load)") @RequestParam(defaultValue = "5") int rounds) {
+        try {
+            return ResponseEntity.ok(benchmarkService.benchmarkModelFormat(rounds));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Compare the model engines of the active version
+     * GET /api/admin/benchmark/engines?samples=5000
+     */
+    @GetMapping("/benchmark/engines")
+    @Operation(
+        summary = "Compare Model Engines",
+        description = """
+            Scores the held-out test set (`trust.evaluation.seed`) with every engine of the active
+            version: the Weka and compiled forest, and the boosted-tree (`gbdt`) and ridge
+            (`linear`) engines trained on the same data (`trust.model.extra-engines`).
+            
+            **Returned per engine:** p50/p99/max latency of a single-row score (login path),
+            batch cost per row (recompute path), model size in bytes (Java-serialized size for
+            Weka) and MAE/RMSE against the labels. `servingEngine` is the engine live scoring
+            uses under `trust.model.engine`.
+            
+            Larger runs (above `trust.jobs.sync-max-samples`) must be submitted through
+            `POST /api/admin/jobs/engine-comparison`.
+            """
+    )
+    public ResponseEntity<?> compareEngines(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "5000") int samples) {
+        try {
+            return ResponseEntity.ok(jobService.runSynchronously(samples, "engine-comparison",
+                    () -> benchmarkService.compareEngines(samples)));
+        } catch (MlJobService.SaturatedException e) {
+            return tooManyRuns(e);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Compare request authentication throughput
+     * GET /api/admin/benchmark/jwt-auth?iterations=2000
+     */
+    @GetMapping("/benchmark/jwt-auth")
+    @Operation(
+        summary = "Benchmark JWT Authentication",
+        description = """
+            Authenticates one token for the first user repeatedly through three paths:
+            the legacy flow (token parsed three times with the key rebuilt each time, plus a
+            user lookup), the single-pass claims path, and the verified-token cache.
+            
+            **Returned:** requests per second for each path and speedups over the legacy flow.
+            """
+    )
+    public ResponseEntity<?> benchmarkJwtAuth(
+            @Parameter(description = "Authentications per path") @RequestParam(defaultValue = "2000") int iterations) {
+        try {
+            User user = userRepository.findAllByOrderByIdAsc(Limit.of(1)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No users to benchmark with"));
+            return ResponseEntity.ok(jwtAuthBenchmarkService.benchmark(user, iterations));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", e.getMessage()));
@@ -185,6 +519,139 @@ public class AdminController {
 
     // Removed redundant endpoints - model is auto-saved after training
 
+    /**
+     * List registered model versions
+     * GET /api/admin/models
+     */
+    @GetMapping("/models")
+    @Operation(summary = "List Model Versions",
+               description = "Model versions kept in the registry (newest first) and which one is scoring")
+    public ResponseEntity<?> listModelVersions() {
+        return ResponseEntity.ok(modelRegistry.versions());
+    }
+
+    /**
+     * Make a retained model version active again (rollback)
+     * POST /api/admin/models/{versionId}/activate
+     */
+    @PostMapping("/models/{versionId}/activate")
+    @Operation(summary = "Activate Model Version",
+               description = "Atomically switch scoring to a retained model version; in-flight scoring finishes on the old one")
+    public ResponseEntity<?> activateModelVersion(@PathVariable String versionId) {
+        try {
+            ModelVersion version = modelRegistry.activate(versionId);
+            return ResponseEntity.ok(Map.of("active", version.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Shadow scoring statistics of the candidate model version
+     * GET /api/admin/models/shadow
+     */
+    @GetMapping("/models/shadow")
+    @Operation(
+        summary = "Shadow Scoring Statistics",
+        description = """
+            Disagreement between the candidate and the active model on sampled live traffic
+            (logins and recompute/re-scoring batches, `trust.shadow.sample-rate`).
+            
+            - `meanDelta`, `deltaStdDev`: candidate score minus active score
+            - `meanAbsoluteDelta`, `maxAbsoluteDelta`
+            - `levelFlips`: active risk level -> candidate risk level -> rows; `flipRate` is the
+              share of rows whose level differs, split into `candidateRiskier` and `candidateLessRisky`
+            - `dropped`: samples discarded because the shadow queue was full
+            
+            Statistics start over whenever the active or candidate version changes. Shadow scoring
+            runs on its own executor (`trust.shadow.threads` threads, bounded queue) and never
+            delays the scoring response.
+            """
+    )
+    public ResponseEntity<?> getShadowStats() {
+        return ResponseEntity.ok(shadowScoring.stats());
+    }
+
+    /**
+     * Make a retained model version the shadow candidate
+     * POST /api/admin/models/{versionId}/shadow
+     */
+    @PostMapping("/models/{versionId}/shadow")
+    @Operation(summary = "Set Candidate Model Version",
+               description = "Score a sample of live traffic with a retained version alongside the active one; results are unaffected")
+    public ResponseEntity<?> setCandidateVersion(@PathVariable String versionId) {
+        try {
+            ModelVersion version = modelRegistry.setCandidate(versionId);
+            return ResponseEntity.ok(Map.of("candidate", version.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stop shadow scoring
+     * DELETE /api/admin/models/shadow
+     */
+    @DeleteMapping("/models/shadow")
+    @Operation(summary = "Clear Candidate Model Version",
+               description = "Stop shadow scoring; the candidate version stays retained")
+    public ResponseEntity<?> clearCandidateVersion() {
+        ModelVersion previous = modelRegistry.clearCandidate();
+        return ResponseEntity.ok(Map.of("cleared", previous != null));
+    }
+
+    /**
+     * Make the candidate the active version
+     * POST /api/admin/models/shadow/promote
+     */
+    @PostMapping("/models/shadow/promote")
+    @Operation(summary = "Promote Candidate Model Version",
+               description = "Atomically switch scoring to the candidate version and save it as the model file")
+    public ResponseEntity<?> promoteCandidateVersion() {
+        try {
+            ModelVersion version = trainingService.promoteCandidate();
+            return ResponseEntity.ok(Map.of("active", version.id()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Load the saved model file as a new active version
+     * POST /api/admin/models/load
+     */
+    @PostMapping("/models/load")
+    @Operation(summary = "Load Saved Model",
+               description = """
+                   Load the saved model and hot-swap it in as the active version.
+                   `format=weka` deserializes `models/trust_model.model`; `format=compact` maps
+                   `models/trust_model.ztrf`, the compiled forest with the engines saved alongside it
+                   (the Weka engine is not available for it).
+                   """)
+    public ResponseEntity<?> loadModel(
+            @Parameter(description = "Saved format: weka or compact") @RequestParam(defaultValue = "weka") String format) {
+        try {
+            ModelVersion version = switch (format) {
+                case "weka" -> trainingService.loadModel();
+                case "compact" -> trainingService.loadCompactModel();
+                default -> throw new IllegalArgumentException("Unknown model format: " + format);
+            };
+            return ResponseEntity.ok(Map.of("active", version.id()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Unlock a locked user account
      * POST /api/admin/unlock-user/{userId}
@@ -211,6 +678,24 @@ public class AdminController {
         }
     }
 
+    /**
+     * Check incremental feature state against a full scan of the user's events
+     * POST /api/admin/feature-store/{userId}/verify
+     */
+    @PostMapping("/feature-store/{userId}/verify")
+    @Operation(summary = "Verify Feature State", description = "Compare a user's incremental feature aggregates with a full database scan; rebuilds the state on mismatch")
+    public ResponseEntity<?> verifyFeatureState(
+            @Parameter(description = "User ID") @PathVariable UUID userId) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            return ResponseEntity.ok(featureStateStore.checkConsistency(user));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get all users (for admin management)
      * GET /api/admin/users
@@ -220,4 +705,11 @@ public class AdminController {
     public ResponseEntity<?> getAllUsers() {
         return ResponseEntity.ok(userRepository.findAll());
     }
+
+    // Same response as a full job queue (MlJobController)
+    private static ResponseEntity<?> tooManyRuns(MlJobService.SaturatedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(Map.of("error", e.getMessage()));
+    }
 }
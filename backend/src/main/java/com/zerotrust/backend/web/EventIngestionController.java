@@ -0,0 +1,72 @@
+package com.zerotrust.backend.web;
+
+import com.zerotrust.backend.dto.IngestBatchRequest;
+import com.zerotrust.backend.services.ingest.AccessEventIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Access event ingestion endpoints for gateways
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Tag(name = "Event Ingestion", description = "Bulk ingestion of gateway access events")
+public class EventIngestionController {
+
+    private final AccessEventIngestionService ingestionService;
+
+    /**
+     * Ingest a batch of access events
+     * POST /api/events/batch
+     */
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Ingest Access Events",
+        description = """
+            Validates and stores a batch of access events in one multi-row write (PostgreSQL COPY when
+            available). Invalid events and events for unknown users or devices are rejected individually
+            and listed by index; the rest are stored before the response is sent.
+            
+            **Responses:** 200 with accepted/rejected counts and events/sec, 400 for an empty or oversized
+            batch, 429 (with Retry-After) when the ingestion buffer is saturated.
+            """
+    )
+    public ResponseEntity<?> ingestBatch(@RequestBody IngestBatchRequest request) {
+        try {
+            return ResponseEntity.ok(ingestionService.ingest(request.getEvents()));
+        } catch (AccessEventIngestionService.SaturatedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Cumulative ingestion statistics
+     * GET /api/events/ingest-stats
+     */
+    @GetMapping("/ingest-stats")
+    @Operation(summary = "Get Ingestion Statistics",
+               description = "Accepted/rejected totals, throughput, in-flight events and resolver cache statistics")
+    public ResponseEntity<?> getIngestStats() {
+        return ResponseEntity.ok(ingestionService.stats());
+    }
+}
@@ -0,0 +1,106 @@
+package com.zerotrust.backend.web;
+
+import com.zerotrust.backend.services.export.ExportFormat;
+import com.zerotrust.backend.services.export.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk export endpoints for offline analysis and compliance
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Tag(name = "Export", description = "Streaming bulk export of history and event data")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Export risk score history
+     * GET /api/export/risk-history?format=csv&gzip=true
+     */
+    @GetMapping("/risk-history")
+    @Operation(
+        summary = "Export Risk Score History",
+        description = """
+            Streams risk_score_history as NDJSON (one JSON object per line) or CSV with a header row.
+            Rows are read through a database cursor and written as they arrive, so exports of any
+            size use constant memory. With `gzip=true` the body is a .gz file.
+            """
+    )
+    public ResponseEntity<?> exportRiskHistory(
+            @Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Only scores calculated at or after this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Only scores calculated before this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        ExportFormat exportFormat = parseFormat(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported format: " + format));
+        }
+        return streaming("risk_score_history", exportFormat, gzip,
+                out -> exportService.exportRiskHistory(exportFormat, gzip, from, to, out));
+    }
+
+    /**
+     * Export access events
+     * GET /api/export/access-events?format=ndjson
+     */
+    @GetMapping("/access-events")
+    @Operation(
+        summary = "Export Access Events",
+        description = """
+            Streams access_events as NDJSON (one JSON object per line) or CSV with a header row.
+            Rows are read through a database cursor and written as they arrive, so exports of any
+            size use constant memory. With `gzip=true` the body is a .gz file.
+            """
+    )
+    public ResponseEntity<?> exportAccessEvents(
+            @Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Only events at or after this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Only events before this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        ExportFormat exportFormat = parseFormat(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported format: " + format));
+        }
+        return streaming("access_events", exportFormat, gzip,
+                out -> exportService.exportAccessEvents(exportFormat, gzip, from, to, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streaming(String name, ExportFormat format, boolean gzip,
+                                                                   StreamingResponseBody body) {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private static ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.zerotrust.backend.web;
 
-import com.zerotrust.backend.entities.RiskScoreHistory;
 import com.zerotrust.backend.enums.RiskLevel;
 import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
 import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.DashboardAggregateService;
+import com.zerotrust.backend.services.RiskScoreHistoryWriter;
+import com.zerotrust.backend.services.TrustScoreEngine;
+import com.zerotrust.backend.services.cache.LatestRiskIndex;
+import com.zerotrust.backend.services.cluster.RecomputeClusterCoordinator;
+import com.zerotrust.backend.services.rescore.RescoringPipeline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -14,7 +19,6 @@ import org.springframework.web.bind.annotation.RestController;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,33 +32,24 @@ public class MetricsController {
 
     private final RiskScoreHistoryRepository historyRepo;
     private final UserRepository userRepo;
+    private final TrustScoreEngine trustScoreEngine;
+    private final LatestRiskIndex latestRiskIndex;
+    private final RiskScoreHistoryWriter historyWriter;
+    private final DashboardAggregateService dashboardAggregates;
+    private final RescoringPipeline rescoringPipeline;
+    private final RecomputeClusterCoordinator clusterCoordinator;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get Dashboard Statistics", 
                description = "Get comprehensive dashboard statistics with risk distribution and explanations")
     public Map<String, Object> getDashboardStats() {
-        List<RiskScoreHistory> allScores = historyRepo.findAll();
-        long totalUsers = userRepo.count();
-        
-        // Calculate latest score per user
-        Map<String, RiskScoreHistory> latestScores = new HashMap<>();
-        allScores.forEach(score -> {
-            String userId = score.getUser().getId().toString();
-            if (!latestScores.containsKey(userId) || 
-                score.getCalculatedAt().isAfter(latestScores.get(userId).getCalculatedAt())) {
-                latestScores.put(userId, score);
-            }
-        });
-        
-        long highRiskUsers = latestScores.values().stream()
-                .filter(s -> s.getLevel() == RiskLevel.HIGH).count();
-        long mediumRiskUsers = latestScores.values().stream()
-                .filter(s -> s.getLevel() == RiskLevel.MEDIUM).count();
-        long lowRiskUsers = latestScores.values().stream()
-                .filter(s -> s.getLevel() == RiskLevel.LOW).count();
-
-        double avgScore = latestScores.values().stream()
-                .mapToDouble(RiskScoreHistory::getScore).average().orElse(0.0);
+        // Served from incrementally maintained aggregates; no history scan
+        DashboardAggregateService.DashboardSnapshot snapshot = dashboardAggregates.snapshot();
+        long totalUsers = snapshot.getTotalUsers();
+        long highRiskUsers = snapshot.getHighRiskUsers();
+        long mediumRiskUsers = snapshot.getMediumRiskUsers();
+        long lowRiskUsers = snapshot.getLowRiskUsers();
+        double avgScore = snapshot.getAverageTrustScore();
 
         Map<String, Object> dashboard = new HashMap<>();
         
@@ -65,7 +60,7 @@ public class MetricsController {
         stats.put("mediumRiskUsers", mediumRiskUsers);
         stats.put("lowRiskUsers", lowRiskUsers);
         stats.put("averageTrustScore", Math.round(avgScore * 10.0) / 10.0);
-        stats.put("totalScoreCalculations", allScores.size());
+        stats.put("totalScoreCalculations", snapshot.getTotalScoreCalculations());
         dashboard.put("stats", stats);
         
         // Risk distribution with percentages
@@ -128,6 +123,24 @@ public class MetricsController {
         app.put("totalScoreCalculations", historyRepo.count());
         app.put("timestamp", Instant.now().toString());
         health.put("application", app);
+
+        // Periodic trust recompute
+        Map<String, Object> recompute = new HashMap<>();
+        recompute.put("running", trustScoreEngine.isPassRunning());
+        recompute.put("lastPass", trustScoreEngine.getLastPassStats());
+        health.put("trustRecompute", recompute);
+
+        // Latest-risk index used by the request filter
+        health.put("latestRiskIndex", latestRiskIndex.stats());
+
+        // Write-behind pipeline for risk_score_history
+        health.put("historyWriter", historyWriter.stats());
+
+        // Event-driven re-scoring
+        health.put("rescoring", rescoringPipeline.stats());
+
+        // Recompute slots leased by this node
+        health.put("recomputeCluster", clusterCoordinator.stats());
         
         return health;
     }
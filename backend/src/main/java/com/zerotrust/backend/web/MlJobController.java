@@ -0,0 +1,229 @@
+package com.zerotrust.backend.web;
+
+import com.zerotrust.backend.ml.InferenceBenchmarkService;
+import com.zerotrust.backend.ml.MlJobService;
+import com.zerotrust.backend.ml.ModelEvaluationService;
+import com.zerotrust.backend.ml.ModelTrainingService;
+import com.zerotrust.backend.ml.ThresholdSweep;
+import com.zerotrust.backend.ml.TrainingConfig;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Background ML jobs: training and evaluation without holding a request thread
+ */
+@RestController
+@RequestMapping("/api/admin/jobs")
+@RequiredArgsConstructor
+@Tag(name = "ML Jobs", description = "Asynchronous training and evaluation jobs")
+public class MlJobController {
+
+    private final MlJobService jobService;
+    private final ModelTrainingService trainingService;
+    private final ModelEvaluationService evaluationService;
+    private final InferenceBenchmarkService benchmarkService;
+
+    /**
+     * Submit a training job
+     * POST /api/admin/jobs/train?samples=100000&trees=100&maxDepth=0&slots=0&seed=42&candidate=false
+     */
+    @PostMapping("/train")
+    @Operation(
+        summary = "Submit Training Job",
+        description = """
+            Same training as `POST /api/admin/train`, run on the background job executor.
+            Returns 202 with the job id at once; poll `GET /api/admin/jobs/{id}` for progress and the
+            training result. `slots` is capped at `trust.jobs.max-training-slots` (default half of
+            the cores) so training leaves capacity for logins and scoring.
+
+            **Responses:** 202 with the queued job, 400 for an invalid configuration,
+            429 (with Retry-After) when the job queue is full.
+            """
+    )
+    public ResponseEntity<?> submitTraining(
+            @Parameter(description = "Number of training samples") @RequestParam(defaultValue = "1000") int samples,
+            @Parameter(description = "Number of trees") @RequestParam(defaultValue = "100") int trees,
+            @Parameter(description = "Maximum tree depth (0 = unlimited)") @RequestParam(defaultValue = "0") int maxDepth,
+            @Parameter(description = "Cores used for training (0 = as many as allowed)") @RequestParam(defaultValue = "0") int slots,
+            @Parameter(description = "Seed for data generation and the forest") @RequestParam(defaultValue = "42") long seed,
+            @Parameter(description = "Register as the shadow candidate instead of activating") @RequestParam(defaultValue = "false") boolean candidate) {
+        TrainingConfig config = TrainingConfig.builder()
+                .numTrees(trees)
+                .maxDepth(maxDepth)
+                .executionSlots(slots)
+                .seed(seed)
+                .candidate(candidate)
+                .build();
+        return submit("train", Map.of("samples", samples, "config", config), () -> {
+            checkSamples(samples);
+            config.validate();
+            // Capped only once validated, so a negative value is rejected rather than mapped to the cap
+            config.setExecutionSlots(jobService.trainingSlots(slots));
+        }, progress -> trainingService.trainModel(samples, config, progress));
+    }
+
+    /**
+     * Submit an evaluation job
+     * POST /api/admin/jobs/evaluate?samples=50000
+     */
+    @PostMapping("/evaluate")
+    @Operation(summary = "Submit Evaluation Job",
+               description = "Same evaluation as `GET /api/admin/evaluate`, run on the background job executor")
+    public ResponseEntity<?> submitEvaluation(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "500") int samples) {
+        return submit("evaluate", Map.of("samples", samples), () -> checkSamples(samples),
+                progress -> evaluationService.evaluateModel(samples, progress));
+    }
+
+    /**
+     * Submit a confusion metrics job
+     * POST /api/admin/jobs/confusion-metrics?samples=50000
+     */
+    @PostMapping("/confusion-metrics")
+    @Operation(summary = "Submit Confusion Metrics Job",
+               description = "Same metrics as `GET /api/admin/confusion-metrics`, run on the background job executor")
+    public ResponseEntity<?> submitConfusionMetrics(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "500") int samples) {
+        return submit("confusion-metrics", Map.of("samples", samples), () -> checkSamples(samples),
+                progress -> evaluationService.calculateConfusionMetrics(samples, progress));
+    }
+
+    /**
+     * Submit a cross-validation job
+     * POST /api/admin/jobs/cross-validate?samples=20000&folds=10&compareSequential=false
+     */
+    @PostMapping("/cross-validate")
+    @Operation(summary = "Submit Cross-Validation Job",
+               description = "Same cross-validation as `GET /api/admin/cross-validate`; progress advances as folds complete")
+    public ResponseEntity<?> submitCrossValidation(
+            @Parameter(description = "Number of samples") @RequestParam(defaultValue = "2000") int samples,
+            @Parameter(description = "Number of folds") @RequestParam(defaultValue = "10") int folds,
+            @Parameter(description = "Also time the sequential path") @RequestParam(defaultValue = "false") boolean compareSequential) {
+        return submit("cross-validate", Map.of("samples", samples, "folds", folds, "compareSequential", compareSequential),
+                () -> {
+                    checkSamples(samples);
+                    if (folds < 2 || folds > samples) {
+                        throw new IllegalArgumentException("folds must be between 2 and the number of samples");
+                    }
+                },
+                progress -> evaluationService.crossValidate(samples, folds, compareSequential, progress));
+    }
+
+    /**
+     * Submit a threshold sweep job
+     * POST /api/admin/jobs/threshold-sweep?samples=100000&positiveBelow=40&from=0&to=100&step=0.5
+     */
+    @PostMapping("/threshold-sweep")
+    @Operation(summary = "Submit Threshold Sweep Job",
+               description = "Same sweep and curves as `GET /api/admin/threshold-sweep`, run on the background job executor")
+    public ResponseEntity<?> submitThresholdSweep(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "5000") int samples,
+            @Parameter(description = "Labels below this are the positive (risky) class") @RequestParam(defaultValue = "40") double positiveBelow,
+            @Parameter(description = "First threshold") @RequestParam(defaultValue = "0") double from,
+            @Parameter(description = "Last threshold") @RequestParam(defaultValue = "100") double to,
+            @Parameter(description = "Threshold step") @RequestParam(defaultValue = "1") double step,
+            @Parameter(description = "Maximum points per curve") @RequestParam(defaultValue = "200") int curvePoints) {
+        return submit("threshold-sweep",
+                Map.of("samples", samples, "positiveBelow", positiveBelow, "from", from, "to", to, "step", step),
+                () -> {
+                    checkSamples(samples);
+                    ThresholdSweep.thresholdCount(from, to, step);
+                },
+                progress -> evaluationService.analyzeThresholds(samples, positiveBelow, from, to, step, curvePoints, progress));
+    }
+
+    /**
+     * Submit an engine comparison job
+     * POST /api/admin/jobs/engine-comparison?samples=100000
+     */
+    @PostMapping("/engine-comparison")
+    @Operation(summary = "Submit Engine Comparison Job",
+               description = "Same report as `GET /api/admin/benchmark/engines`, run on the background job executor")
+    public ResponseEntity<?> submitEngineComparison(
+            @Parameter(description = "Number of test samples") @RequestParam(defaultValue = "5000") int samples) {
+        return submit("engine-comparison", Map.of("samples", samples), () -> checkSamples(samples),
+                progress -> benchmarkService.compareEngines(samples, progress));
+    }
+
+    /**
+     * List jobs and executor state
+     * GET /api/admin/jobs
+     */
+    @GetMapping
+    @Operation(summary = "List Jobs",
+               description = "Executor limits, running and queued counts, and all retained jobs (newest first)")
+    public ResponseEntity<?> listJobs() {
+        return ResponseEntity.ok(jobService.stats());
+    }
+
+    /**
+     * Job status, progress and result
+     * GET /api/admin/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    @Operation(
+        summary = "Get Job",
+        description = """
+            Status (QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED), current phase and progress (0-1).
+            `result` holds the same body the synchronous endpoint returns once the job succeeded;
+            `error` holds the failure message.
+            """
+    )
+    public ResponseEntity<?> getJob(@Parameter(description = "Job ID") @PathVariable String jobId) {
+        return jobService.get(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Unknown job: " + jobId)));
+    }
+
+    /**
+     * Cancel a job
+     * DELETE /api/admin/jobs/{jobId}
+     */
+    @DeleteMapping("/{jobId}")
+    @Operation(
+        summary = "Cancel Job",
+        description = """
+            A queued job is cancelled at once. A running job stops at its next phase boundary
+            (`cancelRequested` is true until then); a training job that already activated its
+            model completes normally.
+            """
+    )
+    public ResponseEntity<?> cancelJob(@Parameter(description = "Job ID") @PathVariable String jobId) {
+        return jobService.cancel(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Unknown job: " + jobId)));
+    }
+
+    // Validation runs before queueing so bad parameters fail the request, not the job
+    private ResponseEntity<?> submit(String type, Map<String, Object> parameters, Runnable validation,
+                                     MlJobService.JobTask task) {
+        try {
+            validation.run();
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(jobService.submit(type, parameters, task));
+        } catch (MlJobService.SaturatedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static void checkSamples(int samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("samples must be positive");
+        }
+    }
+}
@@ -1,17 +1,20 @@
 package com.zerotrust.backend.web;
 
-import com.zerotrust.backend.entities.RiskScoreHistory;
-import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.services.RiskHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -24,14 +27,30 @@ import java.util.UUID;
 @Tag(name = "Risk History", description = "Historical risk score data for analysis")
 public class TrustScoreController {
 
-    private final RiskScoreHistoryRepository historyRepo;
+    private final RiskHistoryService historyService;
 
     @GetMapping("/{userId}")
-    @Operation(summary = "Get Risk Score History", 
-               description = "Get historical risk scores for trend analysis (current score available in /api/auth/user-status)")
-    public List<RiskScoreHistory> getHistory(
-            @Parameter(description = "User ID") @PathVariable UUID userId){
-        return historyRepo.findByUserIdOrderByCalculatedAtDesc(userId);
+    @Operation(summary = "Get Risk Score History",
+               description = """
+                   Get historical risk scores for trend analysis (current score available in /api/auth/user-status).
+                   
+                   Results are paged newest first. Pass `nextCursor` from a response as `cursor` to get the
+                   following (older) page; `from` (inclusive) and `to` (exclusive) bound the time range.
+                   """)
+    public ResponseEntity<?> getHistory(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @Parameter(description = "Only scores calculated at or after this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Only scores calculated before this instant (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max " + RiskHistoryService.MAX_LIMIT + ")")
+            @RequestParam(defaultValue = "" + RiskHistoryService.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(historyService.page(userId, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 }
-
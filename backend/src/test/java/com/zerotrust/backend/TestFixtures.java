@@ -0,0 +1,50 @@
+package com.zerotrust.backend;
+
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.UserRole;
+import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Instances;
+
+/**
+ * Fixtures shared by the model and persistence tests
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Model input rows of the first {@code count} instances (the label column dropped)
+     */
+    public static double[][] featureRows(Instances data, int count) {
+        double[][] rows = new double[count][FeatureRows.NUM_FEATURES];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(data.instance(i).toDoubleArray(), 0, rows[i], 0, FeatureRows.NUM_FEATURES);
+        }
+        return rows;
+    }
+
+    /**
+     * Random forest trained on the data
+     *
+     * @param maxDepth 0 = unlimited
+     */
+    public static RandomForest forest(Instances data, int trees, int maxDepth, int seed) throws Exception {
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(trees);
+        forest.setMaxDepth(maxDepth);
+        forest.setSeed(seed);
+        forest.buildClassifier(data);
+        return forest;
+    }
+
+    public static User saveUser(UserRepository userRepository, String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("x")
+                .role(UserRole.EMPLOYEE)
+                .build());
+    }
+}
@@ -0,0 +1,103 @@
+package com.zerotrust.backend.ml;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetCacheTest {
+
+    // Several generator chunks, the last one partial
+    private static final int SAMPLES = SyntheticDataGenerator.CHUNK_SIZE * 2 + 77;
+
+    @TempDir
+    Path dir;
+
+    private DatasetCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache();
+    }
+
+    private DatasetCache newCache() {
+        DatasetCache cache = new DatasetCache();
+        ReflectionTestUtils.setField(cache, "directory", dir.toString());
+        ReflectionTestUtils.setField(cache, "maxFiles", 2);
+        return cache;
+    }
+
+    @Test
+    void mappedDatasetMatchesTheGeneratorAndIsReused() throws Exception {
+        SyntheticDataset cached = cache.dataset(7L, SAMPLES, SyntheticDataGenerator.ProfileMix.BALANCED, 3);
+        double[][] expected = new SyntheticDataGenerator(7L).generateRows(SAMPLES, 1);
+
+        assertEquals(SAMPLES, cached.size());
+        for (int i = 0; i < SAMPLES; i++) {
+            for (int c = 0; c < SyntheticDataGenerator.NUM_COLUMNS; c++) {
+                assertEquals(expected[i][c], cached.value(i, c), "row " + i + " column " + c);
+            }
+        }
+        assertEquals(1, cache.stats().getGenerated());
+        assertEquals(1, cache.stats().getFiles().size());
+        // Files from another generator version are never picked up
+        assertTrue(cache.stats().getFiles().get(0).startsWith("synthetic-g" + SyntheticDataGenerator.VERSION + "-"));
+
+        // Open mapping reused in-process
+        assertSame(cached, cache.dataset(7L, SAMPLES, SyntheticDataGenerator.ProfileMix.BALANCED, 3));
+
+        // A fresh cache (e.g. after a restart) maps the file instead of generating
+        DatasetCache restarted = newCache();
+        SyntheticDataset remapped = restarted.dataset(7L, SAMPLES, SyntheticDataGenerator.ProfileMix.BALANCED, 1);
+        assertNotSame(cached, remapped);
+        assertEquals(0, restarted.stats().getGenerated());
+        assertEquals(1, restarted.stats().getHits());
+        assertEquals(cached.label(SAMPLES - 1), remapped.label(SAMPLES - 1));
+    }
+
+    @Test
+    void keysIncludeTheProfileMixAndOldFilesAreEvicted() throws Exception {
+        SyntheticDataset balanced = cache.dataset(1L, 300, SyntheticDataGenerator.ProfileMix.BALANCED, 1);
+        SyntheticDataset mostlyHigh = cache.dataset(1L, 300, new SyntheticDataGenerator.ProfileMix(1, 1, 8), 1);
+
+        // Row 150 is MEDIUM risk in the balanced mix and HIGH risk in the skewed one
+        assertEquals(2, cache.stats().getFiles().size());
+        double balancedLabel = balanced.label(150);
+        double highLabel = mostlyHigh.label(150);
+        assertTrue(highLabel < balancedLabel, highLabel + " vs " + balancedLabel);
+
+        cache.dataset(2L, 300, SyntheticDataGenerator.ProfileMix.BALANCED, 1);
+        assertEquals(2, cache.stats().getFiles().size());
+
+        assertEquals(2, cache.clear());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void rejectsEmptyDatasetsAndDiscardsMismatchedFiles() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.dataset(1L, 0, SyntheticDataGenerator.ProfileMix.BALANCED, 1));
+
+        cache.dataset(3L, 100, SyntheticDataGenerator.ProfileMix.BALANCED, 1);
+        Path file;
+        try (var files = Files.list(dir)) {
+            file = files.findFirst().orElseThrow();
+        }
+        Files.write(file, new byte[]{1, 2, 3});
+
+        DatasetCache restarted = newCache();
+        assertEquals(100, restarted.dataset(3L, 100, SyntheticDataGenerator.ProfileMix.BALANCED, 1).size());
+        assertEquals(1, restarted.stats().getGenerated());
+    }
+}
@@ -0,0 +1,141 @@
+package com.zerotrust.backend.ml;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MlJobServiceTest {
+
+    private MlJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MlJobService();
+        ReflectionTestUtils.setField(service, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "retainedJobs", 10);
+        ReflectionTestUtils.setField(service, "maxTrainingSlots", 2);
+        ReflectionTestUtils.setField(service, "syncMaxSamples", 1000);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void runsJobsInTheBackgroundAndKeepsTheirResults() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MlJobService.JobView submitted = service.submit("train", Map.of("samples", 10), progress -> {
+            progress.update("building", 0.5);
+            release.await();
+            return "model";
+        });
+        assertEquals(MlJobService.Status.QUEUED, submitted.getStatus());
+
+        MlJobService.JobView running = awaitPhase(submitted.getId(), "building");
+        assertEquals(MlJobService.Status.RUNNING, running.getStatus());
+        assertEquals(0.5, running.getProgress());
+
+        release.countDown();
+        MlJobService.JobView done = awaitFinished(submitted.getId());
+        assertEquals(MlJobService.Status.SUCCEEDED, done.getStatus());
+        assertEquals("model", done.getResult());
+        assertEquals(1.0, done.getProgress());
+        assertEquals(1, service.stats().getJobs().size());
+    }
+
+    @Test
+    void cancelsQueuedAndRunningJobsAndRejectsWhenFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MlJobService.JobView running = service.submit("train", Map.of(), progress -> {
+            started.countDown();
+            release.await();
+            progress.update("activating", 0.9);
+            return "never";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        MlJobService.JobView queued = service.submit("evaluate", Map.of(), progress -> "never");
+
+        // One running, one queued: the queue (capacity 1) is full
+        assertThrows(MlJobService.SaturatedException.class,
+                () -> service.submit("evaluate", Map.of(), progress -> "rejected"));
+
+        assertEquals(MlJobService.Status.CANCELLED, service.cancel(queued.getId()).orElseThrow().getStatus());
+
+        // The running job stops at its next progress update
+        assertTrue(service.cancel(running.getId()).orElseThrow().isCancelRequested());
+        release.countDown();
+        assertEquals(MlJobService.Status.CANCELLED, awaitFinished(running.getId()).getStatus());
+        assertTrue(service.cancel("unknown").isEmpty());
+    }
+
+    @Test
+    void recordsFailures() throws Exception {
+        MlJobService.JobView job = service.submit("evaluate", Map.of(), progress -> {
+            throw new IllegalStateException("Model not trained");
+        });
+        MlJobService.JobView failed = awaitFinished(job.getId());
+        assertEquals(MlJobService.Status.FAILED, failed.getStatus());
+        assertEquals("Model not trained", failed.getError());
+    }
+
+    @Test
+    void capsTrainingSlotsAndSynchronousSampleCounts() {
+        assertEquals(2, service.trainingSlots(0));
+        assertEquals(1, service.trainingSlots(1));
+        assertEquals(2, service.trainingSlots(16));
+
+        service.checkSynchronous(1000, "train");
+        assertThrows(IllegalArgumentException.class, () -> service.checkSynchronous(1001, "train"));
+    }
+
+    @Test
+    void synchronousRunsShareTheConcurrencyLimitWithJobs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MlJobService.JobView job = service.submit("train", Map.of(), progress -> {
+            progress.update("building", 0.5);
+            release.await();
+            return null;
+        });
+        awaitPhase(job.getId(), "building");
+        assertThrows(MlJobService.SaturatedException.class,
+                () -> service.runSynchronously(10, "train", () -> "sync"));
+
+        release.countDown();
+        awaitFinished(job.getId());
+        assertEquals("sync", service.runSynchronously(10, "train", () -> "sync"));
+        assertThrows(IllegalArgumentException.class, () -> service.runSynchronously(1001, "train", () -> "sync"));
+    }
+
+    private MlJobService.JobView awaitPhase(String id, String phase) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        MlJobService.JobView view = service.get(id).orElseThrow();
+        while (!phase.equals(view.getPhase()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            view = service.get(id).orElseThrow();
+        }
+        return view;
+    }
+
+    private MlJobService.JobView awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        MlJobService.JobView view = service.get(id).orElseThrow();
+        while (!view.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            view = service.get(id).orElseThrow();
+        }
+        return view;
+    }
+}
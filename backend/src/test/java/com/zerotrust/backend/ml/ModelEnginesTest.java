@@ -0,0 +1,184 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.GradientBoostedModel;
+import com.zerotrust.backend.services.trust.LinearTrustModel;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import com.zerotrust.backend.services.trust.SplitQuantizer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import weka.classifiers.trees.RandomForest;
+
+import java.nio.DoubleBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelEnginesTest {
+
+    private static SyntheticDataset train;
+    private static SyntheticDataset test;
+
+    @BeforeAll
+    static void generate() {
+        train = new SyntheticDataGenerator(21L).generateDataset(3000, 1);
+        test = new SyntheticDataGenerator(22L).generateDataset(1000, 1);
+    }
+
+    private static double rmse(double[] predictions, SyntheticDataset data) {
+        double squares = 0;
+        for (int i = 0; i < predictions.length; i++) {
+            double error = predictions[i] - data.label(i);
+            squares += error * error;
+        }
+        return Math.sqrt(squares / predictions.length);
+    }
+
+    private static double meanLabelRmse(SyntheticDataset data) {
+        double mean = 0;
+        for (int i = 0; i < data.size(); i++) {
+            mean += data.label(i);
+        }
+        double[] constant = new double[data.size()];
+        Arrays.fill(constant, mean / data.size());
+        return rmse(constant, data);
+    }
+
+    @Test
+    void boostedTreesLearnTheTrustScoreDeterministically() {
+        GradientBoostedModel model = GradientBoostingTrainer.train(train, GradientBoostingTrainer.Config.DEFAULT);
+        double[][] rows = test.featureRows(0, test.size());
+        double[] scores = model.scoreBatch(rows);
+
+        assertEquals(100, model.numTrees());
+        assertTrue(rmse(scores, test) < meanLabelRmse(test) / 2, "rmse " + rmse(scores, test));
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(scores[i], model.score(rows[i]));
+        }
+        assertArrayEquals(scores, GradientBoostingTrainer.train(train, GradientBoostingTrainer.Config.DEFAULT).scoreBatch(rows));
+
+        // Rows in the same split buckets take the same paths, as the inference cache relies on
+        SplitQuantizer quantizer = SplitQuantizer.of(model);
+        double[] moved = rows[0].clone();
+        for (int f = 0; f < FeatureRows.NUM_FEATURES; f++) {
+            double candidate = Math.nextUp(moved[f]);
+            if (quantizer.bucket(f, candidate) == quantizer.bucket(f, moved[f])) {
+                moved[f] = candidate;
+            }
+        }
+        assertEquals(model.score(rows[0]), model.score(moved));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GradientBoostingTrainer.train(train, new GradientBoostingTrainer.Config(10, 3, 0, 64, 20)));
+    }
+
+    @Test
+    void ridgeRecoversAnExactLinearRelation() {
+        // label = 50 + 4 * x0 - 2 * x3, other features are noise, x9 is constant
+        int n = 500;
+        SplittableRandom random = new SplittableRandom(1);
+        double[][] columns = new double[SyntheticDataGenerator.NUM_COLUMNS][n];
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < FeatureRows.NUM_FEATURES - 1; f++) {
+                columns[f][i] = random.nextDouble(0, 5);
+            }
+            columns[9][i] = 3;
+            columns[SyntheticDataGenerator.LABEL][i] = 50 + 4 * columns[0][i] - 2 * columns[3][i];
+        }
+        DoubleBuffer[] buffers = new DoubleBuffer[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            buffers[c] = DoubleBuffer.wrap(columns[c]);
+        }
+        SyntheticDataset data = new SyntheticDataset(n, buffers);
+
+        LinearTrustModel model = RidgeRegressionTrainer.train(data, 0);
+        double[][] rows = data.featureRows(0, n);
+        double[] scores = model.scoreBatch(rows);
+        for (int i = 0; i < n; i++) {
+            assertEquals(data.label(i), scores[i], 1e-6);
+        }
+        double[] weights = model.coefficients();
+        assertEquals(0, weights[1], 1e-6);
+        assertEquals(0, weights[9]);
+
+        // A penalty shrinks the weights
+        assertTrue(Math.abs(RidgeRegressionTrainer.train(data, 1000).coefficients()[0]) < Math.abs(weights[0]));
+        assertThrows(IllegalArgumentException.class, () -> RidgeRegressionTrainer.train(data, -1));
+    }
+
+    @Test
+    void enginesThatCannotTrainAreSkippedAndUnknownNamesFailAtStartup() {
+        // Too few samples for boosting's leaf size, enough for the linear model
+        SyntheticDataset small = new SyntheticDataGenerator(23L).generateDataset(30, 1);
+        EngineTrainer.TrainedEngines engines = new EngineTrainer().train(small);
+        assertEquals(List.of(EngineTrainer.LINEAR), List.copyOf(engines.models().keySet()));
+
+        EngineTrainer misspelt = new EngineTrainer();
+        ReflectionTestUtils.setField(misspelt, "extraEngines", new String[]{EngineTrainer.GBDT, "gbtd"});
+        assertThrows(IllegalStateException.class, misspelt::validate);
+    }
+
+    @Test
+    void configuredEngineServesScoresAndTheComparisonCoversEveryEngine() throws Exception {
+        EngineTrainer.TrainedEngines engines = new EngineTrainer().train(train);
+        assertEquals(List.of(EngineTrainer.GBDT, EngineTrainer.LINEAR), List.copyOf(engines.models().keySet()));
+
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(10);
+        forest.buildClassifier(train.toInstances());
+        ModelRegistry registry = new ModelRegistry();
+        ModelVersion version = registry.register(forest, engines.models(), "trained", Instant.now());
+
+        TrustScoringService scoring = new TrustScoringService(registry);
+        ReflectionTestUtils.setField(scoring, "engine", EngineTrainer.GBDT);
+        assertSame(engines.models().get(EngineTrainer.GBDT), scoring.scorer(version));
+        // History names the engine that served the score, not the forest
+        assertEquals(EngineTrainer.GBDT, scoring.servingModelName(version));
+        ReflectionTestUtils.setField(scoring, "engine", "compiled");
+        assertSame(version.compiled(), scoring.scorer(version));
+        assertEquals(ModelRegistry.MODEL_NAME, scoring.servingModelName(version));
+
+        DatasetCache heapDatasets = new DatasetCache();
+        ReflectionTestUtils.setField(heapDatasets, "enabled", false);
+        InferenceBenchmarkService benchmark = new InferenceBenchmarkService(registry, scoring, heapDatasets);
+        InferenceBenchmarkService.EngineComparison comparison = benchmark.compareEngines(400);
+
+        assertEquals("compiled", comparison.getServingEngine());
+        assertEquals(List.of("weka", "compiled", "gbdt", "linear"),
+                comparison.getEngines().stream().map(InferenceBenchmarkService.EngineReport::getEngine).toList());
+        for (InferenceBenchmarkService.EngineReport report : comparison.getEngines()) {
+            assertTrue(report.getP99Nanos() >= report.getP50Nanos(), report.getEngine());
+            assertTrue(report.getModelBytes() > 0, report.getEngine());
+            assertTrue(report.getRmse() >= report.getMae() && report.getMae() > 0, report.getEngine());
+        }
+        // The forest and its compiled form are the same model
+        assertEquals(comparison.getEngines().get(0).getMae(), comparison.getEngines().get(1).getMae(), 1e-9);
+
+        // As a job, the comparison stops at the next engine once cancelled
+        List<String> phases = new ArrayList<>();
+        assertThrows(CancellationException.class, () -> benchmark.compareEngines(400, (phase, fraction) -> {
+            phases.add(phase);
+            if (phase.equals("compiled")) {
+                throw new CancellationException();
+            }
+        }));
+        assertEquals(List.of("generating", "weka", "compiled"), phases);
+
+        // Without the configured engine the compiled forest serves, not the Weka one
+        ModelVersion forestOnly = registry.register(forest, "file", Instant.now());
+        ReflectionTestUtils.setField(scoring, "engine", EngineTrainer.LINEAR);
+        assertSame(forestOnly.compiled(), scoring.scorer(forestOnly));
+    }
+}
@@ -0,0 +1,98 @@
+package com.zerotrust.backend.ml;
+
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.WekaTrustModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import weka.classifiers.trees.RandomForest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelEvaluationServiceTest {
+
+    private ModelEvaluationService service;
+    private ModelEvaluationService singleThreaded;
+
+    private static ModelEvaluationService service(int maxThreads) throws Exception {
+        ModelRegistry registry = new ModelRegistry();
+        WekaTrustModel model = new WekaTrustModel(registry);
+        // Small live forest keeps the folds quick; folds copy its configuration
+        RandomForest tenTrees = new RandomForest();
+        tenTrees.setNumIterations(10);
+        model.train(new SyntheticDataGenerator(3L).generateTrainingData(300), tenTrees);
+        ModelEvaluationService service = new ModelEvaluationService(model, registry, new TrustScoringService(registry), heapDatasets());
+        ReflectionTestUtils.setField(service, "maxThreads", maxThreads);
+        service.start();
+        return service;
+    }
+
+    // Generated on the heap for every call; DatasetCacheTest covers the file cache
+    private static DatasetCache heapDatasets() {
+        DatasetCache cache = new DatasetCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        return cache;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = service(4);
+        singleThreaded = service(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+        singleThreaded.stop();
+    }
+
+    @Test
+    void parallelFoldsMatchASingleThreadedRunExactly() throws Exception {
+        ModelEvaluationService.EvaluationMetrics parallel = service.crossValidate(1500, 5, true);
+        ModelEvaluationService.EvaluationMetrics sequential = singleThreaded.crossValidate(1500, 5, false);
+
+        assertEquals(sequential.getMeanAbsoluteError(), parallel.getMeanAbsoluteError());
+        assertEquals(sequential.getRootMeanSquaredError(), parallel.getRootMeanSquaredError());
+        assertEquals(sequential.getCorrelationCoefficient(), parallel.getCorrelationCoefficient());
+
+        assertTrue(parallel.getMeanAbsoluteError() < 10, "MAE " + parallel.getMeanAbsoluteError());
+        assertTrue(parallel.getCorrelationCoefficient() > 0.85);
+        assertEquals(5, parallel.getAdditionalMetrics().get("folds"));
+        assertTrue(parallel.getAdditionalMetrics().containsKey("speedup"));
+        assertTrue(parallel.getAdditionalMetrics().containsKey("sequentialTimeMs"));
+    }
+
+    @Test
+    void evaluatesTheSameTestSetOnEveryCall() throws Exception {
+        ModelEvaluationService.EvaluationMetrics first = service.evaluateModel(800);
+        ModelEvaluationService.EvaluationMetrics second = service.evaluateModel(800);
+
+        assertEquals(first.getMeanAbsoluteError(), second.getMeanAbsoluteError());
+        assertTrue(first.getMeanAbsoluteError() < 10, "MAE " + first.getMeanAbsoluteError());
+        assertTrue(first.getSummary().contains("Relative absolute error"));
+
+        ModelEvaluationService.ConfusionMetrics confusion = service.calculateConfusionMetrics(800);
+        assertEquals(800, confusion.getTruePositives() + confusion.getTrueNegatives()
+                + confusion.getFalsePositives() + confusion.getFalseNegatives());
+
+        // The sweep scores the same test set once; its 40 threshold is the confusion-metrics cutoff
+        ModelEvaluationService.ThresholdAnalysis analysis =
+                service.analyzeThresholds(800, 40, 0, 100, 5, 50, JobProgress.NONE);
+        assertEquals(21, analysis.getThresholds().size());
+        ModelEvaluationService.ThresholdPoint at40 = analysis.getThresholds().get(8);
+        assertEquals(40, at40.getThreshold());
+        assertEquals(confusion.getTruePositives(), at40.getTruePositives());
+        assertEquals(confusion.getFalsePositives(), at40.getFalsePositives());
+        assertTrue(analysis.getRocAuc() > 0.9, "AUC " + analysis.getRocAuc());
+    }
+
+    @Test
+    void rejectsInvalidFoldCounts() {
+        assertThrows(IllegalArgumentException.class, () -> service.crossValidate(100, 1, false));
+        assertThrows(IllegalArgumentException.class, () -> service.crossValidate(10, 11, false));
+    }
+}
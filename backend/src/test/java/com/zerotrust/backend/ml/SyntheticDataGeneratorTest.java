@@ -0,0 +1,57 @@
+package com.zerotrust.backend.ml;
+
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticDataGeneratorTest {
+
+    // Several chunks, the last one partial
+    private static final int SAMPLES = SyntheticDataGenerator.CHUNK_SIZE * 3 + 123;
+
+    @Test
+    void sameSeedGivesTheSameDatasetForAnyThreadCount() {
+        double[][] sequential = new SyntheticDataGenerator(7L).generateRows(SAMPLES, 1);
+        double[][] parallel = new SyntheticDataGenerator(7L).generateRows(SAMPLES, 4);
+
+        assertEquals(SAMPLES, parallel.length);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertArrayEquals(sequential[i], parallel[i], "row " + i);
+        }
+    }
+
+    @Test
+    void differentSeedsGiveDifferentData() {
+        double[][] a = new SyntheticDataGenerator(1L).generateRows(100, 1);
+        double[][] b = new SyntheticDataGenerator(2L).generateRows(100, 1);
+        assertFalse(Arrays.equals(a[0], b[0]));
+    }
+
+    @Test
+    void keepsTheBalancedRiskProfilesAndLabelRange() {
+        Instances data = new SyntheticDataGenerator().generateTrainingData(SAMPLES, 4);
+        assertEquals(SAMPLES, data.numInstances());
+        assertEquals(10, data.classIndex());
+
+        int third = SAMPLES / 3;
+        double lowRiskMean = 0;
+        double highRiskMean = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double label = data.instance(i).classValue();
+            assertTrue(label >= 0 && label <= 100);
+            if (i < third) {
+                lowRiskMean += label / third;
+            } else if (i >= third * 2) {
+                highRiskMean += label / (SAMPLES - third * 2);
+            }
+        }
+        assertTrue(lowRiskMean > 75, "low risk mean " + lowRiskMean);
+        assertTrue(highRiskMean < 40, "high risk mean " + highRiskMean);
+    }
+}
@@ -0,0 +1,78 @@
+package com.zerotrust.backend.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThresholdSweepTest {
+
+    @Test
+    void sweepMatchesCountingEveryRowPerThreshold() {
+        SplittableRandom random = new SplittableRandom(3);
+        int rows = 5000;
+        double[] labels = new double[rows];
+        double[] predictions = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            labels[i] = random.nextInt(101);
+            // Rounded, so many rows share a score
+            predictions[i] = Math.max(0, Math.min(100, Math.round(labels[i] + random.nextDouble(-15, 15))));
+        }
+
+        ThresholdSweep sweep = new ThresholdSweep(predictions, labels, 40);
+        List<ThresholdSweep.Confusion> points = sweep.sweep(0, 100, 0.5);
+        assertEquals(201, points.size());
+        for (ThresholdSweep.Confusion point : points) {
+            int[] counts = new int[4]; // TP, TN, FP, FN
+            for (int i = 0; i < rows; i++) {
+                boolean actual = labels[i] < 40;
+                boolean flagged = predictions[i] < point.threshold();
+                counts[actual == flagged ? (actual ? 0 : 1) : (flagged ? 2 : 3)]++;
+            }
+            assertEquals(new ThresholdSweep.Confusion(point.threshold(), counts[0], counts[1], counts[2], counts[3]), point);
+        }
+        assertEquals(sweep.positives() + sweep.negatives(), rows);
+    }
+
+    @Test
+    void curvesMatchAKnownRanking() {
+        // Positives score 10, 20, 40; negatives 30, 50, 60
+        double[] predictions = {10, 20, 40, 30, 50, 60};
+        double[] labels = {0, 0, 0, 100, 100, 100};
+        ThresholdSweep.Curves curves = new ThresholdSweep(predictions, labels, 40).curves(100);
+
+        // 8 of the 9 positive/negative pairs are ranked correctly
+        assertEquals(8.0 / 9, curves.rocAuc(), 1e-12);
+        // Precision at each recall step: 1, 1, 3/4
+        assertEquals((1 + 1 + 0.75) / 3, curves.averagePrecision(), 1e-12);
+
+        List<ThresholdSweep.CurvePoint> roc = curves.roc();
+        assertEquals(7, roc.size());
+        assertEquals(0, roc.getFirst().x());
+        assertEquals(1, roc.getLast().x());
+        assertEquals(1, roc.getLast().y());
+        assertEquals(6, curves.precisionRecall().size());
+
+        // Reduced curves keep the end point, areas are unchanged
+        ThresholdSweep.Curves reduced = new ThresholdSweep(predictions, labels, 40).curves(2);
+        assertTrue(reduced.roc().size() <= 3);
+        assertEquals(1, reduced.roc().getLast().y());
+        assertEquals(curves.rocAuc(), reduced.rocAuc());
+    }
+
+    @Test
+    void handlesMissingClassesAndRejectsBadSweeps() {
+        ThresholdSweep onlyNegatives = new ThresholdSweep(new double[]{50, 60}, new double[]{80, 90}, 40);
+        assertNull(onlyNegatives.curves(10).rocAuc());
+        assertEquals(0, onlyNegatives.at(55).recall());
+
+        assertThrows(IllegalArgumentException.class, () -> ThresholdSweep.thresholdCount(0, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdSweep.thresholdCount(50, 40, 1));
+        assertThrows(IllegalArgumentException.class, () -> ThresholdSweep.thresholdCount(0, 100, 0.001));
+    }
+}
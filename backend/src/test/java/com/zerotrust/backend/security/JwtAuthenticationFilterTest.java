@@ -0,0 +1,92 @@
+package com.zerotrust.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtAuthenticationFilterTest {
+
+    private static final UserDetails ALICE = User.withUsername("alice@corp.com")
+            .password("x")
+            .roles("MANAGER")
+            .build();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxEntries", 100);
+        jwtService.init();
+
+        filter = new JwtAuthenticationFilter(jwtService, email -> {
+            lookups.incrementAndGet();
+            return ALICE;
+        });
+    }
+
+    @Test
+    void authenticatesFromClaimsWithoutUserLookup() {
+        String token = jwtService.generateToken(ALICE);
+
+        UsernamePasswordAuthenticationToken first = filter.authenticate(token);
+        UsernamePasswordAuthenticationToken second = filter.authenticate(token);
+
+        assertEquals("alice@corp.com", first.getName());
+        assertEquals(List.of("ROLE_MANAGER"), first.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertEquals(0, lookups.get());
+        assertEquals(1, jwtService.verifiedCacheStats().getHits());
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void tokensWithoutRolesFallBackToUserLookup() {
+        String legacyToken = Jwts.builder()
+                .subject("alice@corp.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtService.decodeSigningKey())
+                .compact();
+
+        UsernamePasswordAuthenticationToken auth = filter.authenticate(legacyToken);
+
+        assertEquals("alice@corp.com", auth.getName());
+        assertEquals(List.of("ROLE_MANAGER"), auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        String token = jwtService.generateToken(ALICE);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> filter.authenticate(tampered));
+
+        String expired = Jwts.builder()
+                .subject("alice@corp.com")
+                .claim(JwtService.ROLES_CLAIM, List.of("ROLE_ADMIN"))
+                .expiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(jwtService.decodeSigningKey())
+                .compact();
+        assertThrows(JwtException.class, () -> filter.authenticate(expired));
+    }
+}
@@ -0,0 +1,145 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.TestFixtures;
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The incremental aggregates must match a full scan of risk_score_history.
+ */
+@DataJpaTest
+class DashboardAggregateServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RiskScoreHistoryRepository historyRepository;
+
+    // Seeded with a 10 s lag, so rows written after the seed fall into the first reseed window
+    private DashboardAggregateService node(boolean reseedEnabled) {
+        DashboardAggregateService node = new DashboardAggregateService(historyRepository, userRepository);
+        ReflectionTestUtils.setField(node, "reseedEnabled", reseedEnabled);
+        ReflectionTestUtils.setField(node, "reseedLagMs", 10_000L);
+        node.seed();
+        return node;
+    }
+
+    @Test
+    void incrementalAggregatesMatchFullScan() {
+        Random random = new Random(11);
+        Instant base = Instant.now().minusSeconds(100_000);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            users.add(TestFixtures.saveUser(userRepository, "dash" + i + "@company.com"));
+        }
+        // The last user is never scored
+        for (int i = 0; i < 60; i++) {
+            historyRepository.save(history(users.get(random.nextInt(7)), random, base.plusSeconds(i)));
+        }
+
+        DashboardAggregateService aggregates = node(false);
+        assertMatchesFullScan(aggregates.snapshot());
+
+        // Later scores recorded by the pipeline, plus one that arrives out of order
+        for (int i = 0; i < 40; i++) {
+            RiskScoreHistory h = history(users.get(random.nextInt(8)), random, base.plusSeconds(1_000 + i));
+            historyRepository.save(h);
+            aggregates.record(h.getUser().getId(), h.getScore(), h.getLevel(), h.getCalculatedAt());
+        }
+        RiskScoreHistory stale = history(users.get(0), random, base.minusSeconds(10));
+        historyRepository.save(stale);
+        aggregates.record(users.get(0).getId(), stale.getScore(), stale.getLevel(), stale.getCalculatedAt());
+
+        assertMatchesFullScan(aggregates.snapshot());
+    }
+
+    @Test
+    void reseedMergesOtherReplicasScoresWithoutCountingOwnTwice() {
+        Random random = new Random(12);
+        User user = TestFixtures.saveUser(userRepository, "dash-remote@company.com");
+        historyRepository.save(history(user, random, Instant.now().minusSeconds(100_000)));
+        DashboardAggregateService node = node(true);
+        assertMatchesFullScan(node.snapshot());
+
+        // Written by other replicas after the seed, plus one of this node's own scores, already flushed
+        Instant recent = Instant.now().minusSeconds(5);
+        for (int i = 0; i < 3; i++) {
+            historyRepository.save(history(user, random, recent.plusMillis(i)));
+        }
+        RiskScoreHistory own = historyRepository.save(history(user, random, recent.plusMillis(10)));
+        node.record(user.getId(), own.getScore(), own.getLevel(), own.getCalculatedAt());
+        assertEquals(2, node.snapshot().getTotalScoreCalculations());
+
+        ReflectionTestUtils.setField(node, "reseedLagMs", 0L);
+        node.reseed();
+        assertMatchesFullScan(node.snapshot());
+        // The window is not read twice
+        node.reseed();
+        assertMatchesFullScan(node.snapshot());
+    }
+
+    @Test
+    void reseedKeepsQueuedScoresAndDropsDeletedUsers() {
+        User user = TestFixtures.saveUser(userRepository, "dash-queued@company.com");
+        DashboardAggregateService node = node(true);
+        ReflectionTestUtils.setField(node, "reseedLagMs", 0L);
+        // Recorded, but still waiting in the write-behind queue
+        node.record(user.getId(), 80.0, RiskLevel.LOW, Instant.now());
+        node.reseed();
+        assertEquals(1, node.snapshot().getLowRiskUsers());
+
+        userRepository.delete(user);
+        node.reseed();
+        assertEquals(0, node.snapshot().getLowRiskUsers());
+    }
+
+    private void assertMatchesFullScan(DashboardAggregateService.DashboardSnapshot snapshot) {
+        List<RiskScoreHistory> all = historyRepository.findAll();
+        Map<UUID, RiskScoreHistory> latest = new HashMap<>();
+        for (RiskScoreHistory h : all) {
+            latest.merge(h.getUser().getId(), h,
+                    (a, b) -> b.getCalculatedAt().isAfter(a.getCalculatedAt()) ? b : a);
+        }
+
+        assertEquals(all.size(), snapshot.getTotalScoreCalculations());
+        assertEquals(latest.size(), snapshot.getScoredUsers());
+        for (RiskLevel level : RiskLevel.values()) {
+            long expected = latest.values().stream().filter(h -> h.getLevel() == level).count();
+            long actual = switch (level) {
+                case HIGH -> snapshot.getHighRiskUsers();
+                case MEDIUM -> snapshot.getMediumRiskUsers();
+                case LOW -> snapshot.getLowRiskUsers();
+            };
+            assertEquals(expected, actual, level.name());
+        }
+        double average = latest.values().stream().mapToDouble(RiskScoreHistory::getScore).average().orElse(0.0);
+        assertEquals(average, snapshot.getAverageTrustScore(), 1e-6);
+    }
+
+    private static RiskScoreHistory history(User user, Random random, Instant calculatedAt) {
+        double score = Math.round(random.nextDouble() * 10_000) / 100.0;
+        return RiskScoreHistory.builder()
+                .user(user)
+                .score(score)
+                .level(score < 40 ? RiskLevel.HIGH : score < 70 ? RiskLevel.MEDIUM : RiskLevel.LOW)
+                .calculatedAt(calculatedAt)
+                .build();
+    }
+}
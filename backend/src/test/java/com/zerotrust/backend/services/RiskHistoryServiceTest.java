@@ -0,0 +1,104 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.dto.RiskHistoryEntry;
+import com.zerotrust.backend.dto.RiskHistoryPage;
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static com.zerotrust.backend.TestFixtures.saveUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walking the cursor must visit every row in the range exactly once, newest first.
+ */
+@DataJpaTest
+@Import(RiskHistoryService.class)
+class RiskHistoryServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RiskScoreHistoryRepository historyRepository;
+    @Autowired
+    private RiskHistoryService historyService;
+
+    @Test
+    void cursorWalkVisitsEveryRowInRangeOnce() {
+        User user = saveUser(userRepository, "pages@company.com");
+        User other = saveUser(userRepository, "other@company.com");
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 95; i++) {
+            // Groups of three rows share a timestamp, so the id tie-breaker matters
+            historyRepository.save(history(user, base.plusSeconds(60L * (i / 3))));
+            historyRepository.save(history(other, base.plusSeconds(60L * i)));
+        }
+
+        Instant from = base.plusSeconds(60L * 5);
+        Instant to = base.plusSeconds(60L * 25);
+        List<RiskScoreHistory> expected = historyRepository.findByUserIdOrderByCalculatedAtDesc(user.getId()).stream()
+                .filter(h -> !h.getCalculatedAt().isBefore(from) && h.getCalculatedAt().isBefore(to))
+                .toList();
+
+        List<RiskHistoryEntry> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RiskHistoryPage page = historyService.page(user.getId(), from, to, cursor, 7);
+            assertTrue(page.getItems().size() <= 7);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected.size(), walked.size());
+        assertEquals((expected.size() + 6) / 7, pages);
+        assertEquals(expected.stream().map(RiskScoreHistory::getId).distinct().count(),
+                walked.stream().map(RiskHistoryEntry::getId).distinct().count());
+        assertEquals(expected.stream().map(RiskScoreHistory::getId).sorted().toList(),
+                walked.stream().map(RiskHistoryEntry::getId).sorted().toList());
+        List<Instant> times = walked.stream().map(RiskHistoryEntry::getCalculatedAt).toList();
+        assertEquals(times.stream().sorted(Comparator.reverseOrder()).toList(), times);
+    }
+
+    @Test
+    void unboundedRangeAndInvalidCursor() {
+        User user = saveUser(userRepository, "single@company.com");
+        historyRepository.save(history(user, Instant.now()));
+
+        RiskHistoryPage page = historyService.page(user.getId(), null, null, null, 10);
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> historyService.page(user.getId(), null, null, "not-a-cursor", 10));
+        assertEquals(0, historyService.page(UUID.randomUUID(), null, null, null, 10).getItems().size());
+    }
+
+    private static RiskScoreHistory history(User user, Instant calculatedAt) {
+        return RiskScoreHistory.builder()
+                .user(user)
+                .score(50.0)
+                .level(RiskLevel.MEDIUM)
+                .calculatedAt(calculatedAt)
+                .build();
+    }
+}
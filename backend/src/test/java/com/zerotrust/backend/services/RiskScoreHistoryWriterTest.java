@@ -0,0 +1,123 @@
+package com.zerotrust.backend.services;
+
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.enums.UserRole;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every submitted score must reach risk_score_history, in batches, by the time the writer stops.
+ */
+@DataJpaTest(properties = {
+        "trust.history.batch-size=100",
+        "trust.history.queue-capacity=256",
+        "trust.history.retry-backoff-ms=10"
+})
+@Import({RiskScoreHistoryWriter.class, RiskScoreHistoryWriterTest.Metrics.class})
+// The writer commits on its own thread, so the test must not hold an open transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RiskScoreHistoryWriterTest {
+
+    @Autowired
+    private RiskScoreHistoryWriter writer;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RiskScoreHistoryRepository historyRepository;
+
+    @Test
+    void writesEverySubmittedScoreInBatches() throws Exception {
+        User user = userRepository.save(User.builder()
+                .email("writer@company.com")
+                .password("x")
+                .role(UserRole.EMPLOYEE)
+                .build());
+
+        int records = 1234;
+        Instant base = Instant.now();
+        for (int i = 0; i < records; i++) {
+            writer.submit(user.getId(), i % 100, RiskLevel.values()[i % 3], base.plusMillis(i), "random_forest", "rf-test");
+        }
+        writer.stop();
+
+        RiskScoreHistoryWriter.WriterStats stats = writer.stats();
+        assertEquals(records, historyRepository.count());
+        assertEquals(records, stats.getRecordsWritten());
+        assertEquals(0, stats.getRecordsFailed());
+        assertEquals(0, stats.getQueueDepth());
+        // Far fewer flushes than records (fallback writes are single-row flushes)
+        assertTrue(stats.getFlushes() < records / 10 + stats.getBackpressureFallbacks() + 5,
+                "flushes: " + stats.getFlushes());
+        RiskScoreHistory latest = historyRepository.findTopByUserEmailOrderByCalculatedAtDesc("writer@company.com");
+        assertEquals(RiskLevel.values()[(records - 1) % 3], latest.getLevel());
+        assertEquals("random_forest", latest.getModelName());
+        assertEquals("rf-test", latest.getModelVersion());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void aRejectedRowCostsOnlyItself() throws Exception {
+        User user = userRepository.save(User.builder()
+                .email("writer-fk@company.com")
+                .password("x")
+                .role(UserRole.EMPLOYEE)
+                .build());
+
+        Instant base = Instant.now();
+        for (int i = 0; i < 60; i++) {
+            // One record in the middle of a batch references a user that does not exist
+            UUID userId = i == 30 ? UUID.randomUUID() : user.getId();
+            writer.submit(userId, i, RiskLevel.LOW, base.plusMillis(i), "random_forest", "rf-test");
+        }
+        writer.stop();
+
+        RiskScoreHistoryWriter.WriterStats stats = writer.stats();
+        assertEquals(59, historyRepository.count());
+        assertEquals(59, stats.getRecordsWritten());
+        assertEquals(1, stats.getRecordsFailed());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void aFailedSynchronousWriteIsDroppedWithoutBackoff() throws Exception {
+        ReflectionTestUtils.setField(writer, "retryBackoffMs", 10_000L);
+        // Once stopped, every submit is written on the caller's thread
+        writer.stop();
+
+        long start = System.nanoTime();
+        writer.submit(UUID.randomUUID(), 50, RiskLevel.MEDIUM, Instant.now(), "random_forest", "rf-test");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 5_000, "caller waited " + elapsedMs + " ms");
+        assertEquals(1, writer.stats().getRecordsFailed());
+        assertEquals(0, historyRepository.count());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
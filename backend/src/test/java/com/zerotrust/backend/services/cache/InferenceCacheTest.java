@@ -0,0 +1,115 @@
+package com.zerotrust.backend.services.cache;
+
+import com.zerotrust.backend.ml.SyntheticDataGenerator;
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import com.zerotrust.backend.services.trust.SplitQuantizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static com.zerotrust.backend.TestFixtures.featureRows;
+import static com.zerotrust.backend.TestFixtures.forest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InferenceCacheTest {
+
+    private static Instances data;
+    private static double[][] rows;
+
+    private ModelRegistry registry;
+    private TrustScoringService scoring;
+    private InferenceCache cache;
+
+    @BeforeAll
+    static void generate() {
+        data = new SyntheticDataGenerator(9L).generateTrainingData(800);
+        rows = featureRows(data, 300);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new ModelRegistry();
+        registry.register(forest(data, 20, 0, 1), "trained", Instant.now());
+        scoring = new TrustScoringService(registry);
+        cache = new InferenceCache(registry, scoring, new SimpleMeterRegistry());
+        cache.start();
+    }
+
+    // Each feature moved to a random value inside its bucket (or left alone when the bucket is a single point)
+    private static double[][] jitteredWithinBuckets(SplitQuantizer quantizer, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] moved = new double[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            moved[i] = rows[i].clone();
+            for (int f = 0; f < FeatureRows.NUM_FEATURES; f++) {
+                double candidate = rows[i][f] * (1 + random.nextDouble(-0.05, 0.05)) + random.nextDouble(-0.01, 0.01);
+                if (quantizer.bucket(f, candidate) == quantizer.bucket(f, rows[i][f])) {
+                    moved[i][f] = candidate;
+                }
+            }
+        }
+        return moved;
+    }
+
+    @Test
+    void rowsInTheSameBucketsGetExactlyTheModelScore() throws Exception {
+        ModelVersion version = registry.active();
+        SplitQuantizer quantizer = SplitQuantizer.of(version.compiled());
+        double[][] moved = jitteredWithinBuckets(quantizer, 4);
+        int changed = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (!Arrays.equals(rows[i], moved[i])) {
+                changed++;
+            }
+        }
+        assertTrue(changed > rows.length / 2, changed + " rows changed");
+
+        double[] first = cache.computeBatch(version, rows);
+        assertArrayEquals(scoring.computeBatch(version, rows), first);
+        assertEquals(0, cache.stats().getHits());
+
+        // Same buckets, different values: every row is a hit and equals a fresh model call
+        double[] cached = cache.computeBatch(version, moved);
+        assertArrayEquals(scoring.computeBatch(version, moved), cached);
+        InferenceCache.InferenceCacheStats stats = cache.stats();
+        assertEquals(rows.length, stats.getHits());
+        assertEquals(version.id(), stats.getModelVersion());
+        assertTrue(stats.getInferenceNanosPerRow() > 0);
+        assertEquals(cache.computeBatch(version, new double[][]{rows[7]})[0],
+                cache.compute(version, FeatureRows.toFeatureVector(rows[7])));
+    }
+
+    @Test
+    void swappingTheModelInvalidatesAndOtherVersionsBypassTheCache() throws Exception {
+        ModelVersion first = registry.active();
+        cache.computeBatch(first, rows);
+
+        // A candidate is scored directly and leaves the cache alone
+        ModelVersion candidate = registry.registerCandidate(forest(data, 20, 0, 2), "trained", Instant.now());
+        assertArrayEquals(scoring.computeBatch(candidate, rows), cache.computeBatch(candidate, rows));
+        assertEquals(first.id(), cache.stats().getModelVersion());
+
+        ModelVersion second = registry.register(forest(data, 20, 0, 3), "trained", Instant.now());
+        double[] rescored = cache.computeBatch(second, rows);
+        assertArrayEquals(scoring.computeBatch(second, rows), rescored);
+        InferenceCache.InferenceCacheStats stats = cache.stats();
+        assertEquals(second.id(), stats.getModelVersion());
+        assertEquals(1, stats.getInvalidations());
+        assertEquals(0, stats.getHits());
+
+        // A batch pinned to the old version while the swap happens is scored, not served stale
+        assertArrayEquals(scoring.computeBatch(first, rows), cache.computeBatch(first, rows));
+        assertEquals(second.id(), cache.stats().getModelVersion());
+    }
+}
@@ -0,0 +1,62 @@
+package com.zerotrust.backend.services.cache;
+
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LatestRiskIndexTest {
+
+    private static final String EMAIL = "alice@company.com";
+
+    private RiskScoreHistoryRepository historyRepository;
+    private LatestRiskIndex index;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository = mock(RiskScoreHistoryRepository.class);
+        index = new LatestRiskIndex(historyRepository);
+        ReflectionTestUtils.setField(index, "maxEntries", 100);
+        ReflectionTestUtils.setField(index, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(index, "allowTtlSeconds", 600L);
+        index.init();
+    }
+
+    @Test
+    void scoreWrittenDuringAColdMissWins() {
+        // The user is scored HIGH while the miss is reading the older LOW row
+        when(historyRepository.findTopByUserEmailOrderByCalculatedAtDesc(EMAIL)).thenAnswer(invocation -> {
+            index.update(EMAIL, RiskLevel.HIGH);
+            return RiskScoreHistory.builder().level(RiskLevel.LOW).build();
+        });
+
+        assertEquals(RiskLevel.HIGH, index.latest(EMAIL));
+        assertEquals(RiskLevel.HIGH, index.latest(EMAIL));
+        verify(historyRepository, times(1)).findTopByUserEmailOrderByCalculatedAtDesc(EMAIL);
+    }
+
+    @Test
+    void onlyHighEntriesKeepTheFullLifetime() throws InterruptedException {
+        ReflectionTestUtils.setField(index, "allowTtlSeconds", 1L);
+        when(historyRepository.findTopByUserEmailOrderByCalculatedAtDesc(EMAIL))
+                .thenReturn(RiskScoreHistory.builder().level(RiskLevel.HIGH).build());
+
+        index.update(EMAIL, RiskLevel.LOW);
+        index.update("bob@company.com", RiskLevel.HIGH);
+        Thread.sleep(1100);
+
+        // The LOW entry expired and is re-read; the HIGH one is still served from memory
+        assertEquals(RiskLevel.HIGH, index.latest(EMAIL));
+        assertEquals(RiskLevel.HIGH, index.latest("bob@company.com"));
+        verify(historyRepository, never()).findTopByUserEmailOrderByCalculatedAtDesc("bob@company.com");
+    }
+}
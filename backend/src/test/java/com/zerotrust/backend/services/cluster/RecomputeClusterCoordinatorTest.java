@@ -0,0 +1,143 @@
+package com.zerotrust.backend.services.cluster;
+
+import com.zerotrust.backend.TestFixtures;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.repositories.ClusterNodeRepository;
+import com.zerotrust.backend.repositories.RecomputeLeaseRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Several coordinators sharing one database must split the slots fairly,
+ * never overlap, and take over the slots of a node that left or died.
+ */
+@DataJpaTest
+// Each lease operation commits on its own, like on separate replicas
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecomputeClusterCoordinatorTest {
+
+    private static final int SLOTS = 64;
+    private static final long LEASE_TTL_MS = 30_000;
+
+    @Autowired
+    private RecomputeLeaseRepository leaseRepository;
+    @Autowired
+    private ClusterNodeRepository nodeRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void cleanUp() {
+        nodeRepository.deleteAll();
+        leaseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private RecomputeClusterCoordinator node(String nodeId, long leaseTtlMs) {
+        RecomputeClusterCoordinator coordinator = new RecomputeClusterCoordinator(leaseRepository, nodeRepository);
+        ReflectionTestUtils.setField(coordinator, "enabled", true);
+        ReflectionTestUtils.setField(coordinator, "nodeId", nodeId);
+        ReflectionTestUtils.setField(coordinator, "slots", SLOTS);
+        ReflectionTestUtils.setField(coordinator, "heartbeatMs", leaseTtlMs / 3);
+        ReflectionTestUtils.setField(coordinator, "leaseTtlMs", leaseTtlMs);
+        coordinator.join();
+        return coordinator;
+    }
+
+    // Moves the node's clock, so leases expire without waiting for them
+    private static void advance(RecomputeClusterCoordinator coordinator, Duration by) {
+        ReflectionTestUtils.setField(coordinator, "clock", Clock.offset(Clock.systemUTC(), by));
+    }
+
+    private static Set<Integer> owned(RecomputeClusterCoordinator coordinator) {
+        return new HashSet<>(coordinator.stats().getOwnedSlots());
+    }
+
+    @Test
+    void splitsSlotsFairlyAndHandsThemOverOnLeave() {
+        RecomputeClusterCoordinator a = node("node-a", LEASE_TTL_MS);
+        a.heartbeat();
+        assertEquals(SLOTS, owned(a).size());
+
+        RecomputeClusterCoordinator b = node("node-b", LEASE_TTL_MS);
+        b.heartbeat();
+        // Everything is still leased to a
+        assertEquals(0, owned(b).size());
+
+        a.heartbeat();
+        b.heartbeat();
+        assertEquals(SLOTS / 2, owned(a).size());
+        assertEquals(SLOTS / 2, owned(b).size());
+        Set<Integer> all = owned(a);
+        all.addAll(owned(b));
+        assertEquals(SLOTS, all.size());
+        owned(a).forEach(slot -> assertTrue(a.holds(slot)));
+
+        b.leave();
+        a.heartbeat();
+        assertEquals(SLOTS, owned(a).size());
+    }
+
+    @Test
+    void takesOverSlotsOfADeadNodeOnceItsLeasesExpire() {
+        RecomputeClusterCoordinator a = node("node-a", LEASE_TTL_MS);
+        RecomputeClusterCoordinator b = node("node-b", LEASE_TTL_MS);
+        a.heartbeat();
+        b.heartbeat();
+        a.heartbeat();
+        b.heartbeat();
+        assertEquals(SLOTS / 2, owned(b).size());
+
+        // b stops heartbeating without releasing anything
+        advance(a, Duration.ofMillis(LEASE_TTL_MS / 2));
+        a.heartbeat();
+        assertEquals(SLOTS / 2, owned(a).size());
+
+        advance(a, Duration.ofMillis(LEASE_TTL_MS + 1_000));
+        a.heartbeat();
+        assertEquals(SLOTS, owned(a).size());
+    }
+
+    @Test
+    void slotRangesPartitionTheUserIdSpace() {
+        UserIdRange first = UserIdRange.forSlot(0, SLOTS);
+        UserIdRange last = UserIdRange.forSlot(SLOTS - 1, SLOTS);
+        assertEquals(new UUID(0, 0), first.lowest());
+        assertEquals(new UUID(-1, -1), last.highest());
+        for (int slot = 1; slot < SLOTS; slot++) {
+            UUID previousHigh = UserIdRange.forSlot(slot - 1, SLOTS).highest();
+            UUID low = UserIdRange.forSlot(slot, SLOTS).lowest();
+            assertEquals(previousHigh.getMostSignificantBits() + 1, low.getMostSignificantBits());
+            assertEquals(0, low.getLeastSignificantBits());
+        }
+
+        int users = 300;
+        for (int i = 0; i < users; i++) {
+            TestFixtures.saveUser(userRepository, "slot" + i + "@company.com");
+        }
+        Set<UUID> seen = new HashSet<>();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            UserIdRange range = UserIdRange.forSlot(slot, SLOTS);
+            List<User> inRange = userRepository.findByIdBetweenOrderByIdAsc(range.lowest(), range.highest(), Limit.of(users));
+            inRange.forEach(user -> assertTrue(seen.add(user.getId()), "user in two slots"));
+        }
+        assertEquals(users, seen.size());
+    }
+}
@@ -0,0 +1,124 @@
+package com.zerotrust.backend.services.export;
+
+import com.zerotrust.backend.entities.AccessEvent;
+import com.zerotrust.backend.entities.RiskScoreHistory;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.repositories.RiskScoreHistoryRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.zerotrust.backend.TestFixtures.saveUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import({ExportService.class, ExportServiceTest.Json.class})
+class ExportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RiskScoreHistoryRepository historyRepository;
+    @Autowired
+    private AccessEventRepository accessEventRepository;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsHistoryAsNdjsonAndGzippedCsv() throws Exception {
+        User user = saveUser(userRepository, "export@company.com");
+        Instant base = Instant.parse("2025-03-01T00:00:00Z");
+        for (int i = 0; i < 250; i++) {
+            historyRepository.save(RiskScoreHistory.builder()
+                    .user(user)
+                    .score((double) (i % 100))
+                    .level(RiskLevel.values()[i % 3])
+                    .calculatedAt(base.plusSeconds(i))
+                    .modelName(i == 0 ? "forest, \"v1\"" : null)
+                    .build());
+        }
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long rows = exportService.exportRiskHistory(ExportFormat.NDJSON, false, null, null, ndjson);
+        List<String> lines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(250, rows);
+        assertEquals(250, lines.size());
+        JsonNode first = objectMapper.readTree(lines.stream().filter(l -> l.contains("forest")).findFirst().orElseThrow());
+        assertEquals(user.getId().toString(), first.get("userId").asString());
+        assertEquals("forest, \"v1\"", first.get("modelName").asString());
+        assertEquals("2025-03-01T00:00:00Z", first.get("calculatedAt").asString());
+
+        // Gzipped CSV limited to [base + 100s, base + 150s)
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        rows = exportService.exportRiskHistory(ExportFormat.CSV, true, base.plusSeconds(100), base.plusSeconds(150), gzipped);
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> csvLines = csv.lines().toList();
+        assertEquals(50, rows);
+        assertEquals(51, csvLines.size());
+        assertEquals("id,userId,score,level,calculatedAt,modelName,modelVersion", csvLines.get(0));
+    }
+
+    @Test
+    void exportsAccessEventsAsCsv() throws Exception {
+        User user = saveUser(userRepository, "export@company.com");
+        for (int i = 0; i < 30; i++) {
+            AccessEvent event = new AccessEvent();
+            event.setUser(user);
+            event.setTimestamp(Instant.now().minusSeconds(i));
+            event.setNetworkType(NetworkType.VPN);
+            event.setSuccess(i % 2 == 0);
+            event.setUserAgent(i == 0 ? "Mozilla/5.0 (X11, \"Linux\")\nline two" : "curl");
+            accessEventRepository.save(event);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportAccessEvents(ExportFormat.CSV, false, null, null, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(30, rows);
+        // Header + 30 rows + the embedded newline inside the quoted user agent
+        assertEquals(32, csv.lines().count());
+        assertEquals(1, csv.split("\"Mozilla/5.0 \\(X11, \"\"Linux\"\"\\)\nline two\"", -1).length - 1);
+    }
+
+    @Test
+    void quotesCsvFieldsOnlyWhenNeeded() {
+        StringBuilder line = new StringBuilder();
+        ExportService.appendCsvField(line, "plain");
+        line.append('|');
+        ExportService.appendCsvField(line, "a,\"b\"");
+        line.append('|');
+        ExportService.appendCsvField(line, null);
+        assertEquals("plain|\"a,\"\"b\"\"\"|", line.toString());
+    }
+
+    @TestConfiguration
+    static class Json {
+        @Bean
+        ObjectMapper objectMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+}
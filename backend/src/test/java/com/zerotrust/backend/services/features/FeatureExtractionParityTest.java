@@ -0,0 +1,147 @@
+package com.zerotrust.backend.services.features;
+
+import com.zerotrust.backend.dto.FeatureVector;
+import com.zerotrust.backend.entities.AccessEvent;
+import com.zerotrust.backend.entities.Device;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.enums.UserRole;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.repositories.DeviceRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The bulk GROUP BY path must produce the same feature vectors as the
+ * list-based extractor it replaces in the batch job.
+ */
+@DataJpaTest
+@Import({FeatureExtractionService.class, FeatureStateStore.class})
+class FeatureExtractionParityTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DeviceRepository deviceRepository;
+    @Autowired
+    private AccessEventRepository accessEventRepository;
+    @Autowired
+    private FeatureExtractionService featureService;
+    @Autowired
+    private FeatureStateStore featureStateStore;
+
+    @Test
+    void bulkExtractionMatchesListExtraction() {
+        List<User> users = seedUsers();
+
+        Map<UUID, FeatureVector> bulk = featureService.extractAll(users);
+
+        for (User user : users) {
+            FeatureVector expected = featureService.extract(
+                    user, accessEventRepository.findByUser(user), deviceRepository.findByUser(user));
+            assertMatches(expected, bulk.get(user.getId()), user);
+        }
+    }
+
+    @Test
+    void incrementalStateMatchesFullScan() {
+        List<User> users = seedUsers();
+
+        for (User user : users) {
+            assertTrue(featureStateStore.checkConsistency(user).isConsistent(), user.getEmail());
+
+            FeatureVector expected = featureService.extract(
+                    user, accessEventRepository.findByUser(user), deviceRepository.findByUser(user));
+            assertMatches(expected, featureService.extractIncremental(user), user);
+        }
+    }
+
+    @Test
+    void persistedEventsReachLoadedState() {
+        User user = seedUsers().get(1);
+        long before = featureStateStore.snapshot(user, Instant.now()).getTotalEvents();
+
+        // The listener runs when the insert is flushed
+        accessEventRepository.saveAndFlush(AccessEvent.builder()
+                .user(user)
+                .timestamp(Instant.now())
+                .networkType(NetworkType.TOR)
+                .hourOfDay(3)
+                .success(false)
+                .build());
+
+        assertEquals(before + 1, featureStateStore.snapshot(user, Instant.now()).getTotalEvents());
+        assertTrue(featureStateStore.checkConsistency(user).isConsistent());
+    }
+
+    private static void assertMatches(FeatureVector expected, FeatureVector actual, User user) {
+        // Wall clock may tick between the two calls
+        assertEquals(expected.getSecondsSinceLastLogin(), actual.getSecondsSinceLastLogin(), 1.0);
+        actual.setSecondsSinceLastLogin(expected.getSecondsSinceLastLogin());
+        assertEquals(expected, actual, "feature mismatch for " + user.getEmail());
+    }
+
+    private List<User> seedUsers() {
+        Random random = new Random(7);
+        NetworkType[] networks = {NetworkType.INTERNAL, NetworkType.VPN, NetworkType.EXTERNAL, NetworkType.TOR, null};
+        String[] countries = {"USA", "Tunisia", "Germany", null};
+        // Quarter-point risk scores keep the device sums exact in any order
+        double[] deviceRisks = {12.25, 40.5, 73.75, 95.0};
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("parity" + i + "@company.com")
+                    .password("x")
+                    .role(UserRole.MANAGER)
+                    .lastLoginAt(i % 3 == 0 ? null : Instant.now().minusSeconds(3600L * i))
+                    .build());
+            users.add(user);
+
+            // The last user has neither devices nor events
+            if (i == 5) {
+                continue;
+            }
+            List<Device> devices = new ArrayList<>();
+            for (int d = 0; d <= i % 3; d++) {
+                devices.add(deviceRepository.save(Device.builder()
+                        .deviceName("dev" + i + "-" + d)
+                        .os("Ubuntu")
+                        .osVersion("v1.0")
+                        .patched(random.nextBoolean())
+                        .antivirusEnabled(random.nextBoolean())
+                        .deviceRiskScore(deviceRisks[random.nextInt(deviceRisks.length)])
+                        .user(user)
+                        .build()));
+            }
+            for (int e = 0; e < 10 + i * 7; e++) {
+                // Either well inside or well outside the 24h window
+                long ageSeconds = random.nextBoolean() ? random.nextInt(3600 * 20) : 3600 * 30 + random.nextInt(3600 * 100);
+                accessEventRepository.save(AccessEvent.builder()
+                        .user(user)
+                        .device(devices.get(random.nextInt(devices.size())))
+                        .timestamp(Instant.now().minusSeconds(ageSeconds))
+                        .networkType(networks[random.nextInt(networks.length)])
+                        .country(countries[random.nextInt(countries.length)])
+                        .hourOfDay(random.nextInt(24))
+                        .success(random.nextDouble() < 0.8)
+                        .build());
+            }
+        }
+
+        return users;
+    }
+}
@@ -0,0 +1,141 @@
+package com.zerotrust.backend.services.ingest;
+
+import com.zerotrust.backend.dto.AccessEventPayload;
+import com.zerotrust.backend.dto.IngestBatchResponse;
+import com.zerotrust.backend.entities.AccessEvent;
+import com.zerotrust.backend.entities.Device;
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.NetworkType;
+import com.zerotrust.backend.repositories.AccessEventRepository;
+import com.zerotrust.backend.repositories.DeviceRepository;
+import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.features.FeatureExtractionService;
+import com.zerotrust.backend.services.features.FeatureStateStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static com.zerotrust.backend.TestFixtures.saveUser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({AccessEventIngestionService.class, AccessEventBulkWriter.class, FeatureStateStore.class,
+        FeatureExtractionService.class, AccessEventIngestionServiceTest.Support.class})
+// Rows are written over JDBC, so the seeded users must be committed first
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccessEventIngestionServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DeviceRepository deviceRepository;
+    @Autowired
+    private AccessEventRepository accessEventRepository;
+    @Autowired
+    private FeatureStateStore featureStateStore;
+    @Autowired
+    private AccessEventIngestionService ingestionService;
+
+    @Test
+    void storesValidEventsAndReportsRejectedOnes() {
+        User alice = saveUser(userRepository, "alice.ingest@company.com");
+        User bob = saveUser(userRepository, "bob.ingest@company.com");
+        Device laptop = deviceRepository.save(Device.builder()
+                .deviceName("laptop").os("Linux").osVersion("6").user(alice).build());
+        featureStateStore.rebuild(alice);
+        long before = featureStateStore.snapshot(alice, Instant.now()).getTotalEvents();
+
+        Instant saturdayNight = Instant.parse("2025-03-01T23:30:00Z");
+        List<AccessEventPayload> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(event(alice.getEmail(), saturdayNight.plusSeconds(i)).deviceId(laptop.getId()).build());
+        }
+        batch.add(event("nobody@company.com", saturdayNight).build());                      // 40: unknown user
+        batch.add(event(bob.getEmail(), saturdayNight).deviceId(laptop.getId()).build());   // 41: foreign device
+        batch.add(event(bob.getEmail(), null).build());                                     // 42: no timestamp
+        batch.add(event(bob.getEmail(), saturdayNight).eventRiskScore(150.0).build());      // 43: out of range
+        batch.add(event(bob.getEmail(), saturdayNight).userAgent("").build());
+
+        IngestBatchResponse response = ingestionService.ingest(batch);
+
+        assertEquals(45, response.getReceived());
+        assertEquals(41, response.getAccepted());
+        assertEquals(4, response.getRejected());
+        assertEquals(List.of(40, 41, 42, 43), response.getErrors().stream().map(IngestBatchResponse.EventError::getIndex).toList());
+        assertTrue(response.getErrors().get(0).getMessage().contains("unknown user"));
+        assertTrue(response.getErrors().get(1).getMessage().contains("does not belong"));
+
+        List<AccessEvent> stored = accessEventRepository.findAll();
+        assertEquals(41, stored.size());
+        AccessEvent first = stored.stream().filter(e -> e.getTimestamp().equals(saturdayNight) && e.getDevice() != null)
+                .findFirst().orElseThrow();
+        assertEquals(23, first.getHourOfDay());
+        assertTrue(first.isWeekend());
+        assertEquals(NetworkType.VPN, first.getNetworkType());
+        assertEquals(before + 40, featureStateStore.snapshot(alice, Instant.now()).getTotalEvents());
+
+        // Second batch resolves from cache
+        ingestionService.ingest(List.of(event(alice.getEmail(), saturdayNight).build()));
+        AccessEventIngestionService.IngestStats stats = ingestionService.stats();
+        assertEquals(42, stats.getEventsAccepted());
+        assertTrue(stats.getUserCache().getHits() > 0);
+
+        // A user created after being rejected as unknown is accepted right away
+        saveUser(userRepository, "nobody@company.com");
+        assertEquals(1, ingestionService.ingest(List.of(event("nobody@company.com", saturdayNight).build())).getAccepted());
+    }
+
+    @Test
+    void rejectsBatchesThatDoNotFitTheBudget() {
+        Semaphore exhausted = new Semaphore(0);
+        Object original = ReflectionTestUtils.getField(ingestionService, "inFlight");
+        ReflectionTestUtils.setField(ingestionService, "inFlight", exhausted);
+        try {
+            assertThrows(AccessEventIngestionService.SaturatedException.class,
+                    () -> ingestionService.ingest(List.of(event("a@company.com", Instant.now()).build())));
+        } finally {
+            ReflectionTestUtils.setField(ingestionService, "inFlight", original);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ingestionService.ingest(List.of()));
+        assertTrue(ingestionService.stats().getBatchesRejectedSaturated() > 0);
+    }
+
+    private static AccessEventPayload.AccessEventPayloadBuilder event(String email, Instant timestamp) {
+        return AccessEventPayload.builder()
+                .userEmail(email)
+                .timestamp(timestamp)
+                .networkType(NetworkType.VPN)
+                .country("DE")
+                .success(true)
+                .eventRiskScore(20.0);
+    }
+
+    @TestConfiguration
+    static class Support {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RescorePolicyTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    // 60 min window aging, 25% login drift above 1h, 24h max staleness
+    private final RescorePolicy policy = new RescorePolicy(60, 0.25, 3600, 24);
+
+    private static User user(Instant scoredAt, Instant inputsChangedAt, Instant lastLoginAt) {
+        return User.builder()
+                .email("user@company.com").password("x").role(UserRole.EMPLOYEE)
+                .scoredAt(scoredAt).inputsChangedAt(inputsChangedAt).lastLoginAt(lastLoginAt)
+                .build();
+    }
+
+    private static Instant ago(Duration duration) {
+        return NOW.minus(duration);
+    }
+
+    @Test
+    void scoresUsersThatWereNeverScored() {
+        assertEquals(RescorePolicy.Reason.NEVER_SCORED, policy.reason(user(null, null, null), NOW));
+    }
+
+    @Test
+    void skipsUsersWithNothingChanged() {
+        User quiet = user(ago(Duration.ofMinutes(5)), ago(Duration.ofDays(3)), ago(Duration.ofDays(10)));
+        assertNull(policy.reason(quiet, NOW));
+    }
+
+    @Test
+    void scoresUsersWhoseInputsChangedAfterTheLastScore() {
+        User changed = user(ago(Duration.ofMinutes(5)), ago(Duration.ofMinutes(1)), null);
+        assertEquals(RescorePolicy.Reason.INPUTS_CHANGED, policy.reason(changed, NOW));
+    }
+
+    @Test
+    void reEvaluatesTheEventWindowWhileRecentEventsAgeOut() {
+        // Events in the window at scoring time, but scored only 10 minutes ago
+        User fresh = user(ago(Duration.ofMinutes(10)), ago(Duration.ofHours(5)), null);
+        assertNull(policy.reason(fresh, NOW));
+
+        User aging = user(ago(Duration.ofMinutes(90)), ago(Duration.ofHours(5)), null);
+        assertEquals(RescorePolicy.Reason.WINDOW_AGING, policy.reason(aging, NOW));
+
+        // Window was already empty at scoring time
+        User emptyWindow = user(ago(Duration.ofMinutes(90)), ago(Duration.ofHours(30)), null);
+        assertNull(policy.reason(emptyWindow, NOW));
+    }
+
+    @Test
+    void scoresWhenSecondsSinceLastLoginDriftedRelatively() {
+        // 10h since login at scoring time, 10.5h now: 5% drift
+        User small = user(ago(Duration.ofMinutes(30)), null, ago(Duration.ofMinutes(630)));
+        assertNull(policy.reason(small, NOW));
+
+        // 2h since login at scoring time, 3h now: 50% drift
+        User large = user(ago(Duration.ofHours(1)), null, ago(Duration.ofHours(3)));
+        assertEquals(RescorePolicy.Reason.LOGIN_DRIFT, policy.reason(large, NOW));
+    }
+
+    @Test
+    void loginDriftUsesAFloorForRecentLogins() {
+        // 1 minute since login at scoring time, 11 minutes now: below the 1h floor
+        User recent = user(ago(Duration.ofMinutes(10)), null, ago(Duration.ofMinutes(11)));
+        assertNull(policy.reason(recent, NOW));
+    }
+
+    @Test
+    void neverKeepsAScoreBeyondMaxStaleness() {
+        User stale = user(ago(Duration.ofHours(25)), ago(Duration.ofDays(5)), null);
+        assertEquals(RescorePolicy.Reason.MAX_STALENESS, policy.reason(stale, NOW));
+    }
+}
@@ -0,0 +1,82 @@
+package com.zerotrust.backend.services.rescore;
+
+import com.zerotrust.backend.entities.User;
+import com.zerotrust.backend.enums.UserRole;
+import com.zerotrust.backend.repositories.UserRepository;
+import com.zerotrust.backend.services.TrustScoreEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RescoringPipelineTest {
+
+    private UserRepository userRepository;
+    private TrustScoreEngine engine;
+    private RescoringPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        engine = mock(TrustScoreEngine.class);
+        when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> User.builder().id(id).email(id + "@company.com").password("x").role(UserRole.EMPLOYEE).build()).toList();
+        });
+        when(engine.scoreUsers(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        pipeline = new RescoringPipeline(userRepository, engine, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "enabled", false);
+        ReflectionTestUtils.setField(pipeline, "maxBatch", 2);
+        pipeline.start();
+        // Accept events, but drain manually instead of on the background thread
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+    }
+
+    @Test
+    void coalescesChangesPerUserWithinAWindow() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+
+        pipeline.onInputsChanged(new UserInputsChangedEvent(List.of(alice, bob), "access-events"));
+        pipeline.onInputsChanged(new UserInputsChangedEvent(List.of(alice), "device"));
+        pipeline.onInputsChanged(new UserInputsChangedEvent(List.of(alice, carol), "access-events"));
+
+        assertEquals(3, pipeline.drain());
+        // Three users in groups of at most two
+        verify(engine, times(2)).scoreUsers(anyList());
+
+        RescoringPipeline.PipelineStats stats = pipeline.stats();
+        assertEquals(5, stats.getChangesReceived());
+        assertEquals(3, stats.getUsersRescored());
+        assertEquals(0, stats.getPendingUsers());
+        assertTrue(stats.getMaxLatencyMs() >= 0);
+
+        // Nothing pending: no work
+        assertEquals(0, pipeline.drain());
+        verify(engine, times(2)).scoreUsers(anyList());
+    }
+
+    @Test
+    void ignoresChangesWhenDisabled() {
+        ReflectionTestUtils.setField(pipeline, "enabled", false);
+        pipeline.onInputsChanged(new UserInputsChangedEvent(List.of(UUID.randomUUID()), "device"));
+        assertEquals(0, pipeline.drain());
+        verify(engine, never()).scoreUsers(anyList());
+    }
+}
@@ -0,0 +1,172 @@
+package com.zerotrust.backend.services.shadow;
+
+import com.zerotrust.backend.enums.RiskLevel;
+import com.zerotrust.backend.ml.SyntheticDataGenerator;
+import com.zerotrust.backend.services.TrustScoringService;
+import com.zerotrust.backend.services.trust.FeatureRows;
+import com.zerotrust.backend.services.trust.ModelRegistry;
+import com.zerotrust.backend.services.trust.ModelVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import weka.core.Instances;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.zerotrust.backend.TestFixtures.featureRows;
+import static com.zerotrust.backend.TestFixtures.forest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShadowScoringServiceTest {
+
+    private static Instances data;
+    private static double[][] rows;
+
+    private ModelRegistry registry;
+    private ModelVersion active;
+    private ModelVersion candidate;
+    private ShadowScoringService shadow;
+
+    @BeforeAll
+    static void generate() {
+        data = new SyntheticDataGenerator(5L).generateTrainingData(600);
+        rows = featureRows(data, 200);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new ModelRegistry();
+        active = registry.register(forest(data, 5, 3, 1), "trained", Instant.now());
+        candidate = registry.registerCandidate(forest(data, 3, 3, 2), "trained", Instant.now());
+        shadow = newService(new TrustScoringService(registry), 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shadow.stop();
+    }
+
+    private ShadowScoringService newService(TrustScoringService scoring, int queueCapacity) {
+        ShadowScoringService service = new ShadowScoringService(registry, scoring);
+        ReflectionTestUtils.setField(service, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        service.start();
+        return service;
+    }
+
+    private static ShadowScoringService.ShadowStats awaitCompared(ShadowScoringService service, long rows)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ShadowScoringService.ShadowStats stats = service.stats();
+        while (stats.getCompared() < rows && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = service.stats();
+        }
+        return stats;
+    }
+
+    @Test
+    void statisticsMatchComparingBothVersionsDirectly() throws Exception {
+        TrustScoringService scoring = new TrustScoringService(registry);
+        double[] activeScores = scoring.computeBatch(active, rows);
+        double[] candidateScores = scoring.computeBatch(candidate, rows);
+
+        // Two batches and a single login; the statistics must not depend on how rows arrive
+        shadow.observe(active, Arrays.copyOfRange(rows, 0, 120), Arrays.copyOfRange(activeScores, 0, 120));
+        shadow.observe(active, Arrays.copyOfRange(rows, 120, 199), Arrays.copyOfRange(activeScores, 120, 199));
+        shadow.observe(active, FeatureRows.toFeatureVector(rows[199]), activeScores[199]);
+        ShadowScoringService.ShadowStats stats = awaitCompared(shadow, rows.length);
+
+        double sum = 0;
+        double max = 0;
+        long flipped = 0;
+        long highToLow = 0;
+        for (int i = 0; i < rows.length; i++) {
+            double delta = candidateScores[i] - activeScores[i];
+            sum += delta;
+            max = Math.max(max, Math.abs(delta));
+            RiskLevel from = scoring.risk(activeScores[i]);
+            RiskLevel to = scoring.risk(candidateScores[i]);
+            if (from != to) {
+                flipped++;
+            }
+            if (from == RiskLevel.HIGH && to == RiskLevel.LOW) {
+                highToLow++;
+            }
+        }
+        double mean = sum / rows.length;
+        double squares = 0;
+        for (int i = 0; i < rows.length; i++) {
+            double deviation = candidateScores[i] - activeScores[i] - mean;
+            squares += deviation * deviation;
+        }
+
+        assertEquals(rows.length, stats.getCompared());
+        assertEquals(candidate.id(), stats.getCandidateVersion());
+        assertEquals(mean, stats.getMeanDelta(), 1e-9);
+        assertEquals(Math.sqrt(squares / (rows.length - 1)), stats.getDeltaStdDev(), 1e-9);
+        assertEquals(max, stats.getMaxAbsoluteDelta(), 1e-12);
+        assertEquals(flipped, stats.getFlipped());
+        assertEquals(flipped, stats.getCandidateRiskier() + stats.getCandidateLessRisky());
+        assertEquals(highToLow, stats.getLevelFlips().get(RiskLevel.HIGH).get(RiskLevel.LOW));
+        long total = stats.getLevelFlips().values().stream()
+                .flatMap(row -> row.values().stream())
+                .mapToLong(Long::longValue)
+                .sum();
+        assertEquals(rows.length, total);
+    }
+
+    @Test
+    void nothingIsComparedWithoutACandidateAndANewCandidateStartsOver() throws Exception {
+        double[] activeScores = new TrustScoringService(registry).computeBatch(active, rows);
+        shadow.observe(active, rows, activeScores);
+        assertEquals(rows.length, awaitCompared(shadow, rows.length).getCompared());
+
+        registry.clearCandidate();
+        shadow.observe(active, rows, activeScores);
+        ShadowScoringService.ShadowStats cleared = shadow.stats();
+        assertNull(cleared.getCandidateVersion());
+        assertEquals(0, cleared.getCompared());
+        assertEquals(0, cleared.getQueued());
+
+        ModelVersion next = registry.registerCandidate(forest(data, 3, 3, 3), "trained", Instant.now());
+        assertEquals(0, shadow.stats().getCompared());
+        shadow.observe(active, Arrays.copyOfRange(rows, 0, 10), Arrays.copyOfRange(activeScores, 0, 10));
+        ShadowScoringService.ShadowStats restarted = awaitCompared(shadow, 10);
+        assertEquals(next.id(), restarted.getCandidateVersion());
+        assertEquals(10, restarted.getCompared());
+    }
+
+    @Test
+    void fullQueueDropsSamplesInsteadOfBlockingTheCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TrustScoringService slow = new TrustScoringService(registry) {
+            @Override
+            public double[] computeBatch(ModelVersion version, double[][] batch) throws Exception {
+                release.await();
+                return super.computeBatch(version, batch);
+            }
+        };
+        shadow.stop();
+        shadow = newService(slow, 2);
+        double[] activeScores = new TrustScoringService(registry).computeBatch(active, rows);
+
+        // One sample is stuck in scoring and two wait in the queue; the rest are dropped at once
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            shadow.observe(active, rows, activeScores);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(7, shadow.stats().getDropped());
+
+        release.countDown();
+        assertEquals(3L * rows.length, awaitCompared(shadow, 3L * rows.length).getCompared());
+    }
+}
@@ -0,0 +1,62 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.ml.SyntheticDataGenerator;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ForestCompilerTest {
+
+    @Test
+    void compiledForestMatchesWekaPredictions() throws Exception {
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(30);
+        forest.buildClassifier(new SyntheticDataGenerator(42L).generateTrainingData(900));
+
+        CompiledForestModel compiled = ForestCompiler.compile(forest);
+        assertNotNull(compiled);
+        assertEquals(30, compiled.numTrees());
+
+        Instances test = new SyntheticDataGenerator(99L).generateTrainingData(500);
+        for (int i = 0; i < test.numInstances(); i++) {
+            Instance instance = test.instance(i);
+            double[] row = Arrays.copyOf(instance.toDoubleArray(), FeatureRows.NUM_FEATURES);
+            assertEquals(forest.classifyInstance(instance), compiled.predict(row), 0.0, "row " + i);
+        }
+    }
+
+    @Test
+    void batchScoresMatchSingleScores() throws Exception {
+        WekaTrustModel weka = new WekaTrustModel(new ModelRegistry());
+        RandomForest twentyTrees = new RandomForest();
+        twentyTrees.setNumIterations(20);
+        weka.train(new SyntheticDataGenerator(42L).generateTrainingData(600), twentyTrees);
+        CompiledForestModel compiled = weka.getCompiledModel();
+
+        Instances test = new SyntheticDataGenerator(5L).generateTrainingData(300);
+        double[][] rows = new double[test.numInstances()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOf(test.instance(i).toDoubleArray(), FeatureRows.NUM_FEATURES);
+        }
+
+        double[] wekaBatch = weka.scoreBatch(rows);
+        double[] compiledBatch = compiled.scoreBatch(rows);
+        for (int i = 0; i < rows.length; i++) {
+            double expected = weka.score(FeatureRows.toFeatureVector(rows[i]));
+            assertEquals(expected, wekaBatch[i], 0.0, "weka row " + i);
+            assertEquals(expected, compiledBatch[i], 0.0, "compiled row " + i);
+        }
+    }
+
+    @Test
+    void untrainedForestDoesNotCompile() {
+        assertNull(ForestCompiler.compile(new RandomForest()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.ml.EngineTrainer;
+import com.zerotrust.backend.ml.SyntheticDataGenerator;
+import com.zerotrust.backend.ml.SyntheticDataset;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Instances;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelFileFormatTest {
+
+    private static ModelVersion version;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void train() throws Exception {
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(15);
+        forest.buildClassifier(new SyntheticDataGenerator(42L).generateTrainingData(600));
+        version = new ModelRegistry().register(forest, "test", Instant.parse("2026-01-02T03:04:05Z"));
+    }
+
+    @Test
+    void roundTripScoresIdentically() throws Exception {
+        Path path = dir.resolve("model" + ModelFileFormat.EXTENSION);
+        long size = ModelFileFormat.write(version, path);
+        assertEquals(Files.size(path), size);
+
+        ModelFileFormat.ModelFile file = ModelFileFormat.read(path);
+        assertEquals(version.id(), file.versionId());
+        assertEquals(version.name(), file.modelName());
+        assertEquals(version.createdAt(), file.createdAt());
+        assertEquals(15, file.forest().numTrees());
+
+        Instances test = new SyntheticDataGenerator(9L).generateTrainingData(400);
+        double[][] rows = new double[test.numInstances()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOf(test.instance(i).toDoubleArray(), FeatureRows.NUM_FEATURES);
+        }
+        assertArrayEquals(version.weka().scoreBatch(rows), file.forest().scoreBatch(rows));
+
+        // Registered from the file, the version keeps its id and scores with the compiled forest
+        ModelRegistry registry = new ModelRegistry();
+        ModelVersion loaded = registry.register(file.forest(), file.modelName(), "file", file.createdAt(), file.versionId());
+        assertNull(loaded.weka());
+        assertNull(new WekaTrustModel(registry).getClassifier());
+        assertEquals(version.id(), loaded.id());
+        assertArrayEquals(file.forest().scoreBatch(rows), loaded.scorer("weka").scoreBatch(rows));
+    }
+
+    @Test
+    void enginesSurviveTheRoundTrip() throws Exception {
+        SyntheticDataset train = new SyntheticDataGenerator(42L).generateDataset(600, 1);
+        RandomForest forest = new RandomForest();
+        forest.setNumIterations(5);
+        forest.buildClassifier(train.toInstances());
+        Map<String, TrustModel> engines = new EngineTrainer().train(train).models();
+        ModelVersion trained = new ModelRegistry().register(forest, engines, "test", Instant.now());
+
+        Path path = dir.resolve("model" + ModelFileFormat.EXTENSION);
+        ModelFileFormat.write(trained, path);
+        ModelFileFormat.ModelFile file = ModelFileFormat.read(path);
+        assertEquals(engines.keySet(), file.engines().keySet());
+
+        Instances test = new SyntheticDataGenerator(9L).generateTrainingData(400);
+        double[][] rows = new double[test.numInstances()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOf(test.instance(i).toDoubleArray(), FeatureRows.NUM_FEATURES);
+        }
+        ModelVersion loaded = new ModelRegistry().register(file.forest(), file.engines(), file.modelName(), "file",
+                file.createdAt(), file.versionId());
+        for (String engine : engines.keySet()) {
+            assertTrue(loaded.hasEngine(engine), engine);
+            assertArrayEquals(engines.get(engine).scoreBatch(rows), loaded.scorer(engine).scoreBatch(rows), engine);
+        }
+    }
+
+    @Test
+    void rejectsCorruptedFiles() throws Exception {
+        Path path = dir.resolve("model" + ModelFileFormat.EXTENSION);
+        ModelFileFormat.write(version, path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x01;
+        Files.write(path, flipped);
+        IOException checksum = assertThrows(IOException.class, () -> ModelFileFormat.read(path));
+        assertTrue(checksum.getMessage().contains("checksum"), checksum.getMessage());
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 100));
+        assertThrows(IOException.class, () -> ModelFileFormat.read(path));
+    }
+
+    @Test
+    void rejectsAnotherFeatureSchema() throws Exception {
+        Path path = dir.resolve("model" + ModelFileFormat.EXTENSION);
+        ModelFileFormat.write(version, path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        // Rename the first feature in place (same length) and re-seal the checksum
+        byte[] first = FeatureRows.FEATURE_NAMES[0].getBytes(StandardCharsets.UTF_8);
+        int offset = 4 + 2 + 2 + 2;
+        bytes[offset] = (byte) (first[0] == 'x' ? 'y' : 'x');
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length - 4, (int) crc.getValue());
+        Files.write(path, bytes);
+
+        IOException schema = assertThrows(IOException.class, () -> ModelFileFormat.read(path));
+        assertTrue(schema.getMessage().contains("schema"), schema.getMessage());
+    }
+}
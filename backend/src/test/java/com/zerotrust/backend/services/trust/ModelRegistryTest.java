@@ -0,0 +1,120 @@
+package com.zerotrust.backend.services.trust;
+
+import com.zerotrust.backend.ml.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Instances;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.zerotrust.backend.TestFixtures.featureRows;
+import static com.zerotrust.backend.TestFixtures.forest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelRegistryTest {
+
+    private static Instances data;
+
+    @BeforeAll
+    static void generate() {
+        data = new SyntheticDataGenerator(11L).generateTrainingData(400);
+    }
+
+    @Test
+    void registeringSwapsTheActiveVersionAndKeepsOldOnesForRollback() throws Exception {
+        ModelRegistry registry = new ModelRegistry();
+        assertNull(registry.active());
+
+        ModelVersion first = registry.register(forest(data, 5, 0, 1), "trained", Instant.now());
+        ModelVersion second = registry.register(forest(data, 5, 0, 2), "trained", Instant.now());
+        assertNotEquals(first.id(), second.id());
+        assertEquals(second, registry.active());
+        assertNotNull(second.compiled());
+        assertEquals(ModelRegistry.MODEL_NAME, second.name());
+
+        registry.activate(first.id());
+        assertEquals(first, registry.active());
+        assertTrue(registry.versions().stream().anyMatch(v -> v.getId().equals(first.id()) && v.isActive()));
+        assertThrows(IllegalArgumentException.class, () -> registry.activate("missing"));
+    }
+
+    @Test
+    void retainsOnlyTheConfiguredNumberOfVersions() throws Exception {
+        ModelRegistry registry = new ModelRegistry();
+        ReflectionTestUtils.setField(registry, "retainedVersions", 2);
+        RandomForest forest = forest(data, 3, 0, 1);
+        for (int i = 0; i < 4; i++) {
+            registry.register(forest, "trained", Instant.now());
+        }
+        assertEquals(2, registry.versions().size());
+        assertEquals(registry.active().id(), registry.versions().get(0).getId());
+    }
+
+    @Test
+    void candidateIsRetainedUntilPromotedAndNeverActivatedByRegistration() throws Exception {
+        ModelRegistry registry = new ModelRegistry();
+        ReflectionTestUtils.setField(registry, "retainedVersions", 2);
+        RandomForest forest = forest(data, 3, 0, 1);
+        ModelVersion active = registry.register(forest, "trained", Instant.now());
+        ModelVersion candidate = registry.registerCandidate(forest(data, 3, 0, 2), "trained", Instant.now());
+        assertEquals(active, registry.active());
+        assertEquals(candidate, registry.candidate());
+        assertThrows(IllegalArgumentException.class, () -> registry.setCandidate(active.id()));
+
+        // Newer active versions push out old ones, but not the candidate
+        for (int i = 0; i < 3; i++) {
+            registry.register(forest, "trained", Instant.now());
+        }
+        assertTrue(registry.versions().stream().anyMatch(v -> v.getId().equals(candidate.id()) && v.isCandidate()));
+
+        assertEquals(candidate, registry.promoteCandidate());
+        assertEquals(candidate, registry.active());
+        assertNull(registry.candidate());
+        assertThrows(IllegalStateException.class, registry::promoteCandidate);
+    }
+
+    @Test
+    void scoringKeepsWorkingWhileVersionsAreSwapped() throws Exception {
+        ModelRegistry registry = new ModelRegistry();
+        WekaTrustModel weka = new WekaTrustModel(registry);
+        registry.register(forest(data, 5, 0, 1), "trained", Instant.now());
+        double[][] rows = featureRows(data, 50);
+
+        AtomicBoolean swapping = new AtomicBoolean(true);
+        try (ExecutorService scorers = Executors.newFixedThreadPool(4)) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(scorers.submit(() -> {
+                    int batches = 0;
+                    while (swapping.get()) {
+                        for (double score : weka.scoreBatch(rows)) {
+                            assertTrue(score >= 0 && score <= 100);
+                        }
+                        batches++;
+                    }
+                    return batches;
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                registry.register(forest(data, 5, 0, i + 2), "trained", Instant.now());
+            }
+            swapping.set(false);
+            for (Future<Integer> result : results) {
+                assertTrue(result.get() > 0);
+            }
+        }
+    }
+}
@@ -80,6 +80,12 @@ export interface RiskHistory {
   calculatedAt: string;
 }
 
+export interface RiskHistoryPage {
+  items: RiskHistory[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface SystemStats {
   totalUsers: number;
   highRiskUsers: number;
@@ -201,8 +207,11 @@ export const getSystemHealth = () =>
   adminApi.get<SystemHealth>('/metrics/system-health');
 
 // Get risk history for a specific user
-export const getRiskHistory = (userId: string) =>
-  api.get<RiskHistory[]>(`/risk-history/${userId}`);
+export const getRiskHistory = (
+  userId: string,
+  params: { cursor?: string; limit?: number; from?: string; to?: string } = {}
+) =>
+  api.get<RiskHistoryPage>(`/risk-history/${userId}`, { params });
 
 export const getModelInfo = () =>
   adminApi.get<ModelInfo>('/admin/model-info');